@@ -1,8 +1,13 @@
 package controller;
 
+import java.util.concurrent.ExecutionException;
+
 import javax.swing.JFrame;
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+import model.engine.SmpSearch;
+import model.engine.TimeManager;
 import model.game.*;
 import model.pieces.*;
 import model.player.*;
@@ -14,6 +19,9 @@ import view.*;
  */
 public class ChessController {
 	
+	private static final long COMPUTER_MOVE_MILLIS = 1000; // most time the computer player takes over a move
+	private static final int COMPUTER_TABLE_MB = 16; // size of the computer player's transposition table
+	
 	private ChessGame chessGame;
 	private BoardGUI boardGUI;
 	private ForfeitListener forfeitListener; // listener to check for player forfeits
@@ -24,12 +32,25 @@ public class ChessController {
 	private Player blackPlayer;
 	private boolean isCustomGame; // true if players want a custom game.
 	private MoveCommandManager moveManager; // manager to allow for move execution and undo.
+	private Color computerColor; // the player the computer plays, null if both players are human.
+	private SmpSearch computerSearch; // search the computer player picks its moves with, on every core, null if there is none.
+	private SwingWorker<Integer, Void> computerMove; // the computer player's search running in the background, null while it is not thinking.
 	
 	/**
-	 * Constructor.
+	 * Constructor. Both players are human.
 	 * 
 	 */
 	public ChessController(boolean isCustomGame) {
+		this(isCustomGame, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param isCustomGame true for the custom 9x9 game.
+	 * @param computerColor the player the computer plays, null if both players are human.
+	 */
+	public ChessController(boolean isCustomGame, Color computerColor) {
 		this.whitePlayer = new Player(Color.WHITE);
 		this.blackPlayer = new Player(Color.BLACK);
 		if (isCustomGame) {
@@ -45,6 +66,11 @@ public class ChessController {
 		this.undoListener = new UndoListener(this);
 		this.boardGUI = new BoardGUI(chessGame.getBoard(), pieceListener, restartListener, forfeitListener, undoListener);
 		this.moveManager = new MoveCommandManager();
+		this.computerColor = computerColor;
+		if (computerColor != null) {
+			this.computerSearch = new SmpSearch(Runtime.getRuntime().availableProcessors(), COMPUTER_TABLE_MB);
+			playComputerMoveIfTurn();
+		}
 	}
 	
 	/**
@@ -81,6 +107,9 @@ public class ChessController {
 	 * @param newTileGUI the tile to move a piece to
 	 */
 	public void receivedMove(TileGUI oldTileGUI, TileGUI newTileGUI) {
+		if (computerThinking()) {
+			return;
+		}
 		// check that the oldTile is not empty
 		MoveCommand move = new MoveCommand(chessGame, oldTileGUI, newTileGUI);
 		int ret = moveManager.executeCommand(move);
@@ -89,6 +118,9 @@ public class ChessController {
 			if (winConditionPresent()) {
 				restartGame();
 			}
+			else {
+				playComputerMoveIfTurn();
+			}
 		}
 		// tried to move out of turn
 		else if (ret == 1){
@@ -100,6 +132,60 @@ public class ChessController {
 		}
 	}
 	
+	/**
+	 * Let the computer player move, if there is one, it is its turn and it is not thinking already. The
+	 * search runs on a background thread so the GUI stays responsive, and its move is then passed on like a
+	 * player's, through receivedMove on the event dispatch thread.
+	 */
+	public void playComputerMoveIfTurn() {
+		if (computerColor == null || chessGame.getPlayerTurn() != computerColor || computerMove != null) {
+			return;
+		}
+		// search a copy made here, on the thread that owns the game
+		ChessGame position = new ChessGame(chessGame);
+		computerMove = new SwingWorker<Integer, Void>() {
+			@Override
+			protected Integer doInBackground() {
+				return computerSearch.search(position, TimeManager.forMoveTime(COMPUTER_MOVE_MILLIS));
+			}
+			
+			@Override
+			protected void done() {
+				computerMove = null;
+				int move;
+				try {
+					move = get();
+				} catch (InterruptedException | ExecutionException e) {
+					// the game is as it was before the search, so the players can undo or restart to try again
+					JOptionPane.showMessageDialog(boardGUI, "The computer could not find a move (" + e.getCause()
+							+ "). Undo or restart the game to let it try again.");
+					return;
+				}
+				// no legal move, the game is already over
+				if (move == 0) {
+					return;
+				}
+				Board board = chessGame.getBoard();
+				receivedMove(board.getTile(PackedMove.from(move)).getTileGUI(), board.getTile(PackedMove.to(move)).getTileGUI());
+			}
+		};
+		computerMove.execute();
+	}
+	
+	/**
+	 * Check if the computer player is thinking, telling the players to wait if it is. The game must not
+	 * change until its move is in.
+	 * 
+	 * @return true if the computer player is thinking, false otherwise.
+	 */
+	private boolean computerThinking() {
+		if (computerMove == null) {
+			return false;
+		}
+		JOptionPane.showMessageDialog(boardGUI, "Please wait for the computer to complete its move.");
+		return true;
+	}
+	
 	/**
 	 * Check win (and check) conditions and handle them if present.
 	 */
@@ -135,6 +221,9 @@ public class ChessController {
 	 * Restart the game and start a new one.
 	 */
 	public void restartGame() {
+		if (computerThinking()) {
+			return;
+		}
 		this.boardGUI.setVisible(false);
 		this.boardGUI.dispose();
 		// generate a new instance of chess game.
@@ -148,6 +237,7 @@ public class ChessController {
 		this.boardGUI = new BoardGUI(chessGame.getBoard(), this.pieceListener, this.restartListener, this.forfeitListener, this.undoListener);
 		this.boardGUI.updatePlayerWins(whitePlayer.getWins(), blackPlayer.getWins());
 		this.moveManager = new MoveCommandManager();
+		playComputerMoveIfTurn();
 	}
 	
 	/**
@@ -166,6 +256,9 @@ public class ChessController {
 	 * @param p the player who chose to forfeit
 	 */
 	public void forfeitGame(Player p) {
+		if (computerThinking()) {
+			return;
+		}
 		// whichever player did not forfeit receives a win
 		if (p != whitePlayer) {
 			whitePlayer.incrementWins();
@@ -180,9 +273,18 @@ public class ChessController {
 	 * Prompt the MoveCommand manager to try to undo last move.
 	 */
 	public void undoMove() {
+		if (computerThinking()) {
+			return;
+		}
 		if (moveManager.isUndoAvailable()) {
 			moveManager.undo();
 		}
+		// take back the computer's reply too, so it is the human player's turn again
+		if (computerColor != null && chessGame.getPlayerTurn() == computerColor && moveManager.isUndoAvailable()) {
+			moveManager.undo();
+		}
+		// with the computer's first move undone there is nothing left to take back, so it moves again
+		playComputerMoveIfTurn();
 	}
 	
 	
@@ -190,7 +292,21 @@ public class ChessController {
 		// let user choose customer or classic game. TODO: refactor!
 		String[] options = {"classic", "custom"};
 		String s = (String) JOptionPane.showInputDialog(null, "Choose game type", "", JOptionPane.PLAIN_MESSAGE, null, options, "classic");
-		ChessController chessController = new ChessController(s.equals("custom"));
+		// let user choose to play against another player or the computer.
+		String[] opponents = {"two players", "play white vs computer", "play black vs computer"};
+		String o = (String) JOptionPane.showInputDialog(null, "Choose opponent", "", JOptionPane.PLAIN_MESSAGE, null, opponents, "two players");
+		// either dialog was cancelled
+		if (s == null || o == null) {
+			return;
+		}
+		Color computerColor = null;
+		if (o.equals("play white vs computer")) {
+			computerColor = Color.BLACK;
+		}
+		else if (o.equals("play black vs computer")) {
+			computerColor = Color.WHITE;
+		}
+		ChessController chessController = new ChessController(s.equals("custom"), computerColor);
 		while(true) {
 			// game keeps going until users exit out of the GUI
 		}
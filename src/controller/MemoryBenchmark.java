@@ -0,0 +1,416 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Vector;
+
+import model.game.ChessGame;
+import model.game.LeaperAttacks;
+import model.game.LineTables;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.SliderAttacks;
+import model.game.Tile;
+import model.game.TileSet;
+import model.game.ZobristKeys;
+import model.pieces.Piece;
+import view.TileGUI;
+
+/**
+ * MemoryBenchmark --- measures how much memory hosted games take. It plays random moves in a number of
+ * games through MoveCommands, as the controller does, and reports the bytes each game retains, split into
+ * Tiles, Pieces, TileSets, JDK collections, the MoveCommandManager undo stack and everything else, and the
+ * bytes allocated per move.
+ *
+ * Retained sizes are worked out by walking each game's objects and adding up their sizes under the usual
+ * 64-bit HotSpot layout with compressed references: a 12 byte header (16 for arrays), 4 byte references
+ * and sizes rounded up to 8 bytes. JDK collections cannot be looked into by reflection, so their internals
+ * are estimated from their size. The heap growth measured around building the games is printed as well,
+ * as a check on the estimate. The attack and key tables shared by every game of a board size are not
+ * counted, and neither is the GUI.
+ *
+ * Run from the command line: MemoryBenchmark [games=N] [moves=K] [classic|custom]
+ * @author Lance
+ *
+ */
+public class MemoryBenchmark {
+
+	private static final int HEADER = 12; // bytes in an object header
+	private static final int ARRAY_HEADER = 16; // bytes in an array header, length included
+	private static final int REFERENCE = 4; // bytes in a compressed reference
+	private static final int ALIGNMENT = 8; // objects start on multiples of this
+	private static final int HASH_MAP = 48; // bytes in a HashMap object
+	private static final int HASH_NODE = 32; // bytes in each HashMap entry
+	private static final int HASH_SET = 16; // bytes in a HashSet object, besides its HashMap
+	private static final int LIST = 24; // bytes in an ArrayList, Vector or Stack object, besides its array
+	private static final HashMap<Class<?>, Long> SHALLOW_SIZES = new HashMap<>(); // sizes worked out so far, by class
+	private static final HashMap<Class<?>, Field[]> REFERENCE_FIELDS = new HashMap<>(); // reference fields, by class
+
+	/**
+	 * Part --- the groups the retained bytes are split into.
+	 */
+	public enum Part {
+		TILE("Tile"),
+		PIECE("Piece"),
+		TILE_SET("TileSet"),
+		COLLECTION("HashSet/HashMap/ArrayList"),
+		HISTORY("MoveCommandManager stack"),
+		OTHER("Other");
+
+		private final String label; // name printed in the report
+
+		Part(String label) {
+			this.label = label;
+		}
+	}
+
+	private final IdentityHashMap<Object, Boolean> seen; // objects counted so far
+	private final long[] bytes; // bytes counted in each part, indexed by Part.ordinal()
+	private final long[] objects; // objects counted in each part
+
+	/**
+	 * Constructor. Nothing is counted yet.
+	 */
+	public MemoryBenchmark() {
+		this.seen = new IdentityHashMap<>();
+		this.bytes = new long[Part.values().length];
+		this.objects = new long[Part.values().length];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param part a part of the footprint.
+	 * @return the bytes counted in that part.
+	 */
+	public long getBytes(Part part) {
+		return bytes[part.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param part a part of the footprint.
+	 * @return the number of objects counted in that part.
+	 */
+	public long getObjects(Part part) {
+		return objects[part.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the bytes counted in all parts.
+	 */
+	public long getTotalBytes() {
+		long total = 0;
+		for (long partBytes : bytes) {
+			total += partBytes;
+		}
+		return total;
+	}
+
+	/**
+	 * Count every object reachable from root that has not been counted yet. Objects reached from more
+	 * than one root are only counted for the first.
+	 *
+	 * @param root the object to start from, e.g. a ChessGame or a MoveCommandManager.
+	 */
+	public void add(Object root) {
+		ArrayDeque<Object> pending = new ArrayDeque<>();
+		ArrayDeque<Part> pendingParts = new ArrayDeque<>();
+		pending.add(root);
+		pendingParts.add(Part.OTHER);
+		while (!pending.isEmpty()) {
+			Object object = pending.poll();
+			Part parent = pendingParts.poll();
+			if (seen.containsKey(object) || isShared(object)) {
+				continue;
+			}
+			seen.put(object, Boolean.TRUE);
+			Part part = partOf(object, parent);
+			bytes[part.ordinal()] += (isCollection(object) ? collectionSize(object) : shallowSize(object));
+			objects[part.ordinal()]++;
+			for (Object child : children(object)) {
+				if (child != null) {
+					pending.add(child);
+					pendingParts.add(part);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the size of an object on its own, not counting the objects it refers to.
+	 *
+	 * @param object an object or array.
+	 * @return its size in bytes.
+	 */
+	public static long shallowSize(Object object) {
+		Class<?> type = object.getClass();
+		if (type.isArray()) {
+			Class<?> component = type.getComponentType();
+			return align(ARRAY_HEADER + (long) Array.getLength(object) * (component.isPrimitive() ? primitiveSize(component) : REFERENCE));
+		}
+		Long size = SHALLOW_SIZES.get(type);
+		if (size == null) {
+			long fields = 0;
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						fields += (field.getType().isPrimitive() ? primitiveSize(field.getType()) : REFERENCE);
+					}
+				}
+			}
+			size = align(HEADER + fields);
+			SHALLOW_SIZES.put(type, size);
+		}
+		return size;
+	}
+
+	/**
+	 * Decide which part an object is counted in. Objects that are not Tiles, Pieces, TileSets, collections
+	 * or undo history are counted with the object that refers to them.
+	 */
+	private static Part partOf(Object object, Part parent) {
+		if (object instanceof Tile) {
+			return Part.TILE;
+		}
+		if (object instanceof Piece) {
+			return Part.PIECE;
+		}
+		if (object instanceof TileSet) {
+			return Part.TILE_SET;
+		}
+		if (object instanceof MoveCommandManager || object instanceof MoveCommand) {
+			return Part.HISTORY;
+		}
+		if (isCollection(object)) {
+			return (parent == Part.HISTORY ? Part.HISTORY : Part.COLLECTION);
+		}
+		return (parent == Part.TILE || parent == Part.PIECE ? Part.OTHER : parent);
+	}
+
+	/**
+	 * Check if an object is not counted with any one game: tables shared by every game of a board size,
+	 * enum constants, classes and the GUI.
+	 */
+	private static boolean isShared(Object object) {
+		return object instanceof SliderAttacks || object instanceof LeaperAttacks || object instanceof LineTables
+				|| object instanceof ZobristKeys || object instanceof Enum || object instanceof Class || object instanceof TileGUI;
+	}
+
+	/**
+	 * Check if an object is a JDK collection, whose internals are estimated rather than walked.
+	 */
+	private static boolean isCollection(Object object) {
+		return object instanceof Map || (object instanceof Collection && object.getClass().getName().startsWith("java."));
+	}
+
+	/**
+	 * Estimate the size of a JDK collection with its internal arrays and entries, but not its elements.
+	 */
+	private static long collectionSize(Object collection) {
+		if (collection instanceof Map || collection instanceof java.util.HashSet) {
+			int size = (collection instanceof Map ? ((Map<?, ?>) collection).size() : ((Collection<?>) collection).size());
+			// the table doubles from 16 whenever it is three quarters full
+			int capacity = 16;
+			while (size > capacity * 3 / 4) {
+				capacity *= 2;
+			}
+			long mapSize = HASH_MAP + align(ARRAY_HEADER + (long) capacity * REFERENCE) + (long) size * HASH_NODE;
+			return (collection instanceof Map ? mapSize : HASH_SET + mapSize);
+		}
+		// ArrayList does not say how much room it has, so it is counted as full
+		int capacity = (collection instanceof Vector ? ((Vector<?>) collection).capacity() : ((Collection<?>) collection).size());
+		return LIST + align(ARRAY_HEADER + (long) capacity * REFERENCE);
+	}
+
+	/**
+	 * Get the objects an object refers to.
+	 */
+	private static ArrayList<Object> children(Object object) {
+		ArrayList<Object> children = new ArrayList<>();
+		Class<?> type = object.getClass();
+		if (type.isArray()) {
+			if (!type.getComponentType().isPrimitive()) {
+				for (int i = 0; i < Array.getLength(object); i++) {
+					children.add(Array.get(object, i));
+				}
+			}
+		} else if (object instanceof Map) {
+			children.addAll(((Map<?, ?>) object).keySet());
+			children.addAll(((Map<?, ?>) object).values());
+		} else if (isCollection(object)) {
+			children.addAll((Collection<?>) object);
+		} else if (!type.getName().startsWith("java.")) {
+			for (Field field : referenceFields(type)) {
+				try {
+					children.add(field.get(object));
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException("Cannot read " + field, e);
+				}
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * Get the instance fields of a class and its superclasses that hold references, made readable.
+	 */
+	private static Field[] referenceFields(Class<?> type) {
+		Field[] fields = REFERENCE_FIELDS.get(type);
+		if (fields == null) {
+			ArrayList<Field> found = new ArrayList<>();
+			for (Class<?> c = type; c != null && !c.getName().startsWith("java."); c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+						field.setAccessible(true);
+						found.add(field);
+					}
+				}
+			}
+			fields = found.toArray(new Field[found.size()]);
+			REFERENCE_FIELDS.put(type, fields);
+		}
+		return fields;
+	}
+
+	/**
+	 * Get the size of a primitive type.
+	 */
+	private static int primitiveSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	/**
+	 * Round a size up to the object alignment.
+	 */
+	private static long align(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * Get the heap in use after collecting garbage, as closely as the JVM allows.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Get the bytes the current thread has allocated so far, -1 if the JVM does not count them.
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Build games of one setup, play random moves in each through MoveCommands and print the report.
+	 *
+	 * @param custom true for the 9x9 custom setup, false for the classic 8x8 one.
+	 * @param games the number of games to build.
+	 * @param moves the number of moves to play in each game, fewer if it ends first.
+	 * @param random the source of the moves played.
+	 */
+	private static void run(boolean custom, int games, int moves, Random random) {
+		// build the shared tables before measuring, so they are not counted against the games
+		new ChessGame(custom ? 9 : 8, custom ? 9 : 8, custom).generateLegalMoves(new MoveList());
+		ChessGame[] hosted = new ChessGame[games];
+		MoveCommandManager[] histories = new MoveCommandManager[games];
+		MoveList legalMoves = new MoveList();
+		long played = 0;
+		long allocated = 0;
+		long heapBefore = usedHeap();
+		for (int g = 0; g < games; g++) {
+			ChessGame game = (custom ? new ChessGame(9, 9, true) : new ChessGame(8, 8, false));
+			MoveCommandManager history = new MoveCommandManager();
+			for (int m = 0; m < moves; m++) {
+				game.generateLegalMoves(legalMoves);
+				if (legalMoves.size() == 0) {
+					break;
+				}
+				int move = legalMoves.get(random.nextInt(legalMoves.size()));
+				long start = allocatedBytes();
+				history.executeCommand(new MoveCommand(game, game.getBoard().getTile(PackedMove.from(move)),
+						game.getBoard().getTile(PackedMove.to(move))));
+				allocated += allocatedBytes() - start;
+				played++;
+			}
+			hosted[g] = game;
+			histories[g] = history;
+		}
+		long heapAfter = usedHeap();
+		MemoryBenchmark footprint = new MemoryBenchmark();
+		for (int g = 0; g < games; g++) {
+			footprint.add(hosted[g]);
+			footprint.add(histories[g]);
+		}
+		System.out.println((custom ? "Custom 9x9" : "Classic 8x8") + ": " + games + " games, " + played + " moves played");
+		for (Part part : Part.values()) {
+			System.out.println(String.format("  %-26s %10d bytes/game %8.1f objects/game", part.label + ":",
+					footprint.getBytes(part) / games, footprint.getObjects(part) / (double) games));
+		}
+		System.out.println(String.format("  %-26s %10d bytes/game", "Retained (estimated):", footprint.getTotalBytes() / games));
+		System.out.println(String.format("  %-26s %10d bytes/game", "Retained (heap growth):", (heapAfter - heapBefore) / games));
+		if (played > 0 && allocatedBytes() >= 0) {
+			System.out.println(String.format("  %-26s %10d bytes/move", "Allocated:", allocated / played));
+		}
+	}
+
+	/**
+	 * Measure the classic and custom setups and print the report.
+	 *
+	 * @param args any of: games=N (games built, default 1000), moves=K (moves played in each, default 40),
+	 * classic or custom (measure only that setup).
+	 */
+	public static void main(String[] args) {
+		int games = 1000;
+		int moves = 40;
+		boolean classic = true;
+		boolean custom = true;
+		for (String arg : args) {
+			if (arg.startsWith("games=")) {
+				games = Integer.parseInt(arg.substring("games=".length()));
+			} else if (arg.startsWith("moves=")) {
+				moves = Integer.parseInt(arg.substring("moves=".length()));
+			} else if (arg.equals("classic")) {
+				custom = false;
+			} else if (arg.equals("custom")) {
+				classic = false;
+			}
+		}
+		Random random = new Random(1);
+		if (classic) {
+			run(false, games, moves, random);
+		}
+		if (custom) {
+			run(true, games, moves, random);
+		}
+	}
+}
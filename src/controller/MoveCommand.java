@@ -1,7 +1,7 @@
 package controller;
 
 import model.game.ChessGame;
-
+import model.game.Tile;
 import model.pieces.Piece;
 import model.pieces.Pawn;
 import model.player.Color;
@@ -17,8 +17,10 @@ public class MoveCommand implements Command {
 	private ChessGame model; // underlying model for this chess game.
 	private Piece sourceTileOccupantPrev; // occupant of the source tile initially 
 	private Piece destTileOccupantPrev; // occupant of the destination tile initially
-	private TileGUI sourceTile; // tile piece is moving from
-	private TileGUI destTile; // tile piece is moving to.
+	private Tile sourceTile; // tile piece is moving from
+	private Tile destTile; // tile piece is moving to.
+	private TileGUI sourceTileGUI; // GUI of the tile piece is moving from, null if the game has no GUI
+	private TileGUI destTileGUI; // GUI of the tile piece is moving to, null if the game has no GUI
 	private Color playerTurnPrev; // player whose turn it was when move was made
 	private boolean isPawnAndFirstMove; // if the piece being moved was a pawn, may need to reset firstMove flag
 	
@@ -30,9 +32,22 @@ public class MoveCommand implements Command {
 	 * @param destTile tile piece is moving to
 	 */
 	public MoveCommand(ChessGame model, TileGUI sourceTile, TileGUI destTile) {
+		this(model, sourceTile.getTile(), destTile.getTile());
+		this.sourceTileGUI = sourceTile;
+		this.destTileGUI = destTile;
+	}
+	
+	/**
+	 * Constructor. For a game without a GUI, e.g. one hosted for remote players.
+	 * 
+	 * @param model ChessGame model
+	 * @param sourceTile tile piece is moving from
+	 * @param destTile tile piece is moving to
+	 */
+	public MoveCommand(ChessGame model, Tile sourceTile, Tile destTile) {
 		this.model = model;
-		this.sourceTileOccupantPrev = sourceTile.getTile().getOccupant(); // save the piece we're moving
-		this.destTileOccupantPrev = destTile.getTile().getOccupant(); // save piece being captured (if applicable)
+		this.sourceTileOccupantPrev = sourceTile.getOccupant(); // save the piece we're moving
+		this.destTileOccupantPrev = destTile.getOccupant(); // save piece being captured (if applicable)
 		this.sourceTile = sourceTile;
 		this.destTile = destTile;
 		this.playerTurnPrev = model.getPlayerTurn();
@@ -48,16 +63,15 @@ public class MoveCommand implements Command {
 		int ret = -1;
 		// check which player is making the move.
 		if (sourceTileOccupantPrev != null && sourceTileOccupantPrev.getColor() == Color.BLACK) {
-			ret = model.blackMove(sourceTileOccupantPrev, destTile.getTile());
+			ret = model.blackMove(sourceTileOccupantPrev, destTile);
 		}
 		if (sourceTileOccupantPrev != null && sourceTileOccupantPrev.getColor() == Color.WHITE) {
-			ret = model.whiteMove(sourceTileOccupantPrev, destTile.getTile());
+			ret = model.whiteMove(sourceTileOccupantPrev, destTile);
 		}
 		// move was valid
 		if (ret == 0) {
 			// update the GUI to reflect successful move.
-			destTile.updateTileImage();
-			sourceTile.updateTileImage();
+			updateTileImages();
 		}
 		return ret;
 	}
@@ -67,25 +81,33 @@ public class MoveCommand implements Command {
 	 */
 	public void undo() {
 		// move piece back to its sourceTile
-		sourceTileOccupantPrev.movePiece(sourceTile.getTile());
+		sourceTileOccupantPrev.movePiece(sourceTile);
 		// if piece was captured by move, restore it to destTile
 		if (destTileOccupantPrev != null) {
-			destTileOccupantPrev.movePiece(destTile.getTile());
+			destTileOccupantPrev.movePiece(destTile);
 		}
 		// restore firstMove flag if this was firstMove a pawn made.
 		if (isPawnAndFirstMove) {
 			sourceTileOccupantPrev.setFirstMove();
 		}
-		// restore validMoves() array for both pieces
-		sourceTileOccupantPrev.updateValidMoves(model.getBoard());
-		if (destTileOccupantPrev != null) {
-			destTileOccupantPrev.updateValidMoves(model.getBoard());
-		}
+		// restore validMoves() for both pieces and every piece looking at either tile
+		model.updateAffectedPieces(sourceTile, destTile);
 		// reset player turn to before move.
 		model.setPlayerTurn(playerTurnPrev);
 		// restore GUI state before move was made.
-		destTile.updateTileImage();
-		sourceTile.updateTileImage();
+		updateTileImages();
+	}
+	
+	/**
+	 * Redraw the pieces on both tiles of the move, if the game has a GUI.
+	 */
+	private void updateTileImages() {
+		if (destTileGUI != null) {
+			destTileGUI.updateTileImage();
+		}
+		if (sourceTileGUI != null) {
+			sourceTileGUI.updateTileImage();
+		}
 	}
 	
 	
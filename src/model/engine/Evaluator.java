@@ -0,0 +1,108 @@
+package model.engine;
+
+import java.util.HashMap;
+
+import model.game.Board;
+import model.game.PieceCode;
+import model.player.Color;
+
+/**
+ * Evaluator --- scores a position statically, in centipawns, from the piece codes of the board (see
+ * PieceCode and Board.getCodes). Each piece is worth its material value plus a bonus for where it stands:
+ * knights, princesses, bishops and queens like the centre, the king likes to stay back, and pawns are worth
+ * more the further they have advanced.
+ *
+ * The value of every code on every mailbox cell is worked out once per board size, so a position is scored
+ * with one table lookup per piece.
+ * @author Lance
+ *
+ */
+public class Evaluator {
+
+	// material value of each type, indexed by the type bits of a code (PieceType.ordinal() + 1)
+	private static final int[] VALUES = {0, 100, 100, 320, 330, 500, 900, 650, 0};
+	// bonus per step towards the centre, by type
+	private static final int[] CENTRE_BONUS = {0, 0, 0, 5, 3, 0, 1, 5, -3};
+	private static final int PAWN_ADVANCE_BONUS = 6; // bonus per rank a pawn has advanced
+	private static final int CODES = 64; // codes are below 64: 4 type bits, the color bit and the unmoved bit
+	private static final HashMap<String, Evaluator> EVALUATORS = new HashMap<>(); // evaluators built so far, by board size
+
+	private final int cells; // number of mailbox cells, border included
+	private final int[] scores; // value of each code on each cell for white, negative for black, indexed by code * cells + cell
+
+	/**
+	 * Get the shared evaluator for a board size, building its tables the first time it is needed.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the evaluator for boards of that size.
+	 */
+	public static synchronized Evaluator forBoard(int ranks, int files) {
+		String key = ranks + "x" + files;
+		Evaluator evaluator = EVALUATORS.get(key);
+		if (evaluator == null) {
+			evaluator = new Evaluator(ranks, files);
+			EVALUATORS.put(key, evaluator);
+		}
+		return evaluator;
+	}
+
+	/**
+	 * Constructor. Builds the score table.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 */
+	private Evaluator(int ranks, int files) {
+		this.cells = Board.mailboxLength(ranks, files);
+		this.scores = new int[CODES * cells];
+		for (int code = 1; code < CODES; code++) {
+			int type = PieceCode.type(code);
+			if (type == 0 || type >= VALUES.length) {
+				continue;
+			}
+			boolean black = (code & PieceCode.BLACK) != 0;
+			for (int rank = 0; rank < ranks; rank++) {
+				for (int file = 0; file < files; file++) {
+					// steps in from the edges, counting both ways: 0 in a corner, highest in the middle
+					int centre = (ranks - 1 + files - 1 - Math.abs(2 * rank - ranks + 1) - Math.abs(2 * file - files + 1)) / 2;
+					int score = VALUES[type] + CENTRE_BONUS[type] * centre;
+					if (type == PieceCode.PAWN || type == PieceCode.BEROLINA_PAWN) {
+						// pawns start on the second rank from their side
+						score += PAWN_ADVANCE_BONUS * (black ? ranks - 2 - rank : rank - 1);
+					}
+					scores[code * cells + Board.mailboxIndex(files, rank, file)] = (black ? -score : score);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type the type bits of a piece's code (see PieceCode).
+	 * @return the material value of the piece in centipawns, 0 for a king.
+	 */
+	public static int value(int type) {
+		return VALUES[type];
+	}
+
+	/**
+	 * Score a position.
+	 *
+	 * @param codes the piece codes of the board, laid out like Board.getCodes.
+	 * @param color the player to score the position for.
+	 * @return the score in centipawns, positive if the position is better for that player.
+	 */
+	public int evaluate(byte[] codes, Color color) {
+		int score = 0;
+		for (int cell = 0; cell < codes.length; cell++) {
+			int code = codes[cell];
+			// empty tiles and the border score nothing
+			if (code > 0) {
+				score += scores[code * cells + cell];
+			}
+		}
+		return (color == Color.BLACK ? -score : score);
+	}
+}
@@ -0,0 +1,203 @@
+package model.engine;
+
+import java.util.Arrays;
+
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.PieceCode;
+
+/**
+ * MoveOrdering --- decides which moves a Search tries first, since alpha-beta cuts off the most when the
+ * best move comes first. Moves are tried in stages:
+ *
+ * 1. the hash move, the best move the transposition table has for the position;
+ * 2. captures, most valuable victim first and, between equal victims, least valuable attacker first
+ *    (MVV-LVA), with Princesses and BerolinaPawns valued as in the Evaluator;
+ * 3. the two killer moves of the ply, quiet moves that caused a cutoff in a sibling position;
+ * 4. the countermove, the quiet move that last refuted the opponent's previous move;
+ * 5. the other quiet moves, by their history score: how often and how deep they caused cutoffs.
+ *
+ * Each move is given a score in its stage's band and picked lazily with selectNext, so the moves after a
+ * cutoff are never sorted. History and countermoves are primitive arrays indexed by the moving piece's
+ * type times PackedMove.MAX_TILES plus the destination tile, so one ordering fits every board size. Each
+ * Search has its own ordering, so nothing is shared between threads.
+ * @author Lance
+ *
+ */
+public class MoveOrdering {
+
+	private static final int HASH_SCORE = 1 << 30; // score of the hash move
+	private static final int CAPTURE_SCORE = 1 << 28; // base score of captures
+	private static final int KILLER_SCORE = 1 << 27; // score of the first killer, the second scores one less
+	private static final int COUNTER_SCORE = KILLER_SCORE - 2; // score of the countermove
+	private static final int HISTORY_MAX = 1 << 20; // history scores are halved when one reaches this, keeping them below COUNTER_SCORE
+	private static final int TYPES = 16; // type bits of a code are below 16
+	private static final int KILLERS = 2; // killer moves kept per ply
+
+	private final int[] killers; // the killer moves of each ply, indexed by ply * KILLERS
+	private final int[] history; // cutoff score of each quiet move, indexed by piece type * MAX_TILES + to
+	private final int[] counters; // the quiet move that refuted each move, indexed like history by the refuted move
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxPly the deepest ply killer moves are kept for.
+	 */
+	public MoveOrdering(int maxPly) {
+		this.killers = new int[(maxPly + 1) * KILLERS];
+		this.history = new int[TYPES * PackedMove.MAX_TILES];
+		this.counters = new int[TYPES * PackedMove.MAX_TILES];
+	}
+
+	/**
+	 * Start a new search: forget the killers, which belong to the positions of the last search, and halve
+	 * the history so recent cutoffs count more than old ones. Countermoves are kept.
+	 */
+	public void newSearch() {
+		Arrays.fill(killers, 0);
+		ageHistory();
+	}
+
+	/**
+	 * Score the moves of a position for selectNext.
+	 *
+	 * @param moves the moves of the position.
+	 * @param scores filled with the score of each move, at the same index. At least as long as moves.
+	 * @param hashMove the hash move, 0 if none.
+	 * @param ply the plies from the root.
+	 * @param previous the move that led to the position, 0 at the root.
+	 */
+	public void score(MoveList moves, int[] scores, int hashMove, int ply, int previous) {
+		int killer1 = killers[ply * KILLERS];
+		int killer2 = killers[ply * KILLERS + 1];
+		int counter = (previous == 0 ? 0 : counters[index(previous)]);
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if (move == hashMove) {
+				scores[i] = HASH_SCORE;
+			} else if (PackedMove.isCapture(move)) {
+				scores[i] = CAPTURE_SCORE + mvvLva(move);
+			} else if (move == killer1) {
+				scores[i] = KILLER_SCORE;
+			} else if (move == killer2) {
+				scores[i] = KILLER_SCORE - 1;
+			} else if (move == counter) {
+				scores[i] = COUNTER_SCORE;
+			} else {
+				scores[i] = history[index(move)];
+			}
+		}
+	}
+
+	/**
+	 * Bring the best scored move not yet tried to the front of the moves not yet tried.
+	 *
+	 * @param moves the moves of the position.
+	 * @param scores the scores of the moves, kept at the same index as their moves.
+	 * @param next the index of the next move to try. Moves before it have been tried.
+	 * @return the move to try next, now at index next.
+	 */
+	public static int selectNext(MoveList moves, int[] scores, int next) {
+		int best = next;
+		for (int i = next + 1; i < moves.size(); i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		if (best != next) {
+			moves.swap(next, best);
+			int score = scores[next];
+			scores[next] = scores[best];
+			scores[best] = score;
+		}
+		return moves.get(next);
+	}
+
+	/**
+	 * Record that a move caused a cutoff. Quiet moves become the ply's first killer and the countermove
+	 * of the previous move, and gain history in proportion to the depth searched; the quiet moves tried
+	 * before it lose as much, since they did not cut off.
+	 *
+	 * @param moves the moves of the position, tried up to the cutoff move.
+	 * @param tried the index of the cutoff move in moves.
+	 * @param depth the depth the position was searched to.
+	 * @param ply the plies from the root.
+	 * @param previous the move that led to the position, 0 at the root.
+	 */
+	public void cutoff(MoveList moves, int tried, int depth, int ply, int previous) {
+		int move = moves.get(tried);
+		// captures are already ordered well by MVV-LVA
+		if (PackedMove.isCapture(move)) {
+			return;
+		}
+		if (killers[ply * KILLERS] != move) {
+			killers[ply * KILLERS + 1] = killers[ply * KILLERS];
+			killers[ply * KILLERS] = move;
+		}
+		if (previous != 0) {
+			counters[index(previous)] = move;
+		}
+		int bonus = depth * depth;
+		for (int i = 0; i < tried; i++) {
+			if (!PackedMove.isCapture(moves.get(i))) {
+				addHistory(moves.get(i), -bonus);
+			}
+		}
+		addHistory(move, bonus);
+	}
+
+	/**
+	 * Add to the history score of a quiet move, halving every score once one grows too large either way.
+	 *
+	 * @param move a quiet move.
+	 * @param amount the amount to add, negative to take away.
+	 */
+	private void addHistory(int move, int amount) {
+		int index = index(move);
+		history[index] += amount;
+		if (Math.abs(history[index]) >= HISTORY_MAX) {
+			ageHistory();
+		}
+	}
+
+	/**
+	 * Halve every history score.
+	 */
+	private void ageHistory() {
+		for (int i = 0; i < history.length; i++) {
+			history[i] /= 2;
+		}
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param move a quiet move.
+	 * @return its history score.
+	 */
+	public int getHistory(int move) {
+		return history[index(move)];
+	}
+
+	/**
+	 * Score a capture by MVV-LVA: the victim's value decides, and the attacker's breaks ties.
+	 *
+	 * @param move a capture.
+	 * @return a score between 0 and CAPTURE_SCORE, higher for better captures.
+	 */
+	static int mvvLva(int move) {
+		// victims differ by at least 10, times 16, more than the attackers' 0 to 900 divided by 8
+		return Evaluator.value(PackedMove.capturedCode(move)) * 16
+				+ (Evaluator.value(PieceCode.QUEEN) - Evaluator.value(PackedMove.pieceCode(move))) / 8;
+	}
+
+	/**
+	 * Get the history and countermove index of a move.
+	 *
+	 * @param move a packed move recording its piece.
+	 * @return the moving piece's type times MAX_TILES plus the destination tile.
+	 */
+	private static int index(int move) {
+		return PackedMove.pieceCode(move) * PackedMove.MAX_TILES + PackedMove.to(move);
+	}
+}
@@ -0,0 +1,248 @@
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.game.ChessGame;
+import model.game.MoveList;
+import model.game.PackedMove;
+
+/**
+ * Perft --- counts the leaf nodes of the legal move tree to a fixed depth. The counts are known for the
+ * standard 8x8 setup, so they check the move generator, and the time taken measures its speed.
+ *
+ * Counts can optionally be cached by position (Zobrist key) and depth, and the root moves can be split
+ * across all cores with fork-join, each task working on its own copy of the game.
+ *
+ * Run from the command line: Perft depth [custom] [divide] [parallel] [hash=MB]
+ * @author Lance
+ *
+ */
+public class Perft {
+
+	private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L; // spreads the depth over the key bits when caching
+
+	private final long[] cacheChecks; // for each cache slot, the mixed key XOR the count, null if no cache
+	private final long[] cacheCounts; // for each cache slot, the node count
+	private final int cacheMask; // number of cache slots - 1
+
+	/**
+	 * Constructor. Counts without a cache.
+	 */
+	public Perft() {
+		this.cacheChecks = null;
+		this.cacheCounts = null;
+		this.cacheMask = 0;
+	}
+
+	/**
+	 * Constructor. Counts with a cache of subtree counts, shared by all threads counting with this Perft.
+	 *
+	 * @param megabytes the size of the cache.
+	 */
+	public Perft(int megabytes) {
+		int slots = Integer.highestOneBit((int) Math.min(megabytes * 1024L * 1024L / (2 * Long.BYTES), 1 << 28));
+		this.cacheChecks = new long[slots];
+		this.cacheCounts = new long[slots];
+		this.cacheMask = slots - 1;
+	}
+
+	/**
+	 * Count the leaf nodes of the legal move tree below the current position.
+	 *
+	 * @param game the game to count from. Left in the same position afterwards.
+	 * @param depth the number of moves (plies) to look ahead.
+	 * @return the number of move sequences of that length.
+	 */
+	public long count(ChessGame game, int depth) {
+		return count(game, depth, newMoveLists(depth));
+	}
+
+	/**
+	 * Count the leaf nodes of the legal move tree below the current position.
+	 *
+	 * @param game the game to count from. Left in the same position afterwards.
+	 * @param depth the number of moves (plies) to look ahead.
+	 * @param lists a move list for each remaining ply, indexed by depth - 1.
+	 * @return the number of move sequences of that length.
+	 */
+	private long count(ChessGame game, int depth, MoveList[] lists) {
+		if (depth == 0) {
+			return 1;
+		}
+		long key = 0;
+		if (cacheChecks != null) {
+			key = game.getKey() ^ (depth * DEPTH_MIX);
+			int slot = (int) key & cacheMask;
+			long nodes = cacheCounts[slot];
+			// the check only matches if both longs were written for this position and depth
+			if ((cacheChecks[slot] ^ nodes) == key) {
+				return nodes;
+			}
+		}
+		MoveList moves = lists[depth - 1];
+		game.generateLegalMoves(moves);
+		long nodes = 0;
+		// one ply from the end, the number of legal moves is the count
+		if (depth == 1) {
+			nodes = moves.size();
+		} else {
+			for (int i = 0; i < moves.size(); i++) {
+				game.makeMove(moves.get(i));
+				nodes += count(game, depth - 1, lists);
+				game.unmakeMove();
+			}
+		}
+		if (cacheChecks != null) {
+			int slot = (int) key & cacheMask;
+			cacheCounts[slot] = nodes;
+			cacheChecks[slot] = key ^ nodes;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Count the leaf nodes below each legal move of the current position.
+	 *
+	 * @param game the game to count from. Left in the same position afterwards.
+	 * @param depth the number of moves (plies) to look ahead, at least 1.
+	 * @return for each root move (see PackedMove), the number of move sequences of that length starting with it.
+	 */
+	public LinkedHashMap<Integer, Long> divide(ChessGame game, int depth) {
+		LinkedHashMap<Integer, Long> counts = new LinkedHashMap<>();
+		MoveList[] lists = newMoveLists(depth);
+		MoveList moves = lists[depth - 1];
+		game.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			game.makeMove(moves.get(i));
+			counts.put(moves.get(i), count(game, depth - 1, lists));
+			game.unmakeMove();
+		}
+		return counts;
+	}
+
+	/**
+	 * Count the leaf nodes below each legal move of the current position, one fork-join task per root move.
+	 *
+	 * @param game the game to count from. Not changed, each task counts on its own copy.
+	 * @param depth the number of moves (plies) to look ahead, at least 1.
+	 * @param pool the pool to run the tasks in.
+	 * @return for each root move (see PackedMove), the number of move sequences of that length starting with it.
+	 */
+	public LinkedHashMap<Integer, Long> divideParallel(ChessGame game, int depth, ForkJoinPool pool) {
+		ArrayList<RootMoveTask> tasks = new ArrayList<>();
+		MoveList moves = new MoveList();
+		game.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			tasks.add(new RootMoveTask(game, moves.get(i), depth - 1));
+		}
+		for (RootMoveTask task : tasks) {
+			pool.execute(task);
+		}
+		LinkedHashMap<Integer, Long> counts = new LinkedHashMap<>();
+		for (RootMoveTask task : tasks) {
+			counts.put(task.move, task.join());
+		}
+		return counts;
+	}
+
+	/**
+	 * Create the move lists for a count, one per ply so that generating at one ply does not overwrite the
+	 * moves still being walked at the plies above.
+	 *
+	 * @param depth the number of plies counted.
+	 * @return an empty move list for each ply.
+	 */
+	private static MoveList[] newMoveLists(int depth) {
+		MoveList[] lists = new MoveList[Math.max(depth, 0)];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = new MoveList();
+		}
+		return lists;
+	}
+
+	/**
+	 * RootMoveTask --- counts the leaf nodes below one root move on a copy of the game.
+	 */
+	private class RootMoveTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+		private final ChessGame game; // the copy of the game this task counts on
+		private final int move; // the root move
+		private final int depth; // the depth left after the root move
+
+		/**
+		 * Constructor. Copies the game, so it must run on the thread that owns the game.
+		 *
+		 * @param game the game to count from.
+		 * @param move the root move.
+		 * @param depth the depth left after the root move.
+		 */
+		RootMoveTask(ChessGame game, int move, int depth) {
+			this.game = new ChessGame(game);
+			this.move = move;
+			this.depth = depth;
+		}
+
+		/**
+		 * Make the root move and count below it.
+		 *
+		 * @return the number of leaf nodes below the root move.
+		 */
+		@Override
+		protected Long compute() {
+			game.makeMove(move);
+			return count(game, depth);
+		}
+	}
+
+	/**
+	 * Count from the standard 8x8 or custom 9x9 setup and print the count and the speed.
+	 *
+	 * @param args depth, then any of: custom (9x9 setup), divide (count per root move),
+	 * parallel (split root moves across cores), hash=MB (cache counts).
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: Perft depth [custom] [divide] [parallel] [hash=MB]");
+			return;
+		}
+		int depth = Integer.parseInt(args[0]);
+		boolean custom = false;
+		boolean divide = false;
+		boolean parallel = false;
+		Perft perft = new Perft();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("custom")) {
+				custom = true;
+			} else if (args[i].equals("divide")) {
+				divide = true;
+			} else if (args[i].equals("parallel")) {
+				parallel = true;
+			} else if (args[i].startsWith("hash=")) {
+				perft = new Perft(Integer.parseInt(args[i].substring("hash=".length())));
+			}
+		}
+		ChessGame game = (custom ? new ChessGame(9, 9, true) : new ChessGame(8, 8, false));
+		long start = System.nanoTime();
+		long nodes = 0;
+		if (divide || parallel) {
+			LinkedHashMap<Integer, Long> counts = (parallel ? perft.divideParallel(game, depth, ForkJoinPool.commonPool())
+					: perft.divide(game, depth));
+			for (int move : counts.keySet()) {
+				if (divide) {
+					System.out.println(PackedMove.toString(move, game.getBoard().getFiles()) + ": " + counts.get(move));
+				}
+				nodes += counts.get(move);
+			}
+		} else {
+			nodes = perft.count(game, depth);
+		}
+		long nanos = System.nanoTime() - start;
+		System.out.println("Nodes: " + nodes);
+		System.out.println("Time: " + (nanos / 1000000) + " ms");
+		System.out.println("Nodes/sec: " + (long) (nodes / (nanos / 1e9)));
+	}
+}
@@ -0,0 +1,535 @@
+package model.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.game.ChessGame;
+import model.game.MoveList;
+import model.game.PackedMove;
+
+/**
+ * Search --- picks a move for the player to move with a negamax alpha-beta search. A checkmated player
+ * scores -MATE plus the plies it took to get there, so quicker mates score higher.
+ *
+ * At the end of the search the position is not scored as it stands, since a piece may be about to be taken:
+ * a quiescence search plays out the captures first. The player to move may stand pat, taking the Evaluator's
+ * score, or capture; captures that cannot bring the score up to alpha even by winning the piece (delta
+ * pruning) and captures that lose material once StaticExchange plays out the recaptures are not tried. A
+ * player in check stands no pat and tries every evasion.
+ *
+ * The search deepens one ply at a time, searching the best move of the last depth first. It stops at a
+ * given depth, or when a TimeManager says there is no time for another depth; a depth still running at the
+ * time manager's hard limit is abandoned, and the best move of the last completed depth is played.
+ *
+ * The search runs on its own copy of the game with makeMove and unmakeMove, so the game passed in is never
+ * changed. Results are kept in a TranspositionTable, and moves are tried in the order MoveOrdering gives:
+ * the move the table saved for the position first, then captures, killers, the countermove and the other
+ * quiet moves by history.
+ *
+ * A Search can also be one of the helpers of an SmpSearch, sharing its table with searches running on other
+ * threads. Helpers search every other depth one ply deeper and shuffle the root moves, so they do not all
+ * walk the tree in step, and run until they are stopped.
+ *
+ * Run from the command line to measure move times: Search [custom] [movetime=ms] [moves=N]
+ * @author Lance
+ *
+ */
+public class Search {
+
+	public static final int MATE = 30000; // score of checkmating at the root
+	public static final int INFINITY = 32000; // above every score, fits the table's 16-bit scores
+	public static final int MAX_PLY = 128; // deepest ply searched
+	private static final int MATE_BOUND = MATE - MAX_PLY; // scores beyond this are mates
+	private static final int CLOCK_CHECK_INTERVAL = 1024; // nodes between looks at the clock, a power of two
+	private static final int DELTA_MARGIN = 200; // positional gain allowed for on top of a captured piece in delta pruning
+
+	private final TranspositionTable table; // results of positions searched so far
+	private final MoveList[] lists; // a move list for each ply, so plies do not overwrite each other's moves
+	private final int[][] scores; // the ordering score of each move in lists, at the same indices
+	private final MoveOrdering ordering; // killers, history and countermoves of this search
+	private final int helper; // 0 for a search of its own or the main thread of an SmpSearch, 1 and up for helpers
+	private final Random random; // shuffles a helper's root moves, null for the main search
+	private ChessGame game; // the copy of the game being searched
+	private Evaluator evaluator; // scores the leaves of the current search
+	private StaticExchange exchange; // works out the captures of the current search, null if the board has no bitboards
+	private TimeManager time; // limits the current search, null if it only stops at its depth
+	private boolean stopped; // true once the current depth has been abandoned at the hard limit or on request
+	private volatile boolean stopRequested; // set by another thread to stop the search, see stop
+	private long nodes; // positions visited by the last search
+	private int score; // score of the last completed depth, for the player to move
+	private int depth; // last depth completed
+	private int bestMove; // best move of the last completed depth, 0 if none
+
+	/**
+	 * Constructor.
+	 *
+	 * @param megabytes the size of the transposition table.
+	 */
+	public Search(int megabytes) {
+		this(new TranspositionTable(megabytes));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table the transposition table to keep results in.
+	 */
+	public Search(TranspositionTable table) {
+		this(table, 0);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table the transposition table to keep results in, possibly shared with other threads.
+	 * @param helper 0 for a main search, 1 and up for the helpers of an SmpSearch.
+	 */
+	Search(TranspositionTable table, int helper) {
+		this.table = table;
+		this.helper = helper;
+		this.random = (helper > 0 ? new Random(helper) : null);
+		this.lists = new MoveList[MAX_PLY + 1];
+		this.scores = new int[MAX_PLY + 1][];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = new MoveList();
+			scores[i] = new int[MoveList.DEFAULT_CAPACITY];
+		}
+		this.ordering = new MoveOrdering(MAX_PLY);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the transposition table results are kept in.
+	 */
+	public TranspositionTable getTable() {
+		return this.table;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of positions visited by the last search.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the score of the last search in centipawns, for the player who was to move. Beyond
+	 * MATE - MAX_PLY (or below its negative) it is a mate in MATE - score plies.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the last depth the last search completed, 0 if it completed none.
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the best move of the last completed depth (see PackedMove), 0 if no depth was completed.
+	 */
+	public int getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 * Stop the search running on another thread. It returns the best move of the last depth it completed.
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Clear a stop request, before a search is started on another thread.
+	 */
+	void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * Find the best move for the player to move, searching every depth up to the one given.
+	 *
+	 * @param position the game to search from. Not changed, the search runs on a copy.
+	 * @param depth the number of moves (plies) to look ahead, between 1 and MAX_PLY.
+	 * @return the best move found (see PackedMove), 0 if the player to move has no legal move.
+	 */
+	public int search(ChessGame position, int depth) {
+		if (depth < 1 || depth > MAX_PLY) {
+			throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_PLY + ", got " + depth);
+		}
+		table.newSearch();
+		stopRequested = false;
+		return iterate(new ChessGame(position), depth, null);
+	}
+
+	/**
+	 * Find the best move for the player to move in the time allowed. Always completes depth 1, so there is
+	 * a move to play however little time is left.
+	 *
+	 * @param position the game to search from. Not changed, the search runs on a copy.
+	 * @param time the time manager limiting the search. Restarted when the search starts.
+	 * @return the best move of the last completed depth (see PackedMove), 0 if the player to move has no legal move.
+	 */
+	public int search(ChessGame position, TimeManager time) {
+		time.start();
+		table.newSearch();
+		stopRequested = false;
+		return iterate(new ChessGame(position), MAX_PLY, time);
+	}
+
+	/**
+	 * Search one depth after another from the root. The caller starts a new search in the table and clears
+	 * any earlier stop request.
+	 *
+	 * @param game the game to search from, a copy owned by this search, which is left at the same position.
+	 * @param maxDepth the last depth to search.
+	 * @param time the time manager limiting the search, null to search until maxDepth or a stop request.
+	 * @return the best move of the last completed depth, 0 if there is no legal move.
+	 */
+	int iterate(ChessGame game, int maxDepth, TimeManager time) {
+		this.game = game;
+		evaluator = Evaluator.forBoard(game.getBoard().getRanks(), game.getBoard().getFiles());
+		exchange = (game.getBoard().getBitboards() != null ? new StaticExchange(game) : null);
+		this.time = null;
+		stopped = false;
+		nodes = 0;
+		depth = 0;
+		bestMove = 0;
+		ordering.newSearch();
+		MoveList moves = lists[0];
+		game.generateLegalMoves(moves);
+		if (moves.size() == 0) {
+			score = (game.inCheck() ? -MATE : 0);
+			return 0;
+		}
+		int first = moves.get(0);
+		for (int d = 1; d <= maxDepth; d++) {
+			if (time != null) {
+				time.iterationStarted();
+			}
+			// odd helpers search each depth one ply deeper than the main search
+			int searched = Math.min(d + (helper & 1), MAX_PLY);
+			int move = searchRoot(moves, first, searched);
+			// a depth abandoned part way through is not trusted
+			if (stopped) {
+				break;
+			}
+			first = move;
+			bestMove = move;
+			depth = searched;
+			// the clock is only looked at once depth 1 is complete, so there is always a move
+			this.time = time;
+			if (time != null) {
+				time.iterationFinished();
+				if (!time.canStartIteration()) {
+					break;
+				}
+			}
+			// a forced mate found within this depth is not improved on by searching deeper
+			if (Math.abs(score) >= MATE - searched) {
+				break;
+			}
+		}
+		// with no depth completed, any legal move is better than none
+		return (bestMove != 0 ? bestMove : first);
+	}
+
+	/**
+	 * Search the root moves to one depth.
+	 *
+	 * @param moves the legal moves of the root.
+	 * @param first the move to search first, the best of the last depth.
+	 * @param depth the depth to search to.
+	 * @return the best move, valid only if the search was not stopped. Its score is saved in score.
+	 */
+	private int searchRoot(MoveList moves, int first, int depth) {
+		// the root has few moves and each is searched deeply, so they are all put in order up front
+		int[] rootScores = scoresFor(0, moves.size());
+		ordering.score(moves, rootScores, first, 0, 0);
+		for (int i = 0; i < moves.size(); i++) {
+			MoveOrdering.selectNext(moves, rootScores, i);
+		}
+		if (random != null) {
+			// helpers keep the best move first but shuffle the rest, to reach other parts of the tree first
+			for (int i = moves.size() - 1; i > 1; i--) {
+				moves.swap(i, 1 + random.nextInt(i));
+			}
+		}
+		int alpha = -INFINITY;
+		int bestMove = moves.get(0);
+		for (int i = 0; i < moves.size(); i++) {
+			game.makeMove(moves.get(i));
+			int value = -negamax(depth - 1, -INFINITY, -alpha, 1, moves.get(i));
+			game.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (value > alpha) {
+				alpha = value;
+				bestMove = moves.get(i);
+			}
+		}
+		table.store(game.getKey(), bestMove, alpha, depth, TranspositionTable.EXACT);
+		score = alpha;
+		return bestMove;
+	}
+
+	/**
+	 * Score the current position for the player to move.
+	 *
+	 * @param depth the plies left to search.
+	 * @param alpha the score the player to move is already sure of.
+	 * @param beta the score the opponent is already sure of: anything at or above it will not be allowed.
+	 * @param ply the plies from the root.
+	 * @param previous the move that led to the position.
+	 * @return the score, exact if it is between alpha and beta, otherwise a bound on the side it fell.
+	 */
+	private int negamax(int depth, int alpha, int beta, int ply, int previous) {
+		// the quiescence search counts the node and looks at the clock itself
+		if (depth == 0 || ply == MAX_PLY) {
+			return quiesce(alpha, beta, ply, previous);
+		}
+		nodes++;
+		if ((nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0 && (stopRequested || (time != null && time.isPastDeadline()))) {
+			stopped = true;
+		}
+		// once stopped, every score is thrown away, so unwind as fast as possible
+		if (stopped) {
+			return 0;
+		}
+		long key = game.getKey();
+		int tableMove = 0;
+		long entry = table.probe(key);
+		if (entry != 0) {
+			tableMove = TranspositionTable.getMove(entry);
+			if (TranspositionTable.getDepth(entry) >= depth) {
+				int tableScore = fromTable(TranspositionTable.getScore(entry), ply);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND && tableScore >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && tableScore <= alpha)) {
+					return tableScore;
+				}
+			}
+		}
+		MoveList moves = lists[ply];
+		game.generateLegalMoves(moves);
+		if (moves.size() == 0) {
+			return (game.inCheck() ? -MATE + ply : 0);
+		}
+		int[] moveScores = scoresFor(ply, moves.size());
+		ordering.score(moves, moveScores, tableMove, ply, previous);
+		int alphaBefore = alpha;
+		int best = -INFINITY;
+		int bestMove = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = MoveOrdering.selectNext(moves, moveScores, i);
+			game.makeMove(move);
+			int value = -negamax(depth - 1, -beta, -alpha, ply + 1, move);
+			game.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestMove = move;
+				if (value > alpha) {
+					alpha = value;
+					if (alpha >= beta) {
+						ordering.cutoff(moves, i, depth, ply, previous);
+						break;
+					}
+				}
+			}
+		}
+		int bound = (best <= alphaBefore ? TranspositionTable.UPPER_BOUND
+				: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT);
+		table.store(key, bestMove, toTable(best, ply), depth, bound);
+		return best;
+	}
+
+	/**
+	 * Score the current position for the player to move once the captures have been played out.
+	 *
+	 * @param alpha the score the player to move is already sure of.
+	 * @param beta the score the opponent is already sure of: anything at or above it will not be allowed.
+	 * @param ply the plies from the root.
+	 * @param previous the move that led to the position.
+	 * @return the score, exact if it is between alpha and beta, otherwise a bound on the side it fell.
+	 */
+	private int quiesce(int alpha, int beta, int ply, int previous) {
+		nodes++;
+		if ((nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0 && (stopRequested || (time != null && time.isPastDeadline()))) {
+			stopped = true;
+		}
+		if (stopped) {
+			return 0;
+		}
+		int standPat = evaluator.evaluate(game.getBoard().getCodes(), game.getPlayerTurn());
+		if (ply == MAX_PLY) {
+			return standPat;
+		}
+		boolean inCheck = game.inCheck();
+		int best = -INFINITY;
+		if (!inCheck) {
+			// the player to move need not capture, so the position is worth at least its static score
+			if (standPat >= beta) {
+				return standPat;
+			}
+			best = standPat;
+			if (standPat > alpha) {
+				alpha = standPat;
+			}
+		}
+		// only captures out of check, every evasion in check
+		MoveList moves = lists[ply];
+		game.generateCaptures(moves);
+		if (moves.size() == 0) {
+			return (inCheck ? -MATE + ply : standPat);
+		}
+		int[] moveScores = scoresFor(ply, moves.size());
+		ordering.score(moves, moveScores, 0, ply, previous);
+		for (int i = 0; i < moves.size(); i++) {
+			int move = MoveOrdering.selectNext(moves, moveScores, i);
+			if (!inCheck) {
+				if (standPat + Evaluator.value(PackedMove.capturedCode(move)) + DELTA_MARGIN <= alpha) {
+					continue;
+				}
+				if (exchange != null && exchange.see(move) < 0) {
+					continue;
+				}
+			}
+			game.makeMove(move);
+			int value = -quiesce(-beta, -alpha, ply + 1, move);
+			game.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				if (value > alpha) {
+					alpha = value;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Get the score array of a ply, growing it if the ply has more moves than it holds.
+	 *
+	 * @param ply the plies from the root.
+	 * @param size the number of moves to score.
+	 * @return an array of at least size scores.
+	 */
+	private int[] scoresFor(int ply, int size) {
+		if (scores[ply].length < size) {
+			scores[ply] = new int[2 * size];
+		}
+		return scores[ply];
+	}
+
+	/**
+	 * Convert a score to be stored in the table. Mate scores count plies from the root, so they are stored
+	 * counting from the position instead, which may be reached again at another ply.
+	 *
+	 * @param score a score counting mates from the root.
+	 * @param ply the plies from the root to the position.
+	 * @return the score counting mates from the position.
+	 */
+	private static int toTable(int score, int ply) {
+		if (score > MATE_BOUND) {
+			return score + ply;
+		}
+		if (score < -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Convert a score read from the table, see toTable.
+	 *
+	 * @param score a score counting mates from the position.
+	 * @param ply the plies from the root to the position.
+	 * @return the score counting mates from the root.
+	 */
+	private static int fromTable(int score, int ply) {
+		if (score > MATE_BOUND) {
+			return score - ply;
+		}
+		if (score < -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Play a game against itself from the standard 8x8 or custom 9x9 setup with a fixed time per move, and
+	 * print the time each move took (including copying the game), as percentiles, and the depths reached.
+	 *
+	 * @param args any of: custom (9x9 setup), movetime=ms (time per move, default 200), moves=N (moves to
+	 * play, default 40, fewer if the game ends first).
+	 */
+	public static void main(String[] args) {
+		boolean custom = false;
+		long moveTime = 200;
+		int moves = 40;
+		for (String arg : args) {
+			if (arg.equals("custom")) {
+				custom = true;
+			} else if (arg.startsWith("movetime=")) {
+				moveTime = Long.parseLong(arg.substring("movetime=".length()));
+			} else if (arg.startsWith("moves=")) {
+				moves = Integer.parseInt(arg.substring("moves=".length()));
+			}
+		}
+		ChessGame game = (custom ? new ChessGame(9, 9, true) : new ChessGame(8, 8, false));
+		Search search = new Search(64);
+		long[] latencies = new long[moves];
+		long totalNodes = 0;
+		long totalDepth = 0;
+		int played = 0;
+		while (played < moves) {
+			long start = System.nanoTime();
+			int move = search.search(game, TimeManager.forMoveTime(moveTime));
+			latencies[played] = System.nanoTime() - start;
+			if (move == 0) {
+				break;
+			}
+			totalNodes += search.getNodes();
+			totalDepth += search.getDepth();
+			game.makeMove(move);
+			played++;
+		}
+		if (played == 0) {
+			System.out.println("No legal move to play");
+			return;
+		}
+		long[] sorted = Arrays.copyOf(latencies, played);
+		Arrays.sort(sorted);
+		long totalNanos = 0;
+		for (long latency : sorted) {
+			totalNanos += latency;
+		}
+		System.out.println("Moves: " + played + ", move time " + moveTime + " ms");
+		System.out.println("Average depth: " + String.format("%.1f", totalDepth / (double) played));
+		System.out.println("Latency p50: " + (sorted[(played - 1) / 2] / 1000000) + " ms, p99: "
+				+ (sorted[(int) Math.ceil(played * 0.99) - 1] / 1000000) + " ms, max: " + (sorted[played - 1] / 1000000) + " ms");
+		System.out.println("Nodes/sec: " + (long) (totalNodes / (totalNanos / 1e9)));
+	}
+}
@@ -0,0 +1,243 @@
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.game.ChessGame;
+import model.game.MoveList;
+
+/**
+ * SmpSearch --- searches on several threads at once with Lazy SMP: every thread searches the same root
+ * position, and they share one TranspositionTable, so each thread finds the results the others have already
+ * stored. The main thread searches as a Search of its own would; the helpers search every other depth a ply
+ * deeper and shuffle their root moves, so they get ahead of it and fill the table with what it needs next.
+ *
+ * ChessGame is mutable and not thread-safe, so each thread searches its own copy of the game with its own
+ * makeMove and unmakeMove state. The copies are made on the calling thread before the helpers start. When
+ * the main thread finishes, the helpers are stopped, and the move played is the one from the deepest
+ * completed depth, the main thread's if there is a tie.
+ *
+ * Run from the command line for a speedup curve: SmpSearch [custom] [depth=D] [threads=1,2,4,8,16]
+ * @author Lance
+ *
+ */
+public class SmpSearch {
+
+	private final TranspositionTable table; // the table shared by every thread
+	private final Search[] searches; // the search of each thread, the main thread's first
+	private final ExecutorService helpers; // the threads the helpers run on, null if there are none
+	private Search result; // the search whose move the last search returned
+
+	/**
+	 * Constructor. Starts the helper threads, which wait for searches until shutdown.
+	 *
+	 * @param threads the number of threads to search on, the calling thread included. At least 1.
+	 * @param megabytes the size of the shared transposition table.
+	 */
+	public SmpSearch(int threads, int megabytes) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("An SMP search needs at least 1 thread, got " + threads);
+		}
+		this.table = new TranspositionTable(megabytes);
+		this.searches = new Search[threads];
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(table, i);
+		}
+		this.helpers = (threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+			Thread thread = new Thread(runnable, "search helper");
+			// helpers waiting for work must not keep the program running
+			thread.setDaemon(true);
+			return thread;
+		}) : null);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of threads searching, the calling thread included.
+	 */
+	public int getThreads() {
+		return searches.length;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the transposition table shared by every thread.
+	 */
+	public TranspositionTable getTable() {
+		return this.table;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of positions visited by the last search, by all threads.
+	 */
+	public long getNodes() {
+		long nodes = 0;
+		for (Search search : searches) {
+			nodes += search.getNodes();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the score of the move the last search returned, for the player who was to move.
+	 */
+	public int getScore() {
+		return (result == null ? 0 : result.getScore());
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the depth the move the last search returned was found at.
+	 */
+	public int getDepth() {
+		return (result == null ? 0 : result.getDepth());
+	}
+
+	/**
+	 * Find the best move for the player to move, the main thread searching every depth up to the one given.
+	 *
+	 * @param position the game to search from. Not changed, each thread searches a copy.
+	 * @param depth the number of moves (plies) the main thread looks ahead, between 1 and Search.MAX_PLY.
+	 * @return the best move found (see PackedMove), 0 if the player to move has no legal move.
+	 */
+	public int search(ChessGame position, int depth) {
+		if (depth < 1 || depth > Search.MAX_PLY) {
+			throw new IllegalArgumentException("Search depth must be between 1 and " + Search.MAX_PLY + ", got " + depth);
+		}
+		return run(position, depth, null);
+	}
+
+	/**
+	 * Find the best move for the player to move in the time allowed.
+	 *
+	 * @param position the game to search from. Not changed, each thread searches a copy.
+	 * @param time the time manager limiting the main thread. Restarted when the search starts.
+	 * @return the best move found (see PackedMove), 0 if the player to move has no legal move.
+	 */
+	public int search(ChessGame position, TimeManager time) {
+		time.start();
+		return run(position, Search.MAX_PLY, time);
+	}
+
+	/**
+	 * Run the main search on the calling thread and the helpers alongside it until it finishes.
+	 *
+	 * @param position the game to search from.
+	 * @param maxDepth the last depth the main thread searches.
+	 * @param time the time manager limiting the main thread, null to search until maxDepth.
+	 * @return the best move of the deepest completed depth, 0 if there is no legal move.
+	 */
+	private int run(ChessGame position, int maxDepth, TimeManager time) {
+		table.newSearch();
+		// copy on this thread, which owns the game, before any helper starts
+		ChessGame[] games = new ChessGame[searches.length];
+		for (int i = 0; i < searches.length; i++) {
+			games[i] = new ChessGame(position);
+			searches[i].clearStop();
+		}
+		ArrayList<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 1; i < searches.length; i++) {
+			Search helper = searches[i];
+			ChessGame game = games[i];
+			futures.add(helpers.submit(() -> helper.iterate(game, Search.MAX_PLY, null)));
+		}
+		int move = searches[0].iterate(games[0], maxDepth, time);
+		for (int i = 1; i < searches.length; i++) {
+			searches[i].stop();
+		}
+		result = searches[0];
+		for (int i = 1; i < searches.length; i++) {
+			try {
+				futures.get(i - 1).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted waiting for search helpers", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("A search helper failed", e.getCause());
+			}
+			if (searches[i].getDepth() > result.getDepth() && searches[i].getBestMove() != 0) {
+				result = searches[i];
+			}
+		}
+		return (result == searches[0] ? move : result.getBestMove());
+	}
+
+	/**
+	 * Stop the helper threads. The search cannot be used afterwards.
+	 */
+	public void shutdown() {
+		if (helpers != null) {
+			helpers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Search a few positions to a fixed depth with 1, 2, 4 ... threads and print the time each took and its
+	 * speedup over 1 thread. Each thread count starts with an empty table.
+	 *
+	 * @param args any of: custom (9x9 setup), depth=D (depth the main thread searches to, default 6),
+	 * threads=a,b,c (thread counts to measure, default 1,2,4,8,16).
+	 */
+	public static void main(String[] args) {
+		boolean custom = false;
+		int depth = 6;
+		String[] counts = {"1", "2", "4", "8", "16"};
+		for (String arg : args) {
+			if (arg.equals("custom")) {
+				custom = true;
+			} else if (arg.startsWith("depth=")) {
+				depth = Integer.parseInt(arg.substring("depth=".length()));
+			} else if (arg.startsWith("threads=")) {
+				counts = arg.substring("threads=".length()).split(",");
+			}
+		}
+		// the start and the positions after a few moves of a game the engine plays against itself
+		ChessGame[] positions = new ChessGame[4];
+		ChessGame game = (custom ? new ChessGame(9, 9, true) : new ChessGame(8, 8, false));
+		Search opening = new Search(16);
+		MoveList moves = new MoveList();
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = new ChessGame(game);
+			for (int ply = 0; ply < 4; ply++) {
+				game.generateLegalMoves(moves);
+				if (moves.size() > 0) {
+					game.makeMove(opening.search(game, 3));
+				}
+			}
+		}
+		// warm up the compiler, so the first thread count is not measured slower than it is
+		SmpSearch warmUp = new SmpSearch(1, 16);
+		warmUp.search(positions[positions.length - 1], Math.max(depth - 1, 1));
+		warmUp.shutdown();
+		System.out.println("Cores: " + Runtime.getRuntime().availableProcessors() + ", depth " + depth);
+		long baseline = 0;
+		for (String count : counts) {
+			int threads = Integer.parseInt(count.trim());
+			SmpSearch search = new SmpSearch(threads, 64);
+			long nanos = 0;
+			long nodes = 0;
+			for (ChessGame position : positions) {
+				long start = System.nanoTime();
+				search.search(position, depth);
+				nanos += System.nanoTime() - start;
+				nodes += search.getNodes();
+			}
+			search.shutdown();
+			if (baseline == 0) {
+				baseline = nanos;
+			}
+			System.out.println(String.format("Threads %2d: %7d ms, %6.2fx speedup, %9d nodes/sec", threads,
+					nanos / 1000000, baseline / (double) nanos, (long) (nodes / (nanos / 1e9))));
+		}
+	}
+}
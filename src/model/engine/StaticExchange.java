@@ -0,0 +1,229 @@
+package model.engine;
+
+import model.game.BitboardBoard;
+import model.game.ChessGame;
+import model.game.LeaperAttacks;
+import model.game.PackedMove;
+import model.game.SliderAttacks;
+import model.game.WideBitboard;
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * StaticExchange --- works out what a capture wins or loses once every piece that can recapture on the tile
+ * has done so, without making any moves (static exchange evaluation, SEE). Both players capture with their
+ * least valuable attacker first and may stop whenever going on would lose material. Attackers are found
+ * with the attack tables and the occupied tiles; as each capturer leaves, the occupied tiles lose it, so
+ * sliders lined up behind it join in. Pins are not looked at.
+ *
+ * The search uses it to skip captures that lose material, and the GUI can use it to mark pieces that can be
+ * taken for a gain (see isHanging). It reads the game's bitboards as they are, so one StaticExchange follows
+ * its game from move to move.
+ * @author Lance
+ *
+ */
+public class StaticExchange {
+
+	// the capturing types tried, least valuable first
+	private static final PieceType[] ATTACKERS = {PieceType.PAWN, PieceType.BEROLINA_PAWN, PieceType.KNIGHT, PieceType.BISHOP,
+			PieceType.ROOK, PieceType.PRINCESS, PieceType.QUEEN, PieceType.KING};
+	private static final int KING_VALUE = 20000; // value of a king, more than any capture can win back
+	private static final int MAX_CAPTURES = 64; // most captures in one exchange, more than the pieces on any board
+
+	private final BitboardBoard board; // the bitboards exchanges are worked out on
+	private final SliderAttacks sliders; // magic attack tables for the board size
+	private final LeaperAttacks leapers; // knight, king and pawn tables for the board size
+	private final int ranks; // number of ranks (rows) of the board
+	private final int files; // number of files (columns) of the board
+	private final int[] gains; // scratch: the material won after each capture of an exchange
+	private long attackerLo; // lo word of the tile of the attacker found by leastValuableAttacker
+	private long attackerHi; // hi word of the tile of the attacker found by leastValuableAttacker
+
+	/**
+	 * Constructor.
+	 *
+	 * @param game the game to evaluate exchanges in. Its board must have bitboards (at most 128 tiles).
+	 */
+	public StaticExchange(ChessGame game) {
+		this(game.getBoard().getBitboards());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param board the bitboards to evaluate exchanges on, null if the board is too large to have them.
+	 */
+	public StaticExchange(BitboardBoard board) {
+		if (board == null) {
+			throw new UnsupportedOperationException("Static exchange evaluation needs a board of at most " + BitboardBoard.MAX_TILES + " tiles");
+		}
+		this.board = board;
+		this.sliders = board.getSliderAttacks();
+		this.leapers = board.getLeaperAttacks();
+		this.ranks = board.getRanks();
+		this.files = board.getFiles();
+		this.gains = new int[MAX_CAPTURES];
+	}
+
+	/**
+	 * Work out what a move wins once the exchange on its destination is over. A move to an empty tile wins
+	 * nothing, or loses the moving piece if it can be taken for less.
+	 *
+	 * @param from the bit index of the tile of the moving piece.
+	 * @param to the bit index of the tile it moves to.
+	 * @return the material won by the moving player in centipawns, negative if it loses material.
+	 */
+	public int see(int from, int to) {
+		Color side = board.getColor(from);
+		PieceType onTile = board.getType(from);
+		PieceType victim = board.getType(to);
+		long occupiedLo = board.getOccupiedLo() & ~WideBitboard.bitLo(from);
+		long occupiedHi = board.getOccupiedHi() & ~WideBitboard.bitHi(from);
+		gains[0] = (victim == null ? 0 : value(victim));
+		int captures = 0;
+		while (captures + 1 < MAX_CAPTURES) {
+			side = (side == Color.BLACK ? Color.WHITE : Color.BLACK);
+			PieceType attacker = leastValuableAttacker(to, side, occupiedLo, occupiedHi);
+			if (attacker == null) {
+				break;
+			}
+			occupiedLo &= ~attackerLo;
+			occupiedHi &= ~attackerHi;
+			// a king may only capture when nothing can take it back
+			if (attacker == PieceType.KING && leastValuableAttacker(to, (side == Color.BLACK ? Color.WHITE : Color.BLACK), occupiedLo, occupiedHi) != null) {
+				break;
+			}
+			captures++;
+			// the attacker takes whatever stands on the tile, and what was won before is the opponent's loss
+			gains[captures] = value(onTile) - gains[captures - 1];
+			onTile = attacker;
+		}
+		// from the last capture back, each player only captures if it does not lose by it
+		while (captures > 0) {
+			gains[captures - 1] = -Math.max(-gains[captures - 1], gains[captures]);
+			captures--;
+		}
+		return gains[0];
+	}
+
+	/**
+	 * Work out what a move wins once the exchange on its destination is over, see see(int, int).
+	 *
+	 * @param move a packed move (see PackedMove) of the player to move.
+	 * @return the material won in centipawns, negative if the move loses material.
+	 */
+	public int see(int move) {
+		return see(PackedMove.from(move), PackedMove.to(move));
+	}
+
+	/**
+	 * Work out what the opponent of a piece wins by capturing it, starting with its least valuable attacker.
+	 *
+	 * @param square the bit index of the piece's tile.
+	 * @return the material the opponent wins in centipawns, 0 if the tile is empty, the piece is not
+	 * attacked or taking it does not gain anything.
+	 */
+	public int threat(int square) {
+		Color owner = board.getColor(square);
+		if (owner == null) {
+			return 0;
+		}
+		Color enemy = (owner == Color.BLACK ? Color.WHITE : Color.BLACK);
+		if (leastValuableAttacker(square, enemy, board.getOccupiedLo(), board.getOccupiedHi()) == null) {
+			return 0;
+		}
+		int from = WideBitboard.lowest(attackerLo, attackerHi);
+		return Math.max(see(from, square), 0);
+	}
+
+	/**
+	 * Check if a piece can be taken for a gain.
+	 *
+	 * @param rank the rank of the piece's tile.
+	 * @param file the file of the piece's tile.
+	 * @return true if a piece stands there and its opponent wins material by capturing it, false otherwise.
+	 */
+	public boolean isHanging(int rank, int file) {
+		return threat(rank * files + file) > 0;
+	}
+
+	/**
+	 * Find a player's least valuable piece attacking a tile, as isAttacked in MoveGenerator counts attacks:
+	 * pawns attack their forward diagonals and BerolinaPawns the tile straight ahead. Only pieces on occupied
+	 * tiles count, and sliders see through tiles that are not occupied. Its tile is left in attackerLo and
+	 * attackerHi.
+	 *
+	 * @param square the bit index of the tile.
+	 * @param by the attacking player.
+	 * @param occupiedLo lo word of the tiles still occupied.
+	 * @param occupiedHi hi word of the tiles still occupied.
+	 * @return the type of the attacker, null if the player does not attack the tile.
+	 */
+	private PieceType leastValuableAttacker(int square, Color by, long occupiedLo, long occupiedHi) {
+		Color victim = (by == Color.BLACK ? Color.WHITE : Color.BLACK);
+		int rookIndex = -1;
+		int bishopIndex = -1;
+		for (PieceType type : ATTACKERS) {
+			long piecesLo = board.getPiecesLo(type, by) & occupiedLo;
+			long piecesHi = board.getPiecesHi(type, by) & occupiedHi;
+			if ((piecesLo | piecesHi) == 0) {
+				continue;
+			}
+			long attacksLo = 0;
+			long attacksHi = 0;
+			if (type == PieceType.PAWN) {
+				// a pawn attacks the tile if the tile would attack the pawn's tile as a pawn of the other color
+				attacksLo = leapers.pawnDiagonalLo(victim, square);
+				attacksHi = leapers.pawnDiagonalHi(victim, square);
+			} else if (type == PieceType.BEROLINA_PAWN) {
+				int behind = square / files - (by == Color.BLACK ? -1 : 1);
+				if (behind >= 0 && behind < ranks) {
+					attacksLo = WideBitboard.bitLo(behind * files + square % files);
+					attacksHi = WideBitboard.bitHi(behind * files + square % files);
+				}
+			} else if (type == PieceType.KING) {
+				attacksLo = leapers.kingLo(square);
+				attacksHi = leapers.kingHi(square);
+			} else {
+				if (type == PieceType.KNIGHT || type == PieceType.PRINCESS) {
+					attacksLo = leapers.knightLo(square);
+					attacksHi = leapers.knightHi(square);
+				}
+				if (type == PieceType.BISHOP || type == PieceType.PRINCESS || type == PieceType.QUEEN) {
+					if (bishopIndex < 0) {
+						bishopIndex = sliders.bishopIndex(square, occupiedLo, occupiedHi);
+					}
+					attacksLo |= sliders.attacksLo(bishopIndex);
+					attacksHi |= sliders.attacksHi(bishopIndex);
+				}
+				if (type == PieceType.ROOK || type == PieceType.QUEEN) {
+					if (rookIndex < 0) {
+						rookIndex = sliders.rookIndex(square, occupiedLo, occupiedHi);
+					}
+					attacksLo |= sliders.attacksLo(rookIndex);
+					attacksHi |= sliders.attacksHi(rookIndex);
+				}
+			}
+			piecesLo &= attacksLo;
+			piecesHi &= attacksHi;
+			if ((piecesLo | piecesHi) != 0) {
+				// keep only the lowest attacker of the type
+				int lowest = WideBitboard.lowest(piecesLo, piecesHi);
+				attackerLo = WideBitboard.bitLo(lowest);
+				attackerHi = WideBitboard.bitHi(lowest);
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the value of a piece in an exchange.
+	 *
+	 * @param type the type of the piece.
+	 * @return its material value (see Evaluator), KING_VALUE for a king.
+	 */
+	private static int value(PieceType type) {
+		return (type == PieceType.KING ? KING_VALUE : Evaluator.value(type.ordinal() + 1));
+	}
+}
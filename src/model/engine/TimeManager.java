@@ -0,0 +1,147 @@
+package model.engine;
+
+/**
+ * TimeManager --- decides how long a search may run. Each move is given a soft limit, the time it should
+ * normally take, and a hard limit it must never go past.
+ *
+ * Iterative deepening asks canStartIteration before each depth: the next depth is only started if it is
+ * predicted to finish before the hard limit, from how long the last depth took and how much longer each
+ * depth has been taking than the one before. A search that is still running at the hard limit is aborted
+ * (see isPastDeadline) and the best move of the last completed depth is played.
+ * @author Lance
+ *
+ */
+public class TimeManager {
+
+	private static final int DEFAULT_MOVES_TO_GO = 30; // moves the clock is shared between when the number is not known
+	private static final long OVERHEAD_MILLIS = 10; // kept back for copying the game and passing the move on
+	private static final int HARD_LIMIT_FACTOR = 4; // hard limit as a multiple of the soft limit, clock allowing
+	private static final int MAX_CLOCK_SHARE = 4; // a move never uses more than this fraction of the clock
+	private static final double DEFAULT_GROWTH = 4; // predicted time of a depth over the one before, until measured
+	private static final double MIN_GROWTH = 1.5; // smallest growth predicted, so lucky iterations do not mislead
+	private static final double MAX_GROWTH = 10; // largest growth predicted
+
+	private final long softNanos; // time after which no new depth is started
+	private final long hardNanos; // time at which the search is aborted
+	private long startNanos; // System.nanoTime() when the search started
+	private long iterationStartNanos; // System.nanoTime() when the current depth started
+	private long lastIterationNanos; // time the last completed depth took, 0 if none
+	private double growth; // predicted time of the next depth over the last one
+
+	/**
+	 * Constructor.
+	 *
+	 * @param softMillis time after which no new depth is started.
+	 * @param hardMillis time at which the search is aborted, at least softMillis.
+	 */
+	public TimeManager(long softMillis, long hardMillis) {
+		if (softMillis < 0 || hardMillis < softMillis) {
+			throw new IllegalArgumentException("Time limits must satisfy 0 <= soft <= hard, got " + softMillis + " and " + hardMillis);
+		}
+		this.softNanos = softMillis * 1000000;
+		this.hardNanos = hardMillis * 1000000;
+		start();
+	}
+
+	/**
+	 * Create a time manager for a fixed time per move.
+	 *
+	 * @param millis the most time the move may take, overhead included.
+	 * @return a time manager that aborts the search in time to answer within millis.
+	 */
+	public static TimeManager forMoveTime(long millis) {
+		long hard = Math.max(millis - OVERHEAD_MILLIS, 1);
+		return new TimeManager(hard, hard);
+	}
+
+	/**
+	 * Create a time manager that shares a clock between the moves left to play.
+	 *
+	 * @param remainingMillis the time left on the player's clock.
+	 * @param incrementMillis the time added to the clock after each move.
+	 * @param movesToGo the moves to play before more time is added, 0 if not known.
+	 * @return a time manager for the next move.
+	 */
+	public static TimeManager forClock(long remainingMillis, long incrementMillis, int movesToGo) {
+		long usable = Math.max(remainingMillis - OVERHEAD_MILLIS, 1);
+		long soft = usable / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + incrementMillis * 3 / 4;
+		// never plan to use more than a share of the clock, however large the increment
+		long hard = Math.min(soft * HARD_LIMIT_FACTOR, Math.max(usable / MAX_CLOCK_SHARE, 1));
+		return new TimeManager(Math.min(soft, hard), hard);
+	}
+
+	/**
+	 * Start timing a search. Called by the constructor, and again by the search when it starts.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		iterationStartNanos = startNanos;
+		lastIterationNanos = 0;
+		growth = DEFAULT_GROWTH;
+	}
+
+	/**
+	 * Record that a depth has been started.
+	 */
+	public void iterationStarted() {
+		iterationStartNanos = System.nanoTime();
+	}
+
+	/**
+	 * Record that a depth has been completed, and update how much longer each depth takes than the last.
+	 */
+	public void iterationFinished() {
+		long iterationNanos = Math.max(System.nanoTime() - iterationStartNanos, 1);
+		if (lastIterationNanos > 0) {
+			growth = Math.min(Math.max(iterationNanos / (double) lastIterationNanos, MIN_GROWTH), MAX_GROWTH);
+		}
+		lastIterationNanos = iterationNanos;
+	}
+
+	/**
+	 * Check if there is time to search one more depth.
+	 *
+	 * @return true if the soft limit has not been reached and the next depth is predicted to finish before
+	 * the hard limit, false otherwise.
+	 */
+	public boolean canStartIteration() {
+		long elapsed = System.nanoTime() - startNanos;
+		return elapsed < softNanos && elapsed + lastIterationNanos * growth <= hardNanos;
+	}
+
+	/**
+	 * Check if the search must be aborted.
+	 *
+	 * @return true if the hard limit has been reached, false otherwise.
+	 */
+	public boolean isPastDeadline() {
+		return System.nanoTime() - startNanos >= hardNanos;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the time since the search started, in milliseconds.
+	 */
+	public long getElapsedMillis() {
+		return (System.nanoTime() - startNanos) / 1000000;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the time after which no new depth is started, in milliseconds.
+	 */
+	public long getSoftLimitMillis() {
+		return softNanos / 1000000;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the time at which the search is aborted, in milliseconds.
+	 */
+	public long getHardLimitMillis() {
+		return hardNanos / 1000000;
+	}
+}
@@ -0,0 +1,297 @@
+package model.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable --- remembers search results by position (Zobrist key, see ChessGame.getKey) so that a
+ * position reached again, by transposition or by a later iteration, does not have to be searched again.
+ *
+ * The table lives off-heap in a direct ByteBuffer and is split into buckets of four 16-byte entries (one
+ * 64-byte cache line). An entry is two longs: the packed data (move, score, depth, bound, age) and the key
+ * XOR the data. Many threads may store and probe at once without locks: a reader only accepts an entry if
+ * its two longs XOR back to the key being probed, so an entry torn by a concurrent write is seen as a miss.
+ *
+ * When a bucket is full the entry replaced is the one with the lowest depth, counting entries from older
+ * searches (see newSearch) as shallower the older they are.
+ * @author Lance
+ *
+ */
+public class TranspositionTable {
+
+	public static final int EXACT = 1; // the score is the exact value of the position
+	public static final int LOWER_BOUND = 2; // the search failed high, the value is at least the score
+	public static final int UPPER_BOUND = 3; // the search failed low, the value is at most the score
+
+	private static final int ENTRY_BYTES = 16; // check long + data long
+	private static final int BUCKET_ENTRIES = 4; // entries sharing one cache line
+	private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+	private static final int MAX_AGE = 63; // ages wrap around after this many searches
+	private static final int AGE_WEIGHT = 8; // depth an entry loses for each search it is older than the current one
+	private static final int FILL_SAMPLE = 1000; // buckets looked at to estimate the fill rate
+
+	private final ByteBuffer entries; // the buckets, off-heap
+	private final long bucketMask; // number of buckets - 1, buckets are a power of two
+	private volatile int age; // the current search, stored in every entry written
+	private final LongAdder hits = new LongAdder(); // probes that found their position
+	private final LongAdder misses = new LongAdder(); // probes that did not
+	private final LongAdder stores = new LongAdder(); // entries written
+	private final LongAdder collisions = new LongAdder(); // stores that replaced another position from the current search
+
+	/**
+	 * Constructor. Allocates the table off-heap.
+	 *
+	 * @param megabytes the size of the table. Rounded down to a power of two number of buckets.
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes <= 0 || megabytes > 1024) {
+			throw new IllegalArgumentException("Transposition table size must be between 1 and 1024 MB, got " + megabytes);
+		}
+		long buckets = Long.highestOneBit(megabytes * 1024L * 1024L / BUCKET_BYTES);
+		this.entries = ByteBuffer.allocateDirect((int) (buckets * BUCKET_BYTES)).order(ByteOrder.nativeOrder());
+		this.bucketMask = buckets - 1;
+	}
+
+	/**
+	 * Look up a position.
+	 *
+	 * @param key the Zobrist key of the position.
+	 * @return the packed entry for the position (read it with getMove, getScore, getDepth and getBound),
+	 * or 0 if the position is not in the table.
+	 */
+	public long probe(long key) {
+		int bucket = bucketOffset(key);
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			int offset = bucket + i * ENTRY_BYTES;
+			long data = entries.getLong(offset + Long.BYTES);
+			if (data != 0 && (entries.getLong(offset) ^ data) == key) {
+				hits.increment();
+				return data;
+			}
+		}
+		misses.increment();
+		return 0;
+	}
+
+	/**
+	 * Save the result of searching a position.
+	 *
+	 * @param key the Zobrist key of the position.
+	 * @param move the best move found (see PackedMove), 0 if none. An earlier move for the position is kept if this is 0.
+	 * @param score the score of the position, between Short.MIN_VALUE and Short.MAX_VALUE.
+	 * @param depth the depth the position was searched to, between 0 and 255.
+	 * @param bound EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public void store(long key, int move, int score, int depth, int bound) {
+		int bucket = bucketOffset(key);
+		int currentAge = age;
+		int victim = -1;
+		int victimValue = Integer.MAX_VALUE;
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			int offset = bucket + i * ENTRY_BYTES;
+			long data = entries.getLong(offset + Long.BYTES);
+			if (data == 0) {
+				// empty entries are used first, unless the position is further along the bucket
+				if (victimValue > Integer.MIN_VALUE) {
+					victim = offset;
+					victimValue = Integer.MIN_VALUE;
+				}
+				continue;
+			}
+			if ((entries.getLong(offset) ^ data) == key) {
+				// same position: keep a deeper result from this search unless the new one is exact
+				if (depth < getDepth(data) && bound != EXACT && getAge(data) == currentAge) {
+					return;
+				}
+				if (move == 0) {
+					move = getMove(data);
+				}
+				write(offset, key, pack(move, score, depth, bound, currentAge));
+				return;
+			}
+			int value = getDepth(data) - AGE_WEIGHT * ((currentAge - getAge(data)) & MAX_AGE);
+			if (value < victimValue) {
+				victim = offset;
+				victimValue = value;
+			}
+		}
+		long replaced = entries.getLong(victim + Long.BYTES);
+		if (replaced != 0 && getAge(replaced) == currentAge) {
+			collisions.increment();
+		}
+		write(victim, key, pack(move, score, depth, bound, currentAge));
+	}
+
+	/**
+	 * Start a new search. Entries from earlier searches become the first to be replaced.
+	 */
+	public void newSearch() {
+		age = (age + 1) & MAX_AGE;
+	}
+
+	/**
+	 * Empty the table and reset the counters.
+	 */
+	public void clear() {
+		for (int offset = 0; offset < entries.capacity(); offset += Long.BYTES) {
+			entries.putLong(offset, 0);
+		}
+		age = 0;
+		hits.reset();
+		misses.reset();
+		stores.reset();
+		collisions.reset();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of entries the table can hold.
+	 */
+	public long getCapacity() {
+		return (bucketMask + 1) * BUCKET_ENTRIES;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of probes that found their position.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of probes that did not find their position.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of entries written.
+	 */
+	public long getStores() {
+		return stores.sum();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of stores that replaced an entry for another position written during the current search.
+	 */
+	public long getCollisions() {
+		return collisions.sum();
+	}
+
+	/**
+	 * Estimate how full the table is by sampling the first buckets.
+	 *
+	 * @return the fraction (0 to 1) of sampled entries written during the current search.
+	 */
+	public double getFillRate() {
+		long sampled = Math.min(FILL_SAMPLE, bucketMask + 1);
+		int used = 0;
+		for (int offset = 0; offset < sampled * BUCKET_BYTES; offset += ENTRY_BYTES) {
+			long data = entries.getLong(offset + Long.BYTES);
+			if (data != 0 && getAge(data) == age) {
+				used++;
+			}
+		}
+		return used / (double) (sampled * BUCKET_ENTRIES);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param entry an entry returned by probe.
+	 * @return the best move saved for the position, 0 if none.
+	 */
+	public static int getMove(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param entry an entry returned by probe.
+	 * @return the score saved for the position.
+	 */
+	public static int getScore(long entry) {
+		return (short) (entry >>> 32);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param entry an entry returned by probe.
+	 * @return the depth the position was searched to.
+	 */
+	public static int getDepth(long entry) {
+		return (int) (entry >>> 48) & 0xFF;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param entry an entry returned by probe.
+	 * @return EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public static int getBound(long entry) {
+		return (int) (entry >>> 56) & 0x3;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param entry a packed entry.
+	 * @return the search the entry was written in.
+	 */
+	private static int getAge(long entry) {
+		return (int) (entry >>> 58) & MAX_AGE;
+	}
+
+	/**
+	 * Pack the fields of an entry into one long. The bound is never 0, so neither is the packed entry.
+	 *
+	 * @param move the best move, 0 if none.
+	 * @param score the score of the position.
+	 * @param depth the depth searched to.
+	 * @param bound EXACT, LOWER_BOUND or UPPER_BOUND.
+	 * @param age the search the entry is written in.
+	 * @return the packed entry.
+	 */
+	private static long pack(int move, int score, int depth, int bound, int age) {
+		return (move & 0xFFFFFFFFL) | ((score & 0xFFFFL) << 32) | ((long) (depth & 0xFF) << 48)
+				| ((long) bound << 56) | ((long) age << 58);
+	}
+
+	/**
+	 * Write an entry. The data goes first and the check last, so a reader racing the write sees a check
+	 * that does not match and treats the entry as a miss.
+	 *
+	 * @param offset the byte offset of the entry.
+	 * @param key the Zobrist key of the position.
+	 * @param data the packed entry.
+	 */
+	private void write(int offset, long key, long data) {
+		entries.putLong(offset + Long.BYTES, data);
+		entries.putLong(offset, key ^ data);
+		stores.increment();
+	}
+
+	/**
+	 * Get the byte offset of the bucket a key belongs in.
+	 *
+	 * @param key a Zobrist key.
+	 * @return the offset of the first entry of its bucket.
+	 */
+	private int bucketOffset(long key) {
+		return (int) (key & bucketMask) * BUCKET_BYTES;
+	}
+}
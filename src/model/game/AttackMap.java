@@ -0,0 +1,121 @@
+package model.game;
+
+import java.util.HashMap;
+
+import model.pieces.Piece;
+import model.player.Color;
+
+/**
+ * AttackMap --- the tiles attacked by each color, kept up to date as pieces are recomputed so that
+ * check detection is a single lookup rather than a search through every enemy piece's valid moves.
+ * For each tile the number of attackers of each color is counted; on boards with bitboards the tiles
+ * with at least one attacker are also kept as a bitboard per color.
+ * @author Lance
+ *
+ */
+public class AttackMap {
+
+	private final Board board; // the board the mapped pieces are on.
+	private int[][] attackers; // number of pieces of each color attacking each tile, indexed by Color.ordinal() then rank * files + file.
+	private long[] attackedLo; // lo word of the tiles attacked by each color, indexed by Color.ordinal()
+	private long[] attackedHi; // hi word of the tiles attacked by each color
+	private HashMap<Piece, TileSet> registered; // the attacks each piece was last counted with.
+
+	/**
+	 * Constructor. Creates a map with no attacks.
+	 *
+	 * @param board the board the mapped pieces are on.
+	 */
+	public AttackMap(Board board) {
+		this.board = board;
+		this.attackers = new int[Color.values().length][board.getRanks() * board.getFiles()];
+		this.attackedLo = new long[Color.values().length];
+		this.attackedHi = new long[Color.values().length];
+		this.registered = new HashMap<>();
+	}
+
+	/**
+	 * Replace the attacks counted for piece with its current attacks. Call after the piece's valid moves
+	 * have been recomputed.
+	 *
+	 * @param piece the piece to update.
+	 */
+	public void update(Piece piece) {
+		int color = piece.getColor().ordinal();
+		TileSet oldAttacks = registered.remove(piece);
+		if (oldAttacks != null) {
+			for (Tile tile : oldAttacks) {
+				int square = indexOf(tile);
+				if (--attackers[color][square] == 0) {
+					attackedLo[color] &= ~WideBitboard.bitLo(square);
+					attackedHi[color] &= ~WideBitboard.bitHi(square);
+				}
+			}
+		}
+		// a piece off the board attacks nothing
+		if (piece.getTile() == null) {
+			return;
+		}
+		TileSet newAttacks = piece.getAttacks();
+		for (Tile tile : newAttacks) {
+			int square = indexOf(tile);
+			if (attackers[color][square]++ == 0) {
+				attackedLo[color] |= WideBitboard.bitLo(square);
+				attackedHi[color] |= WideBitboard.bitHi(square);
+			}
+		}
+		registered.put(piece, newAttacks);
+	}
+
+	/**
+	 * Check if a tile is attacked by any piece of the given color.
+	 *
+	 * @param color the attacking color.
+	 * @param tile a tile on the board.
+	 * @return true if a piece of that color attacks the tile, false otherwise.
+	 */
+	public boolean isAttacked(Color color, Tile tile) {
+		return attackers[color.ordinal()][indexOf(tile)] > 0;
+	}
+
+	/**
+	 * Get the number of pieces of a color attacking a tile.
+	 *
+	 * @param color the attacking color.
+	 * @param tile a tile on the board.
+	 * @return the number of pieces of that color attacking the tile.
+	 */
+	public int getAttackerCount(Color color, Tile tile) {
+		return attackers[color.ordinal()][indexOf(tile)];
+	}
+
+	/**
+	 * Getter. Only meaningful on boards that have bitboards.
+	 *
+	 * @param color the attacking color.
+	 * @return the lo word of the bitboard of tiles attacked by that color.
+	 */
+	public long getAttackedLo(Color color) {
+		return attackedLo[color.ordinal()];
+	}
+
+	/**
+	 * Getter. Only meaningful on boards that have bitboards.
+	 *
+	 * @param color the attacking color.
+	 * @return the hi word of the bitboard of tiles attacked by that color.
+	 */
+	public long getAttackedHi(Color color) {
+		return attackedHi[color.ordinal()];
+	}
+
+	/**
+	 * Get the position of tile in the attackers arrays.
+	 *
+	 * @param tile a tile on the board.
+	 * @return rank * files + file for the tile.
+	 */
+	private int indexOf(Tile tile) {
+		return tile.getRank() * board.getFiles() + tile.getFile();
+	}
+}
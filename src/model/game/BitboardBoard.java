@@ -0,0 +1,403 @@
+package model.game;
+
+import model.pieces.Piece;
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * BitboardBoard --- bitboard representation of a board with at most 128 tiles (the classic 8x8 game and the
+ * custom 9x9 game). Bit (rank * files + file) of a bitboard is set if the tile at (rank, file) is in the set.
+ * Each bitboard is held as two longs (see WideBitboard): on boards of up to 64 tiles the hi word is always 0.
+ * One bitboard is kept per color and per piece type, so occupancy queries are a mask test rather than a walk
+ * through Tile and Piece objects.
+ * @author Lance
+ *
+ */
+public class BitboardBoard {
+
+	public static final int MAX_TILES = 2 * Long.SIZE; // largest board (ranks * files) a bitboard can hold
+
+	private static final PieceType[] TYPES = PieceType.values(); // values() copies the array on every call
+	private static final Color[] COLORS = Color.values();
+
+	private final int ranks; // number of ranks (rows) the board has
+	private final int files; // number of files (columns) the board has
+	private long[] colorLo; // lo word of the tiles occupied by each color, indexed by Color.ordinal()
+	private long[] colorHi; // hi word of the tiles occupied by each color
+	private long[] typeLo; // lo word of the tiles occupied by each type of piece, indexed by PieceType.ordinal()
+	private long[] typeHi; // hi word of the tiles occupied by each type of piece
+	private long[] fileStepMaskLo; // lo word of the tiles a shift by a file step can land on, indexed by step + files - 1
+	private long[] fileStepMaskHi; // hi word of the tiles a shift by a file step can land on
+	private SliderAttacks sliderAttacks; // magic attack tables for this board size, looked up on first use
+	private LeaperAttacks leaperAttacks; // knight, king and pawn tables for this board size, looked up on first use
+	private LineTables lineTables; // between and line masks for this board size, looked up on first use
+	private long unmovedLo; // lo word of the tiles holding a Pawn or BerolinaPawn that has not moved yet
+	private long unmovedHi; // hi word of the tiles holding a Pawn or BerolinaPawn that has not moved yet
+
+	/**
+	 * Constructor. Creates an empty board.
+	 *
+	 * @param rows the number of ranks(rows) the board has.
+	 * @param cols the number of files (columns) the board has.
+	 */
+	public BitboardBoard(int rows, int cols) {
+		if (rows * cols > MAX_TILES) {
+			throw new IllegalArgumentException("A " + rows + "x" + cols + " board does not fit in a 128-bit bitboard");
+		}
+		this.ranks = rows;
+		this.files = cols;
+		this.colorLo = new long[Color.values().length];
+		this.colorHi = new long[Color.values().length];
+		this.typeLo = new long[PieceType.values().length];
+		this.typeHi = new long[PieceType.values().length];
+		initializeFileStepMasks();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of ranks (rows) the board has.
+	 */
+	public int getRanks() {
+		return this.ranks;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of files (columns) the board has.
+	 */
+	public int getFiles() {
+		return this.files;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the shared slider attack tables for boards of this size.
+	 */
+	public SliderAttacks getSliderAttacks() {
+		if (sliderAttacks == null) {
+			sliderAttacks = SliderAttacks.forBoard(ranks, files);
+		}
+		return this.sliderAttacks;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the shared knight, king and pawn attack tables for boards of this size.
+	 */
+	public LeaperAttacks getLeaperAttacks() {
+		if (leaperAttacks == null) {
+			leaperAttacks = LeaperAttacks.forBoard(ranks, files);
+		}
+		return this.leaperAttacks;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the shared between and line tables for boards of this size.
+	 */
+	public LineTables getLineTables() {
+		if (lineTables == null) {
+			lineTables = LineTables.forBoard(ranks, files);
+		}
+		return this.lineTables;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the lo word of the bitboard of Pawns and BerolinaPawns that have not moved yet.
+	 */
+	public long getUnmovedLo() {
+		return this.unmovedLo;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the hi word of the bitboard of Pawns and BerolinaPawns that have not moved yet.
+	 */
+	public long getUnmovedHi() {
+		return this.unmovedHi;
+	}
+
+	/**
+	 * Get the bit index of the tile at (rank, file).
+	 *
+	 * @param rank the rank of the tile.
+	 * @param file the file of the tile.
+	 * @return rank * files + file.
+	 */
+	public int square(int rank, int file) {
+		return rank * files + file;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the lo word of the bitboard of all occupied tiles.
+	 */
+	public long getOccupiedLo() {
+		return colorLo[0] | colorLo[1];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the hi word of the bitboard of all occupied tiles.
+	 */
+	public long getOccupiedHi() {
+		return colorHi[0] | colorHi[1];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param color the color to look up.
+	 * @return the lo word of the bitboard of tiles occupied by pieces of the given color.
+	 */
+	public long getPiecesLo(Color color) {
+		return colorLo[color.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param color the color to look up.
+	 * @return the hi word of the bitboard of tiles occupied by pieces of the given color.
+	 */
+	public long getPiecesHi(Color color) {
+		return colorHi[color.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type the type of piece to look up.
+	 * @param color the color to look up.
+	 * @return the lo word of the bitboard of tiles occupied by pieces of the given type and color.
+	 */
+	public long getPiecesLo(PieceType type, Color color) {
+		return typeLo[type.ordinal()] & colorLo[color.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type the type of piece to look up.
+	 * @param color the color to look up.
+	 * @return the hi word of the bitboard of tiles occupied by pieces of the given type and color.
+	 */
+	public long getPiecesHi(PieceType type, Color color) {
+		return typeHi[type.ordinal()] & colorHi[color.ordinal()];
+	}
+
+	/**
+	 * Check if the tile at (rank, file) does not contain a piece.
+	 *
+	 * @param rank the rank of the tile.
+	 * @param file the file of the tile.
+	 * @return true if there is no piece on the tile, false otherwise.
+	 */
+	public boolean isEmpty(int rank, int file) {
+		return !WideBitboard.contains(getOccupiedLo(), getOccupiedHi(), square(rank, file));
+	}
+
+	/**
+	 * Check if a black piece sits on the tile at (rank, file).
+	 *
+	 * @param rank the rank of the tile.
+	 * @param file the file of the tile.
+	 * @return true if there is a black piece on the tile, false otherwise.
+	 */
+	public boolean occupiedByBlack(int rank, int file) {
+		return getColor(square(rank, file)) == Color.BLACK;
+	}
+
+	/**
+	 * Check if a white piece sits on the tile at (rank, file).
+	 *
+	 * @param rank the rank of the tile.
+	 * @param file the file of the tile.
+	 * @return true if there is a white piece on the tile, false otherwise.
+	 */
+	public boolean occupiedByWhite(int rank, int file) {
+		return getColor(square(rank, file)) == Color.WHITE;
+	}
+
+	/**
+	 * Get the color of the piece on a tile.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the color of the piece on the tile, null if the tile is empty.
+	 */
+	public Color getColor(int square) {
+		for (Color color : COLORS) {
+			if (WideBitboard.contains(colorLo[color.ordinal()], colorHi[color.ordinal()], square)) {
+				return color;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the type of the piece on a tile.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the type of the piece on the tile, null if the tile is empty.
+	 */
+	public PieceType getType(int square) {
+		for (PieceType type : TYPES) {
+			if (WideBitboard.contains(typeLo[type.ordinal()], typeHi[type.ordinal()], square)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Place a piece on a tile, replacing whatever was there.
+	 *
+	 * @param square the bit index of the tile.
+	 * @param type the type of the piece.
+	 * @param color the color of the piece.
+	 */
+	public void setPiece(int square, PieceType type, Color color) {
+		clearSquare(square);
+		colorLo[color.ordinal()] |= WideBitboard.bitLo(square);
+		colorHi[color.ordinal()] |= WideBitboard.bitHi(square);
+		typeLo[type.ordinal()] |= WideBitboard.bitLo(square);
+		typeHi[type.ordinal()] |= WideBitboard.bitHi(square);
+	}
+
+	/**
+	 * Mark the pawn on a tile as not having moved yet.
+	 *
+	 * @param square the bit index of the tile, which must hold a Pawn or BerolinaPawn.
+	 */
+	public void setUnmoved(int square) {
+		unmovedLo |= WideBitboard.bitLo(square);
+		unmovedHi |= WideBitboard.bitHi(square);
+	}
+
+	/**
+	 * Mark the pawn on a tile as having moved.
+	 *
+	 * @param square the bit index of the tile.
+	 */
+	public void clearUnmoved(int square) {
+		unmovedLo &= ~WideBitboard.bitLo(square);
+		unmovedHi &= ~WideBitboard.bitHi(square);
+	}
+
+	/**
+	 * Remove whatever piece is on a tile.
+	 *
+	 * @param square the bit index of the tile.
+	 */
+	public void clearSquare(int square) {
+		long maskLo = ~WideBitboard.bitLo(square);
+		long maskHi = ~WideBitboard.bitHi(square);
+		unmovedLo &= maskLo;
+		unmovedHi &= maskHi;
+		for (int i = 0; i < colorLo.length; i++) {
+			colorLo[i] &= maskLo;
+			colorHi[i] &= maskHi;
+		}
+		for (int i = 0; i < typeLo.length; i++) {
+			typeLo[i] &= maskLo;
+			typeHi[i] &= maskHi;
+		}
+	}
+
+	/**
+	 * Lo word of a bitboard moved by (rankStep, fileStep) on this board. Tiles that would leave the board,
+	 * including wrapping around from one edge file to the other, are dropped.
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param rankStep the number of ranks to move each tile by.
+	 * @param fileStep the number of files to move each tile by.
+	 * @return the lo word of the moved bitboard.
+	 */
+	public long shiftLo(long lo, long hi, int rankStep, int fileStep) {
+		int n = rankStep * files + fileStep;
+		long shifted = (n > 0 ? WideBitboard.shiftUpLo(lo, hi, n) : n < 0 ? WideBitboard.shiftDownLo(lo, hi, -n) : lo);
+		return shifted & fileStepMaskLo[fileStep + files - 1];
+	}
+
+	/**
+	 * Hi word of a bitboard moved by (rankStep, fileStep) on this board. Tiles that would leave the board,
+	 * including wrapping around from one edge file to the other, are dropped.
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param rankStep the number of ranks to move each tile by.
+	 * @param fileStep the number of files to move each tile by.
+	 * @return the hi word of the moved bitboard.
+	 */
+	public long shiftHi(long lo, long hi, int rankStep, int fileStep) {
+		int n = rankStep * files + fileStep;
+		long shifted = (n > 0 ? WideBitboard.shiftUpHi(lo, hi, n) : n < 0 ? WideBitboard.shiftDownHi(lo, hi, -n) : hi);
+		return shifted & fileStepMaskHi[fileStep + files - 1];
+	}
+
+	/**
+	 * Update the tile at (rank, file) to hold piece. Called by Tile whenever its occupant changes,
+	 * so the bitboards always mirror the Tile objects.
+	 *
+	 * @param rank the rank of the tile.
+	 * @param file the file of the tile.
+	 * @param piece the new occupant, null if the tile is now empty.
+	 */
+	public void setOccupant(int rank, int file, Piece piece) {
+		if (piece == null) {
+			clearSquare(square(rank, file));
+		} else {
+			setPiece(square(rank, file), piece.getType(), piece.getColor());
+			if (piece.getFirstMove() && (piece.getType() == PieceType.PAWN || piece.getType() == PieceType.BEROLINA_PAWN)) {
+				setUnmoved(square(rank, file));
+			}
+		}
+	}
+
+	/**
+	 * Build the Tile/Piece view of this board, for code (e.g. the GUI) that needs objects rather than bits.
+	 *
+	 * @return a new Board holding a new piece for each occupied tile.
+	 */
+	public Board createBoard() {
+		Board board = new Board(ranks, files);
+		for (int rank = 0; rank < ranks; rank++) {
+			for (int file = 0; file < files; file++) {
+				int square = square(rank, file);
+				if (getColor(square) != null) {
+					Piece piece = getType(square).create(board.getTile(rank, file), getColor(square));
+					piece.setFirstMove(WideBitboard.contains(unmovedLo, unmovedHi, square));
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * For each file step a shift can make, build the mask of board tiles whose file can be reached by that
+	 * step without wrapping around an edge. Tiles past the last rank are never in a mask.
+	 */
+	private void initializeFileStepMasks() {
+		fileStepMaskLo = new long[2 * files - 1];
+		fileStepMaskHi = new long[2 * files - 1];
+		for (int step = -(files - 1); step < files; step++) {
+			for (int rank = 0; rank < ranks; rank++) {
+				for (int file = Math.max(0, step); file < Math.min(files, files + step); file++) {
+					fileStepMaskLo[step + files - 1] |= WideBitboard.bitLo(square(rank, file));
+					fileStepMaskHi[step + files - 1] |= WideBitboard.bitHi(square(rank, file));
+				}
+			}
+		}
+	}
+}
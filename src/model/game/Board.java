@@ -1,16 +1,34 @@
 package model.game;
 
+import java.util.Arrays;
 
 /**
  * Board --- class representing the chess board.
+ *
+ * Besides the grid of tiles the board keeps a flat mailbox: the tiles laid out rank after rank with a
+ * border of OFFBOARD cells around them, two ranks deep above and below and one file wide on each side (the
+ * side borders of neighbouring ranks touch, so a two-file jump off one edge also lands on the border). A
+ * step in any direction is a fixed index offset (see getOffset), and walks stop on the border instead of
+ * bounds checking every step. Alongside the mailbox each cell holds the code of its occupant (see PieceCode),
+ * so move generation can read the type and color of a piece without going through Tile and Piece objects.
  * @author Lance
  *
  */
 public class Board {
 	
+	public static final int OFFBOARD = -1; // mailbox entry for a cell of the border around the board
+	private static final int BORDER_RANKS = 2; // border ranks above and below the board, enough for a knight jump
+	private static final int BORDER_FILES = 1; // border files on each side, two between neighbouring ranks
+	
 	private final int ranks; // number of ranks (rows) the board has
 	private final int files; // number of files (columns) the board has
 	private Tile[][] tiles; // the tiles on the board
+	private BitboardBoard bitboards; // bitboard mirror of the tiles, null if the board is too large for one or has no slider tables
+	private Tile[] squares; // the tiles, indexed by rank * files + file
+	private int[] mailbox; // for each mailbox cell, the index of its tile in squares, OFFBOARD on the border
+	private byte[] codes; // for each mailbox cell, the PieceCode of its occupant, PieceCode.BORDER on the border
+	private ZobristKeys zobristKeys; // the shared Zobrist keys for this board size
+	private long key; // Zobrist key of the pieces on the board and which pawns have not moved yet
 	
 	/**
 	 * Constructor.
@@ -22,6 +40,11 @@ public class Board {
 		this.files = cols;
 		this.ranks = rows;
 		tiles = new Tile[rows][cols];
+		zobristKeys = ZobristKeys.forBoard(rows, cols);
+		// sizes the slider tables could not be built for are played from the mailbox alone
+		if (rows * cols <= BitboardBoard.MAX_TILES && SliderAttacks.forBoard(rows, cols) != null) {
+			bitboards = new BitboardBoard(rows, cols);
+		}
 		initializeBoard();
 	}
 	
@@ -52,6 +75,16 @@ public class Board {
 		return this.tiles;
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return the bitboard mirror of the tiles, kept in sync as occupants change. null if the board has
+	 * more tiles than fit in a 128-bit bitboard.
+	 */
+	public BitboardBoard getBitboards() {
+		return this.bitboards;
+	}
+	
 	/**
 	 * Get the tile at position (file, rank) if that position is on board.
 	 * 
@@ -72,12 +105,150 @@ public class Board {
 	}
 	
 	/**
-	 * Initialize a tile for each position (file, rank) of the board.
+	 * Get a tile by its index. No bounds checks beyond the array's own.
+	 * 
+	 * @param square the index of the tile, rank * files + file.
+	 * @return the Tile with that index.
+	 */
+	public Tile getTile(int square) {
+		return squares[square];
+	}
+	
+	/**
+	 * Get the mailbox cell of a position on the board.
+	 * 
+	 * @param rank the rank of the position, on the board.
+	 * @param file the file of the position, on the board.
+	 * @return the index of the position's cell in the mailbox.
+	 */
+	public int getMailboxIndex(int rank, int file) {
+		return mailboxIndex(files, rank, file);
+	}
+	
+	/**
+	 * Get the mailbox offset of a step. From any tile, a step of at most two ranks and two files lands 
+	 * either on another tile or on the border.
+	 * 
+	 * @param rankStep the number of ranks to step, -2 to 2.
+	 * @param fileStep the number of files to step, -2 to 2.
+	 * @return the amount to add to a mailbox index to take the step.
+	 */
+	public int getOffset(int rankStep, int fileStep) {
+		return mailboxOffset(files, rankStep, fileStep);
+	}
+	
+	/**
+	 * Get the number of cells in the mailbox of a board, border included.
+	 * 
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the length of the mailbox.
+	 */
+	public static int mailboxLength(int ranks, int files) {
+		return (ranks + 2 * BORDER_RANKS) * (files + 2 * BORDER_FILES);
+	}
+	
+	/**
+	 * Get the mailbox cell of a position on a board of the given width, without needing a Board.
+	 * 
+	 * @param files the number of files (columns) of the board.
+	 * @param rank the rank of the position, on the board.
+	 * @param file the file of the position, on the board.
+	 * @return the index of the position's cell in the mailbox.
+	 */
+	public static int mailboxIndex(int files, int rank, int file) {
+		return (rank + BORDER_RANKS) * (files + 2 * BORDER_FILES) + file + BORDER_FILES;
+	}
+	
+	/**
+	 * Get the mailbox offset of a step on a board of the given width, without needing a Board.
+	 * 
+	 * @param files the number of files (columns) of the board.
+	 * @param rankStep the number of ranks to step, -2 to 2.
+	 * @param fileStep the number of files to step, -2 to 2.
+	 * @return the amount to add to a mailbox index to take the step.
+	 */
+	public static int mailboxOffset(int files, int rankStep, int fileStep) {
+		return rankStep * (files + 2 * BORDER_FILES) + fileStep;
+	}
+	
+	/**
+	 * Look up a mailbox cell.
+	 * 
+	 * @param mailboxIndex the index of a cell, on the board or its border.
+	 * @return the index of the cell's tile (see getTile(int)), OFFBOARD if the cell is on the border.
+	 */
+	public int getSquare(int mailboxIndex) {
+		return mailbox[mailboxIndex];
+	}
+	
+	/**
+	 * Getter. The array is kept up to date by the tiles. A move generator may change cells to try a move,
+	 * but must put them back before returning.
+	 * 
+	 * @return the PieceCode of each mailbox cell, indexed like getSquare.
+	 */
+	public byte[] getCodes() {
+		return this.codes;
+	}
+	
+	/**
+	 * Getter. Kept up to date with the piece codes.
+	 * 
+	 * @return the Zobrist key of the pieces on the board and which pawns have not moved yet. The player
+	 * to move is not included.
+	 */
+	public long getKey() {
+		return this.key;
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the shared Zobrist keys for boards of this size.
+	 */
+	public ZobristKeys getZobristKeys() {
+		return this.zobristKeys;
+	}
+	
+	/**
+	 * Setter. Changes the key along with the code.
+	 * 
+	 * @param cell the mailbox cell of a tile.
+	 * @param code the PieceCode of the tile's new occupant.
+	 */
+	void setCode(int cell, byte code) {
+		key ^= zobristKeys.code(codes[cell], mailbox[cell]) ^ zobristKeys.code(code, mailbox[cell]);
+		codes[cell] = code;
+	}
+	
+	/**
+	 * Setter. Sets or clears the UNMOVED bit of a pawn's code, changing the key along with it.
+	 * 
+	 * @param cell the mailbox cell of a tile holding a Pawn or BerolinaPawn.
+	 * @param unmoved true if the pawn has not moved yet, false otherwise.
+	 */
+	void setUnmoved(int cell, boolean unmoved) {
+		setCode(cell, (byte) (unmoved ? codes[cell] | PieceCode.UNMOVED : codes[cell] & ~PieceCode.UNMOVED));
+	}
+	
+	/**
+	 * Initialize a tile for each position (file, rank) of the board, and the mailbox around them.
 	 */
 	private void initializeBoard() {
+		squares = new Tile[ranks * files];
+		mailbox = new int[mailboxLength(ranks, files)];
+		Arrays.fill(mailbox, OFFBOARD);
+		codes = new byte[mailbox.length];
+		Arrays.fill(codes, PieceCode.BORDER);
 		for (int rank = 0; rank < ranks; rank ++) {
 			for (int file = 0; file < files ; file++) {
 				tiles[rank][file] = new Tile(rank,file);
+				tiles[rank][file].setBitboards(bitboards);
+				squares[rank * files + file] = tiles[rank][file];
+				mailbox[getMailboxIndex(rank, file)] = rank * files + file;
+				codes[getMailboxIndex(rank, file)] = PieceCode.EMPTY;
+				tiles[rank][file].setBoard(this, getMailboxIndex(rank, file));
 			}
 		}
 	}	
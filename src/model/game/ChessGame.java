@@ -1,5 +1,6 @@
 package model.game;
 
+import java.util.Arrays;
 import java.util.HashSet;
 
 import model.pieces.BerolinaPawn;
@@ -8,6 +9,7 @@ import model.pieces.King;
 import model.pieces.Knight;
 import model.pieces.Pawn;
 import model.pieces.Piece;
+import model.pieces.PieceType;
 import model.pieces.Princess;
 import model.pieces.Queen;
 import model.pieces.Rook;
@@ -19,12 +21,28 @@ import model.player.Color;
  */
 public class ChessGame {
 
+	private static final int INITIAL_STACK_SIZE = 1024; // plies the makeMove state stack holds before growing
+
 	private Board board; // the board the game is being played on.
 	private King whiteKing; // the white player's king.
 	private King blackKing; // the black player's king.
-	private HashSet<Piece> whitePieces; // the pieces controlled by the white player.
-	private HashSet<Piece> blackPieces; // the pieces controlled by the black player.
+	private PieceList whitePieces; // the pieces the white player still has on the board.
+	private PieceList blackPieces; // the pieces the black player still has on the board.
 	private Color playerTurn; // the player whose turn it currently is.
+	private MoveDependencyIndex dependencyIndex; // which pieces' valid moves depend on which tiles.
+	private AttackMap attackMap; // the tiles attacked by each player.
+	private Tile[] squares; // every tile of the board, indexed by rank * files + file.
+	private int ply; // number of moves made with makeMove that have not been unmade.
+	private int[] playedMoves; // state stack: the move made at each ply.
+	private Piece[] capturedPieces; // state stack: the piece captured at each ply, null if none.
+	private boolean[] firstMoves; // state stack: the firstMove flag of the moved piece before each ply.
+	private Color[] turns; // state stack: the player whose turn it was before each ply.
+	private boolean[] dirty; // for each tile, true if its occupant changed since valid moves were last refreshed.
+	private int[] dirtySquares; // the tiles marked in dirty, in the order they were marked.
+	private int dirtyCount; // number of entries in dirtySquares.
+	private Piece[] refreshedOccupants; // for each dirty tile, its occupant when valid moves were last refreshed.
+	private MoveGenerator moveGenerator; // bitboard move generator, created on first use.
+	private MailboxMoveGenerator mailboxGenerator; // move generator for boards too large for bitboards, created on first use.
 	
 	/**
 	 * Constructor.
@@ -35,8 +53,11 @@ public class ChessGame {
 	public ChessGame(int ranks, int files, boolean custom) {
 		playerTurn = Color.WHITE; // white player goes first.
 		board = new Board(ranks,files);
-		whitePieces = new HashSet<>();
-		blackPieces = new HashSet<>();
+		dependencyIndex = new MoveDependencyIndex(board);
+		attackMap = new AttackMap(board);
+		initializeStateStack();
+		whitePieces = new PieceList();
+		blackPieces = new PieceList();
 		// create the pieces for each player and place them on the board.
 		if(custom == false) {
 			setUpWhitePieces();
@@ -47,6 +68,90 @@ public class ChessGame {
 			setUpBlackPiecesCustom();
 		}
 	}
+	
+	/**
+	 * Constructor. Copies the current position of another game (pieces, which pawns have moved and the
+	 * player to move) onto a new board, so the copy can be played on independently, e.g. by another thread.
+	 * Moves made on other with makeMove cannot be unmade on the copy.
+	 * 
+	 * @param other the game to copy.
+	 */
+	public ChessGame(ChessGame other) {
+		playerTurn = other.getPlayerTurn();
+		board = new Board(other.getBoard().getRanks(), other.getBoard().getFiles());
+		dependencyIndex = new MoveDependencyIndex(board);
+		attackMap = new AttackMap(board);
+		initializeStateStack();
+		whitePieces = new PieceList();
+		blackPieces = new PieceList();
+		for (Tile tile : other.squares) {
+			Piece piece = tile.getOccupant();
+			// skip tiles whose occupant has been moved off them without the tile being told
+			if (piece == null || piece.getTile() != tile) {
+				continue;
+			}
+			Piece copy = placePiece(piece.getType(), board.getTile(tile.getRank(), tile.getFile()), piece.getColor(), piece.getFirstMove());
+			if (piece == other.getWhiteKing()) {
+				whiteKing = (King) copy;
+			}
+			if (piece == other.getBlackKing()) {
+				blackKing = (King) copy;
+			}
+		}
+		// precompute valid moves for each piece
+		whitePieces.forEach(piece->updatePiece(piece));
+		blackPieces.forEach(piece->updatePiece(piece));
+	}
+	
+	/**
+	 * Constructor. Creates the Tiles and Pieces of a compact game's position (see CompactGame), so it can
+	 * be shown and played in the GUI.
+	 * 
+	 * @param compact the game to copy.
+	 */
+	public ChessGame(CompactGame compact) {
+		playerTurn = compact.getPlayerTurn();
+		board = new Board(compact.getRanks(), compact.getFiles());
+		dependencyIndex = new MoveDependencyIndex(board);
+		attackMap = new AttackMap(board);
+		initializeStateStack();
+		whitePieces = new PieceList();
+		blackPieces = new PieceList();
+		for (Tile tile : squares) {
+			int code = compact.getCode(tile.getRank(), tile.getFile());
+			if (code == PieceCode.EMPTY) {
+				continue;
+			}
+			Color color = ((code & PieceCode.BLACK) != 0 ? Color.BLACK : Color.WHITE);
+			Piece piece = placePiece(compact.getType(tile.getRank(), tile.getFile()), tile, color, (code & PieceCode.UNMOVED) != 0);
+			// the first king of each color found is the one checks are looked for against
+			if (piece instanceof King && color == Color.WHITE && whiteKing == null) {
+				whiteKing = (King) piece;
+			} else if (piece instanceof King && color == Color.BLACK && blackKing == null) {
+				blackKing = (King) piece;
+			}
+		}
+		// precompute valid moves for each piece
+		whitePieces.forEach(piece->updatePiece(piece));
+		blackPieces.forEach(piece->updatePiece(piece));
+	}
+	
+	/**
+	 * Create a piece on a tile of this game's board and add it to its player's pieces. Used when copying
+	 * a position.
+	 * 
+	 * @param type the type of piece.
+	 * @param tile the tile to place it on.
+	 * @param color the player the piece belongs to.
+	 * @param firstMove true if the piece has not moved yet.
+	 * @return the new piece.
+	 */
+	private Piece placePiece(PieceType type, Tile tile, Color color, boolean firstMove) {
+		Piece piece = type.create(tile, color);
+		piece.setFirstMove(firstMove);
+		(piece.isWhite() ? whitePieces : blackPieces).add(piece);
+		return piece;
+	}
 
 	
 	/**
@@ -61,21 +166,60 @@ public class ChessGame {
 	/**
 	 * Getter.
 	 * 
-	 * @return the pieces controlled by the white player.
+	 * @return the tiles attacked by each player.
 	 */
-	public HashSet<Piece> getWhitePieces () {
+	public AttackMap getAttackMap () {
+		refreshValidMoves();
+		return this.attackMap;
+	}
+	
+	/**
+	 * Getter. Kept up to date by every move and undo, so reading it is O(1).
+	 * 
+	 * @return the Zobrist key of the current position: the pieces, which pawns have not moved yet and the player to move.
+	 */
+	public long getKey () {
+		long key = board.getKey();
+		return (playerTurn == Color.BLACK ? key ^ board.getZobristKeys().blackToMove() : key);
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the number of moves made with makeMove that have not been unmade.
+	 */
+	public int getPly () {
+		return this.ply;
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the pieces the white player has on the board, grouped by type.
+	 */
+	public PieceList getWhitePieces () {
 		return this.whitePieces;
 	}
 	
 	/**
 	 * Getter.
 	 * 
-	 * @return the pieces controlled by the black player.
+	 * @return the pieces the black player has on the board, grouped by type.
 	 */
-	public HashSet<Piece> getBlackPieces () {
+	public PieceList getBlackPieces () {
 		return this.blackPieces;
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @param color a player.
+	 * @return the pieces that player has on the board, grouped by type.
+	 */
+	public PieceList getPieces (Color color) {
+		return (color == Color.BLACK ? blackPieces : whitePieces);
+	}
+	
 	/**
 	 * Getter.
 	 * 
@@ -155,7 +299,7 @@ public class ChessGame {
 			whitePieces.add(pawn);
 		}
 		// precompute valid moves for each piece
-		whitePieces.forEach(piece->piece.updateValidMoves(board));
+		whitePieces.forEach(piece->updatePiece(piece));
 	}
 	
 	/**
@@ -199,7 +343,7 @@ public class ChessGame {
 		}
 		
 		// precompute valid moves for each piece
-		whitePieces.forEach(piece->piece.updateValidMoves(board));
+		whitePieces.forEach(piece->updatePiece(piece));
 	}
 	
 	/**
@@ -241,7 +385,7 @@ public class ChessGame {
 			}
 		}
 		// precompute valid moves for each piece
-		blackPieces.forEach(piece->piece.updateValidMoves(board));
+		blackPieces.forEach(piece->updatePiece(piece));
 	}
 	
 	/**
@@ -275,7 +419,7 @@ public class ChessGame {
 			blackPieces.add(pawn);
 		}
 		// precompute valid moves for each piece
-		blackPieces.forEach(piece->piece.updateValidMoves(board));
+		blackPieces.forEach(piece->updatePiece(piece));
 	}
 	
 	/**
@@ -306,6 +450,7 @@ public class ChessGame {
 	 * @param newTile the tile to move the piece to.
 	 */
 	public int playerMove(Color color, Piece piece, Tile newTile) {
+		refreshValidMoves();
 		// it must be color's turn to move
 		if (getPlayerTurn() != color) {
 			System.out.print("Please wait for other player to make their move first\n");
@@ -317,13 +462,19 @@ public class ChessGame {
 			return 1;
 		}
 		// attempt the move.
+		Tile oldTile = piece.getTile();
+		Piece captured = (newTile == null ? null : newTile.getOccupant());
 		int ret = piece.move(newTile,getBoard());
 		if (ret == 0) {
 			// move was successful, now it is the other players turn
 			endTurn();
-			// update valid moves for all other pieces (may have been affected by this move)
-			whitePieces.forEach(p->p.updateValidMoves(board));
-			blackPieces.forEach(p->p.updateValidMoves(board));
+			// a captured piece is off the board, has no moves left and is no longer one of its player's pieces
+			if (captured != null) {
+				updatePiece(captured);
+				getPieces(captured.getColor()).remove(captured);
+			}
+			// update valid moves for the pieces affected by this move
+			updateAffectedPieces(oldTile, newTile);
 			return 0;
 		}
 		else {
@@ -334,19 +485,244 @@ public class ChessGame {
 	}
 	
 	/**
-	 * Checks if current state of the game is a stalemate.
+	 * Recompute the valid moves of every piece that depends on the given tiles, after their occupants changed.
+	 * Only those pieces (and the pieces now on the tiles) can have different valid moves.
 	 * 
-	 * @return true if player whose turn it is has no legal moves to make, false otherwise.
+	 * @param changedTiles the tiles whose occupants changed.
 	 */
-	public boolean isStalemate () {
-		HashSet<Piece> currPlayerPieces = (getPlayerTurn() == Color.BLACK ? getBlackPieces() : getWhitePieces());
-		for (Piece piece: currPlayerPieces) {
-			// if a piece has a legal move, cannot be a stalemate
-			if(piece.hasValidMove()) {
-				return false;
+	public void updateAffectedPieces(Tile... changedTiles) {
+		refreshValidMoves();
+		// a piece put back on the board, e.g. when a capture is undone, is in play again
+		for (Tile tile : changedTiles) {
+			if (tile != null && tile.getOccupant() != null) {
+				getPieces(tile.getOccupant().getColor()).add(tile.getOccupant());
 			}
 		}
-		return true;
+		dependencyIndex.getAffectedBy(changedTiles).forEach(p->updatePiece(p));
+	}
+	
+	/**
+	 * Make a move without checking it, for search and replay. Only the tiles and pieces are updated, 
+	 * nothing is allocated: valid moves, the dependency index and the attack map are refreshed the next 
+	 * time they are asked for through this class. The move must be one of the moving piece's valid moves.
+	 * 
+	 * @param move the move to make, see PackedMove.
+	 */
+	public void makeMove(int move) {
+		Tile fromTile = squares[PackedMove.from(move)];
+		Tile toTile = squares[PackedMove.to(move)];
+		Piece piece = fromTile.getOccupant();
+		Piece captured = toTile.getOccupant();
+		// save what unmakeMove needs to restore
+		if (ply == playedMoves.length) {
+			growStateStack();
+		}
+		playedMoves[ply] = move;
+		capturedPieces[ply] = captured;
+		firstMoves[ply] = piece.getFirstMove();
+		turns[ply] = playerTurn;
+		ply++;
+		markDirty(PackedMove.from(move));
+		markDirty(PackedMove.to(move));
+		// relink the pieces and tiles
+		if (captured != null) {
+			captured.setTile(null);
+			getPieces(captured.getColor()).remove(captured);
+		}
+		fromTile.setOccupant(null);
+		piece.setTile(toTile);
+		// only pawns care whether they have moved before. Set before the piece lands so the board sees it once.
+		if (piece instanceof Pawn) {
+			piece.setFirstMove(false);
+		}
+		toTile.setOccupant(piece);
+		endTurn();
+	}
+	
+	/**
+	 * Take back the last move made with makeMove. Nothing is allocated.
+	 */
+	public void unmakeMove() {
+		if (ply == 0) {
+			throw new IllegalStateException("No move to unmake");
+		}
+		ply--;
+		int move = playedMoves[ply];
+		Tile fromTile = squares[PackedMove.from(move)];
+		Tile toTile = squares[PackedMove.to(move)];
+		Piece piece = toTile.getOccupant();
+		Piece captured = capturedPieces[ply];
+		capturedPieces[ply] = null; // do not keep captured pieces reachable from old plies
+		markDirty(PackedMove.from(move));
+		markDirty(PackedMove.to(move));
+		// relink the pieces and tiles
+		piece.setTile(fromTile);
+		piece.setFirstMove(firstMoves[ply]);
+		fromTile.setOccupant(piece);
+		toTile.setOccupant(captured);
+		if (captured != null) {
+			captured.setTile(toTile);
+			getPieces(captured.getColor()).add(captured);
+		}
+		setPlayerTurn(turns[ply]);
+	}
+	
+	/**
+	 * Bring valid moves, the dependency index and the attack map up to date after moves made with makeMove
+	 * or unmakeMove. Every piece on or looking at a tile whose occupant changed is recomputed, along with the 
+	 * pieces that stood on those tiles at the last refresh (which may have been captured since).
+	 */
+	public void refreshValidMoves() {
+		if (dirtyCount == 0) {
+			return;
+		}
+		HashSet<Piece> affected = new HashSet<>();
+		for (int i = 0; i < dirtyCount; i++) {
+			int square = dirtySquares[i];
+			affected.addAll(dependencyIndex.getAffectedBy(squares[square]));
+			if (refreshedOccupants[square] != null) {
+				affected.add(refreshedOccupants[square]);
+			}
+			dirty[square] = false;
+			refreshedOccupants[square] = null;
+		}
+		dirtyCount = 0;
+		affected.forEach(p->updatePiece(p));
+	}
+	
+	/**
+	 * Record that the occupant of a tile is about to change. Must be called before the change.
+	 * 
+	 * @param square the bit index of the tile.
+	 */
+	private void markDirty(int square) {
+		if (!dirty[square]) {
+			dirty[square] = true;
+			refreshedOccupants[square] = squares[square].getOccupant();
+			dirtySquares[dirtyCount++] = square;
+		}
+	}
+	
+	/**
+	 * Create the state stack used by makeMove and unmakeMove, and the flat view of the tiles.
+	 */
+	private void initializeStateStack() {
+		int files = board.getFiles();
+		squares = new Tile[board.getRanks() * files];
+		for (int square = 0; square < squares.length; square++) {
+			squares[square] = board.getTile(square);
+		}
+		playedMoves = new int[INITIAL_STACK_SIZE];
+		capturedPieces = new Piece[INITIAL_STACK_SIZE];
+		firstMoves = new boolean[INITIAL_STACK_SIZE];
+		turns = new Color[INITIAL_STACK_SIZE];
+		dirty = new boolean[squares.length];
+		dirtySquares = new int[squares.length];
+		refreshedOccupants = new Piece[squares.length];
+	}
+	
+	/**
+	 * Double the size of the state stack. Only needed for games longer than INITIAL_STACK_SIZE plies.
+	 */
+	private void growStateStack() {
+		playedMoves = Arrays.copyOf(playedMoves, 2 * playedMoves.length);
+		capturedPieces = Arrays.copyOf(capturedPieces, 2 * capturedPieces.length);
+		firstMoves = Arrays.copyOf(firstMoves, 2 * firstMoves.length);
+		turns = Arrays.copyOf(turns, 2 * turns.length);
+	}
+	
+	/**
+	 * Recompute the valid moves of a piece, then re-index its dependencies and attacks.
+	 * 
+	 * @param piece the piece to update.
+	 */
+	private void updatePiece(Piece piece) {
+		dependencyIndex.update(piece);
+		attackMap.update(piece);
+	}
+	
+	/**
+	 * Get the legal moves of a player in the current position.
+	 * 
+	 * @param color the player to get legal moves for.
+	 * @return the player's legal moves, with pins and checks already found.
+	 */
+	public LegalMoves getLegalMoves (Color color) {
+		refreshValidMoves();
+		return new LegalMoves(this, color);
+	}
+	
+	/**
+	 * Fill a list with the legal moves of the player to move, generated from the bitboards, or from the 
+	 * board's piece codes when it is too large for bitboards. Unlike getLegalMoves this allocates nothing 
+	 * and does not need valid moves to be refreshed, so it is the generator to use between makeMove and 
+	 * unmakeMove.
+	 * 
+	 * @param moves the list to fill with packed moves (see PackedMove). Cleared first.
+	 */
+	public void generateLegalMoves (MoveList moves) {
+		if (board.getBitboards() == null) {
+			if (mailboxGenerator == null) {
+				mailboxGenerator = new MailboxMoveGenerator(board);
+			}
+			mailboxGenerator.generateLegalMoves(playerTurn, moves);
+			return;
+		}
+		if (moveGenerator == null) {
+			moveGenerator = new MoveGenerator(board.getBitboards());
+		}
+		moveGenerator.generateLegalMoves(playerTurn, moves);
+	}
+	
+	/**
+	 * Fill a list with the legal captures of the player to move, or with all of its legal moves when it is
+	 * in check, generated like generateLegalMoves. Quiet moves are never generated, so this is the generator
+	 * for the quiescence search.
+	 * 
+	 * @param moves the list to fill with packed moves (see PackedMove). Cleared first.
+	 */
+	public void generateCaptures (MoveList moves) {
+		if (board.getBitboards() == null) {
+			if (mailboxGenerator == null) {
+				mailboxGenerator = new MailboxMoveGenerator(board);
+			}
+			mailboxGenerator.generateCaptures(playerTurn, moves);
+			return;
+		}
+		if (moveGenerator == null) {
+			moveGenerator = new MoveGenerator(board.getBitboards());
+		}
+		moveGenerator.generateCaptures(playerTurn, moves);
+	}
+	
+	/**
+	 * Check if the player to move is in check, from the bitboards or the board's piece codes like
+	 * generateLegalMoves. Allocates nothing and does not need valid moves to be refreshed, so it can be
+	 * used between makeMove and unmakeMove.
+	 *
+	 * @return true if the player to move has a king on the board and it is attacked, false otherwise.
+	 */
+	public boolean inCheck () {
+		if (board.getBitboards() == null) {
+			if (mailboxGenerator == null) {
+				mailboxGenerator = new MailboxMoveGenerator(board);
+			}
+			return mailboxGenerator.inCheck(playerTurn);
+		}
+		if (moveGenerator == null) {
+			moveGenerator = new MoveGenerator(board.getBitboards());
+		}
+		return moveGenerator.inCheck(playerTurn);
+	}
+	
+	/**
+	 * Checks if current state of the game is a stalemate.
+	 * 
+	 * @return true if player whose turn it is is not in check and has no legal moves to make, false otherwise.
+	 */
+	public boolean isStalemate () {
+		King king = (getPlayerTurn() == Color.BLACK ? getBlackKing() : getWhiteKing());
+		return !kingInCheck(king) && !getLegalMoves(getPlayerTurn()).hasLegalMove();
 	}
 	
 	/**
@@ -357,14 +733,12 @@ public class ChessGame {
 	 */
 	public boolean kingInCheck(King king) {
 		Tile kingLoc = king.getTile();
-		HashSet<Piece> enemyPieces = (king.getColor() == Color.BLACK ? getWhitePieces() : getBlackPieces());
-		for (Piece piece: enemyPieces) {
-			// check if this enemy piece can reach king
-			if (piece.getValidMoves().contains(kingLoc)) {
-				return true;
-			}
+		// a king off the board cannot be attacked
+		if (kingLoc == null) {
+			return false;
 		}
-		return false;
+		// check if any enemy piece can reach king
+		return getAttackMap().isAttacked((king.getColor() == Color.BLACK ? Color.WHITE : Color.BLACK), kingLoc);
 	}
 	
 	/**
@@ -390,7 +764,7 @@ public class ChessGame {
 	 * @return true if king is in checkmate, false otherwise.
 	 */
 	public boolean kingInCheckmate(King king) {
-		return (kingInCheck(king) && !king.hasValidMove());
+		return (kingInCheck(king) && !getLegalMoves(king.getColor()).hasLegalMove());
 	}
 	
 	/**
@@ -0,0 +1,197 @@
+package model.game;
+
+import java.util.HashMap;
+
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * CompactGame --- the position of a game held in a byte per board cell (see PieceCode) and the player to
+ * move, with no Tile or Piece objects. The codes are laid out like Board.getCodes, border included, so a
+ * MailboxMoveGenerator of the same size generates straight from them, and the type switch in the generator
+ * is the only piece behaviour needed. A standard 8x8 game takes under 200 bytes, against tens of KB for a
+ * ChessGame, so very large numbers of games can be kept in memory.
+ *
+ * A game that needs Tiles and Pieces, e.g. to be shown in the GUI, is turned into a ChessGame with
+ * toChessGame, and back with the CompactGame(ChessGame) constructor.
+ * @author Lance
+ *
+ */
+public class CompactGame {
+
+	private static final HashMap<String, byte[]> SETUPS = new HashMap<>(); // starting codes built so far, by size and setup
+	private static final PieceType[] TYPES = PieceType.values(); // values() copies the array on every call
+
+	private final int ranks; // number of ranks (rows) of the board
+	private final int files; // number of files (columns) of the board
+	private final byte[] codes; // the PieceCode of each mailbox cell
+	private Color playerTurn; // the player whose turn it currently is
+
+	/**
+	 * Constructor. Creates a game at its starting position.
+	 *
+	 * @param ranks the number of ranks (rows) on the game board.
+	 * @param files the number of files (columns) on the game board.
+	 * @param custom true for the custom setup (BerolinaPawns and Princesses), false for the standard one.
+	 */
+	public CompactGame(int ranks, int files, boolean custom) {
+		this.ranks = ranks;
+		this.files = files;
+		this.codes = startingCodes(ranks, files, custom).clone();
+		this.playerTurn = Color.WHITE;
+	}
+
+	/**
+	 * Constructor. Copies the current position of a ChessGame (pieces, which pawns have moved and the
+	 * player to move).
+	 *
+	 * @param game the game to copy.
+	 */
+	public CompactGame(ChessGame game) {
+		this.ranks = game.getBoard().getRanks();
+		this.files = game.getBoard().getFiles();
+		this.codes = game.getBoard().getCodes().clone();
+		this.playerTurn = game.getPlayerTurn();
+	}
+
+	/**
+	 * Constructor. Copies another compact game.
+	 *
+	 * @param other the game to copy.
+	 */
+	public CompactGame(CompactGame other) {
+		this.ranks = other.ranks;
+		this.files = other.files;
+		this.codes = other.codes.clone();
+		this.playerTurn = other.playerTurn;
+	}
+
+	/**
+	 * Get the codes of a starting position, building them from a ChessGame the first time they are needed.
+	 *
+	 * @param ranks the number of ranks of the board.
+	 * @param files the number of files of the board.
+	 * @param custom true for the custom setup.
+	 * @return the shared codes, which must be copied before use.
+	 */
+	private static synchronized byte[] startingCodes(int ranks, int files, boolean custom) {
+		String key = ranks + "x" + files + (custom ? " custom" : "");
+		byte[] setup = SETUPS.get(key);
+		if (setup == null) {
+			setup = new ChessGame(ranks, files, custom).getBoard().getCodes().clone();
+			SETUPS.put(key, setup);
+		}
+		return setup;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of ranks (rows) of the board.
+	 */
+	public int getRanks() {
+		return this.ranks;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of files (columns) of the board.
+	 */
+	public int getFiles() {
+		return this.files;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the player whose turn it currently is.
+	 */
+	public Color getPlayerTurn() {
+		return this.playerTurn;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param rank the rank of a tile.
+	 * @param file the file of a tile.
+	 * @return the PieceCode of the tile's occupant, PieceCode.EMPTY if it is empty.
+	 */
+	public int getCode(int rank, int file) {
+		return codes[Board.mailboxIndex(files, rank, file)];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param rank the rank of a tile.
+	 * @param file the file of a tile.
+	 * @return the type of the tile's occupant, null if it is empty.
+	 */
+	public PieceType getType(int rank, int file) {
+		int type = PieceCode.type(getCode(rank, file));
+		return (type == 0 ? null : TYPES[type - 1]);
+	}
+
+	/**
+	 * Fill a list with the legal moves of the player to move.
+	 *
+	 * @param generator a generator for boards of this size, owned by the calling thread.
+	 * @param moves the list to fill with packed moves (see PackedMove). Cleared first.
+	 */
+	public void generateLegalMoves(MailboxMoveGenerator generator, MoveList moves) {
+		generator.generateLegalMoves(codes, playerTurn, moves);
+	}
+
+	/**
+	 * Check if the player to move is in check.
+	 *
+	 * @param generator a generator for boards of this size, owned by the calling thread.
+	 * @return true if the player to move has a king on the board and it is attacked, false otherwise.
+	 */
+	public boolean inCheck(MailboxMoveGenerator generator) {
+		return generator.inCheck(codes, playerTurn);
+	}
+
+	/**
+	 * Make a move without checking it. The move must be legal in the current position.
+	 *
+	 * @param move the move to make, see PackedMove.
+	 * @return what unmakeMove needs to take the move back: the codes of the moving piece and of the tile
+	 * moved to, before the move.
+	 */
+	public int makeMove(int move) {
+		int from = Board.mailboxIndex(files, PackedMove.from(move) / files, PackedMove.from(move) % files);
+		int to = Board.mailboxIndex(files, PackedMove.to(move) / files, PackedMove.to(move) % files);
+		int moving = codes[from] & 0xFF;
+		int captured = codes[to] & 0xFF;
+		// a pawn that moves has made its first move
+		codes[to] = (byte) (moving & ~PieceCode.UNMOVED);
+		codes[from] = PieceCode.EMPTY;
+		playerTurn = (playerTurn == Color.BLACK ? Color.WHITE : Color.BLACK);
+		return (moving << 8) | captured;
+	}
+
+	/**
+	 * Take back a move made with makeMove. Moves must be taken back in the reverse order they were made.
+	 *
+	 * @param move the move to take back.
+	 * @param undo the value makeMove returned for it.
+	 */
+	public void unmakeMove(int move, int undo) {
+		codes[Board.mailboxIndex(files, PackedMove.from(move) / files, PackedMove.from(move) % files)] = (byte) (undo >>> 8);
+		codes[Board.mailboxIndex(files, PackedMove.to(move) / files, PackedMove.to(move) % files)] = (byte) undo;
+		playerTurn = (playerTurn == Color.BLACK ? Color.WHITE : Color.BLACK);
+	}
+
+	/**
+	 * Create a ChessGame with this game's position, with Tiles and Pieces for the GUI or the rule checks
+	 * that need them. Moves made on it are not seen by this game.
+	 *
+	 * @return a new ChessGame at this position.
+	 */
+	public ChessGame toChessGame() {
+		return new ChessGame(this);
+	}
+}
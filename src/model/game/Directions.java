@@ -0,0 +1,25 @@
+package model.game;
+
+/**
+ * Directions --- the (rank, file) steps the pieces move along, shared by the pieces' own move generation,
+ * LegalMoves and the attack tables so every generator walks the same lines.
+ * @author Lance
+ *
+ */
+public final class Directions {
+
+	// (rank, file) steps along a rank or file, used by Rook and Queen.
+	public static final int[][] ORTHOGONAL = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+	// (rank, file) steps along a diagonal, used by Bishop, Queen and Princess.
+	public static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+	// (rank, file) jumps of an "L" move, used by Knight and Princess.
+	public static final int[][] KNIGHT = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+	// (rank, file) steps to every neighbouring tile, used by King.
+	public static final int[][] KING = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+	/**
+	 * Constructor. Not used, this class only holds constants.
+	 */
+	private Directions() {
+	}
+}
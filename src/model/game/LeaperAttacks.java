@@ -0,0 +1,166 @@
+package model.game;
+
+import java.util.HashMap;
+
+import model.player.Color;
+
+/**
+ * LeaperAttacks --- precomputed target tiles of the pieces that jump a fixed offset rather than slide:
+ * knight jumps (Knight and the Princess), king steps, and the one-step forward diagonals of each color
+ * (Pawn captures and BerolinaPawn pushes). For each tile the targets are kept as a bitboard (two longs, see
+ * WideBitboard), so generating these moves is a mask and an iteration over the set bits.
+ *
+ * Tables are built once per board size and shared by every game of that size.
+ * @author Lance
+ *
+ */
+public class LeaperAttacks {
+
+	private static final HashMap<String, LeaperAttacks> TABLES = new HashMap<>(); // tables built so far, by board size
+
+	private final int files; // number of files (columns) the tables are for
+	private long[] knightLo; // lo word of the knight jumps from each tile
+	private long[] knightHi; // hi word of the knight jumps from each tile
+	private long[] kingLo; // lo word of the king steps from each tile
+	private long[] kingHi; // hi word of the king steps from each tile
+	private long[][] pawnDiagonalLo; // lo word of the forward diagonals from each tile, indexed by Color.ordinal() then tile
+	private long[][] pawnDiagonalHi; // hi word of the forward diagonals from each tile
+
+	/**
+	 * Get the shared tables for a board size, building them the first time they are needed.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the leaper attack tables for boards of that size.
+	 */
+	public static synchronized LeaperAttacks forBoard(int ranks, int files) {
+		String key = ranks + "x" + files;
+		LeaperAttacks tables = TABLES.get(key);
+		if (tables == null) {
+			tables = new LeaperAttacks(ranks, files);
+			TABLES.put(key, tables);
+		}
+		return tables;
+	}
+
+	/**
+	 * Constructor. Builds the tables.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 */
+	private LeaperAttacks(int ranks, int files) {
+		if (ranks * files > BitboardBoard.MAX_TILES) {
+			throw new IllegalArgumentException("A " + ranks + "x" + files + " board does not fit in a 128-bit bitboard");
+		}
+		this.files = files;
+		int tiles = ranks * files;
+		knightLo = new long[tiles];
+		knightHi = new long[tiles];
+		kingLo = new long[tiles];
+		kingHi = new long[tiles];
+		pawnDiagonalLo = new long[Color.values().length][tiles];
+		pawnDiagonalHi = new long[Color.values().length][tiles];
+		for (int rank = 0; rank < ranks; rank++) {
+			for (int file = 0; file < files; file++) {
+				int square = rank * files + file;
+				for (int[] offset : Directions.KNIGHT) {
+					if (onBoard(rank + offset[0], file + offset[1], ranks)) {
+						knightLo[square] |= WideBitboard.bitLo(square + offset[0] * files + offset[1]);
+						knightHi[square] |= WideBitboard.bitHi(square + offset[0] * files + offset[1]);
+					}
+				}
+				for (int[] offset : Directions.KING) {
+					if (onBoard(rank + offset[0], file + offset[1], ranks)) {
+						kingLo[square] |= WideBitboard.bitLo(square + offset[0] * files + offset[1]);
+						kingHi[square] |= WideBitboard.bitHi(square + offset[0] * files + offset[1]);
+					}
+				}
+				// white moves up the board, black moves down
+				for (Color color : Color.values()) {
+					int dir = (color == Color.BLACK ? -1 : 1);
+					for (int side = -1; side <= 1; side += 2) {
+						if (onBoard(rank + dir, file + side, ranks)) {
+							pawnDiagonalLo[color.ordinal()][square] |= WideBitboard.bitLo(square + dir * files + side);
+							pawnDiagonalHi[color.ordinal()][square] |= WideBitboard.bitHi(square + dir * files + side);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the lo word of the tiles a knight on the tile can jump to.
+	 */
+	public long knightLo(int square) {
+		return knightLo[square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the hi word of the tiles a knight on the tile can jump to.
+	 */
+	public long knightHi(int square) {
+		return knightHi[square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the lo word of the tiles a king on the tile can step to.
+	 */
+	public long kingLo(int square) {
+		return kingLo[square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param square the bit index of the tile.
+	 * @return the hi word of the tiles a king on the tile can step to.
+	 */
+	public long kingHi(int square) {
+		return kingHi[square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param color the color of the pawn, which decides which way is forward.
+	 * @param square the bit index of the tile.
+	 * @return the lo word of the tiles diagonally in-front of the tile.
+	 */
+	public long pawnDiagonalLo(Color color, int square) {
+		return pawnDiagonalLo[color.ordinal()][square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param color the color of the pawn, which decides which way is forward.
+	 * @param square the bit index of the tile.
+	 * @return the hi word of the tiles diagonally in-front of the tile.
+	 */
+	public long pawnDiagonalHi(Color color, int square) {
+		return pawnDiagonalHi[color.ordinal()][square];
+	}
+
+	/**
+	 * Check if (rank, file) is on a board of this size.
+	 *
+	 * @param rank the rank to check.
+	 * @param file the file to check.
+	 * @param ranks the number of ranks of the board.
+	 * @return true if the tile exists, false otherwise.
+	 */
+	private boolean onBoard(int rank, int file, int ranks) {
+		return rank >= 0 && rank < ranks && file >= 0 && file < files;
+	}
+}
@@ -0,0 +1,369 @@
+package model.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import model.pieces.King;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * LegalMoves --- the legal moves of one player in the current position of a game. Each piece's valid
+ * moves are only pseudo-legal (a pinned piece may leave its king in check, a king may step onto an
+ * attacked tile), so the pieces pinned to the king and the pieces giving check are found once when this
+ * is created, and each piece's valid moves are then filtered against them without trying the moves. The
+ * tiles found are kept in TileSets, and lines are looked up in the board's LineTables when it has bitboards.
+ * @author Lance
+ *
+ */
+public class LegalMoves {
+
+	private final ChessGame game; // the game the moves are for.
+	private final Color color; // the player the moves are for.
+	private final Color enemy; // the other player.
+	private final int files; // number of files (columns) of the board.
+	private final LineTables lines; // between and line masks of the board, null if it is too large for bitboards.
+	private Tile kingTile; // the tile of color's king, null if it is not on the board.
+	private ArrayList<Piece> checkers; // the enemy pieces attacking color's king, null until one is found.
+	private TileSet evasions; // with a single checker, the tiles a non-king move must land on (capture or block).
+	private TileSet beyondKing; // tiles behind the king on the line of a sliding checker, still attacked once the king steps there.
+	private TileSet pinned; // the tiles of the player's pieces pinned to the king, which may only move along their line to it.
+
+	/**
+	 * Constructor. Finds the checkers and pinned pieces of the current position.
+	 *
+	 * @param game the game to generate legal moves for.
+	 * @param color the player to generate legal moves for.
+	 */
+	public LegalMoves(ChessGame game, Color color) {
+		this.game = game;
+		this.color = color;
+		this.enemy = (color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		Board board = game.getBoard();
+		this.files = board.getFiles();
+		this.lines = (board.getBitboards() == null ? null : board.getBitboards().getLineTables());
+		this.evasions = new TileSet(board);
+		this.beyondKing = new TileSet(board);
+		this.pinned = new TileSet(board);
+		King king = (color == Color.BLACK ? game.getBlackKing() : game.getWhiteKing());
+		this.kingTile = (king == null ? null : king.getTile());
+		// without a king on the board nothing can be pinned or checked
+		if (kingTile != null) {
+			findSliderChecksAndPins(Directions.ORTHOGONAL, PieceType.ROOK, PieceType.QUEEN, null);
+			findSliderChecksAndPins(Directions.DIAGONAL, PieceType.BISHOP, PieceType.QUEEN, PieceType.PRINCESS);
+			findLeaperChecks();
+		}
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the enemy pieces giving check to the player's king.
+	 */
+	public List<Piece> getCheckers() {
+		return (checkers == null ? Collections.<Piece>emptyList() : this.checkers);
+	}
+
+	/**
+	 * Check if a piece is pinned to its king.
+	 *
+	 * @param piece a piece of the player.
+	 * @return true if moving the piece off its line to the king would expose the king, false otherwise.
+	 */
+	public boolean isPinned(Piece piece) {
+		return pinned.contains(piece.getTile());
+	}
+
+	/**
+	 * Get the legal moves of a piece.
+	 *
+	 * @param piece a piece of the player.
+	 * @return the tiles among the piece's valid moves it can move to without leaving its king in check.
+	 */
+	public HashSet<Tile> getLegalMoves(Piece piece) {
+		HashSet<Tile> legalMoves = new HashSet<>();
+		if (piece.getTile() == null || piece.getColor() != color) {
+			return legalMoves;
+		}
+		for (Tile tile : piece.getValidMoves()) {
+			if (isLegal(piece, tile)) {
+				legalMoves.add(tile);
+			}
+		}
+		return legalMoves;
+	}
+
+	/**
+	 * Get the legal moves of every piece of the player.
+	 *
+	 * @return for each piece with at least one legal move, the tiles it can move to.
+	 */
+	public HashMap<Piece, HashSet<Tile>> getAllLegalMoves() {
+		HashMap<Piece, HashSet<Tile>> allMoves = new HashMap<>();
+		for (Piece piece : game.getPieces(color)) {
+			HashSet<Tile> legalMoves = getLegalMoves(piece);
+			if (!legalMoves.isEmpty()) {
+				allMoves.put(piece, legalMoves);
+			}
+		}
+		return allMoves;
+	}
+
+	/**
+	 * Get the legal moves of every piece of the player as packed moves (see PackedMove), ready for makeMove.
+	 *
+	 * @return the legal moves.
+	 */
+	public int[] getPackedMoves() {
+		int files = game.getBoard().getFiles();
+		HashMap<Piece, HashSet<Tile>> allMoves = getAllLegalMoves();
+		int count = 0;
+		for (HashSet<Tile> tiles : allMoves.values()) {
+			count += tiles.size();
+		}
+		int[] moves = new int[count];
+		count = 0;
+		for (Piece piece : allMoves.keySet()) {
+			int from = piece.getTile().getRank() * files + piece.getTile().getFile();
+			for (Tile tile : allMoves.get(piece)) {
+				moves[count++] = PackedMove.of(from, tile.getRank() * files + tile.getFile());
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Check if the player can make any legal move. Stops at the first legal move found.
+	 *
+	 * @return true if the player has a legal move, false otherwise.
+	 */
+	public boolean hasLegalMove() {
+		for (Piece piece : game.getPieces(color)) {
+			if (piece.getTile() == null) {
+				continue;
+			}
+			for (Tile tile : piece.getValidMoves()) {
+				if (isLegal(piece, tile)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check if one of a piece's valid moves is legal.
+	 *
+	 * @param piece a piece of the player that is on the board.
+	 * @param tile one of the piece's valid moves.
+	 * @return true if making the move does not leave the player's king in check, false otherwise.
+	 */
+	public boolean isLegal(Piece piece, Tile tile) {
+		if (piece.getType() == PieceType.KING) {
+			// the king may not step onto an attacked tile, or away from a slider along its line
+			return !game.getAttackMap().isAttacked(enemy, tile) && !beyondKing.contains(tile);
+		}
+		if (checkers != null) {
+			// in double check only the king can move
+			if (checkers.size() > 1) {
+				return false;
+			}
+			// in single check the move must capture the checker or block its line
+			if (!evasions.contains(tile)) {
+				return false;
+			}
+		}
+		// a pinned piece must stay on its line to the king, it cannot pass the pinner
+		return !pinned.contains(piece.getTile()) || onKingLine(piece.getTile(), tile);
+	}
+
+	/**
+	 * Walk out from the king along each direction. An enemy slider moving along that direction is a checker
+	 * if it is the first piece seen, or pins the first piece seen if that belongs to the player.
+	 *
+	 * @param directions the directions to walk.
+	 * @param sliders the types of enemy pieces that slide along these directions (null for unused entries).
+	 */
+	private void findSliderChecksAndPins(int[][] directions, PieceType... sliders) {
+		Board board = game.getBoard();
+		for (int[] direction : directions) {
+			Piece candidate = null; // the player's piece that may be pinned
+			int rank = kingTile.getRank() + direction[0];
+			int file = kingTile.getFile() + direction[1];
+			Tile tile = board.getTile(rank, file);
+			while (tile != null) {
+				Piece occupant = tile.getOccupant();
+				if (occupant != null) {
+					if (occupant.getColor() == color) {
+						// a second piece of the player's on the line means nothing is pinned
+						if (candidate != null) {
+							break;
+						}
+						candidate = occupant;
+					} else {
+						if (isSlider(occupant, sliders)) {
+							if (candidate == null) {
+								addChecker(occupant);
+								addBlocks(tile, direction);
+								addBeyondKing(board.getTile(kingTile.getRank() - direction[0], kingTile.getFile() - direction[1]));
+							} else {
+								pinned.add(candidate.getTile());
+							}
+						}
+						break;
+					}
+				}
+				rank += direction[0];
+				file += direction[1];
+				tile = board.getTile(rank, file);
+			}
+		}
+	}
+
+	/**
+	 * Find the enemy pieces that check the king without sliding: knight jumps (Knight, Princess),
+	 * pawns, BerolinaPawns and the enemy king. These cannot be blocked, only captured.
+	 */
+	private void findLeaperChecks() {
+		Board board = game.getBoard();
+		int rank = kingTile.getRank();
+		int file = kingTile.getFile();
+		for (int[] offset : Directions.KNIGHT) {
+			Tile tile = board.getTile(rank + offset[0], file + offset[1]);
+			if (isEnemy(tile, PieceType.KNIGHT) || isEnemy(tile, PieceType.PRINCESS)) {
+				addChecker(tile.getOccupant());
+			}
+		}
+		// enemy pawns attack towards the player, so they sit one rank further up the board from the king for white
+		int enemyDir = (enemy == Color.BLACK ? -1 : 1);
+		for (int side = -1; side <= 1; side += 2) {
+			Tile tile = board.getTile(rank - enemyDir, file + side);
+			if (isEnemy(tile, PieceType.PAWN)) {
+				addChecker(tile.getOccupant());
+			}
+		}
+		Tile tile = board.getTile(rank - enemyDir, file);
+		if (isEnemy(tile, PieceType.BEROLINA_PAWN)) {
+			addChecker(tile.getOccupant());
+		}
+		// kings never legally stand next to each other, but moves made outside this class may allow it
+		for (int[] direction : Directions.KING) {
+			addIfEnemyKing(board.getTile(rank + direction[0], file + direction[1]));
+		}
+	}
+
+	/**
+	 * Record a checker, whose tile a non-king move may capture on to answer it.
+	 *
+	 * @param checker the enemy piece attacking the king.
+	 */
+	private void addChecker(Piece checker) {
+		if (checkers == null) {
+			checkers = new ArrayList<>();
+		}
+		checkers.add(checker);
+		evasions.add(checker.getTile());
+	}
+
+	/**
+	 * Record the tiles between the king and a sliding checker, where a non-king move may block it.
+	 *
+	 * @param checkerTile the tile of the checker.
+	 * @param direction the (rank, file) step from the king towards the checker.
+	 */
+	private void addBlocks(Tile checkerTile, int[] direction) {
+		if (lines != null) {
+			int king = square(kingTile);
+			int checker = square(checkerTile);
+			evasions.addBitboard(lines.betweenLo(king, checker), lines.betweenHi(king, checker));
+			return;
+		}
+		Board board = game.getBoard();
+		Tile tile = board.getTile(kingTile.getRank() + direction[0], kingTile.getFile() + direction[1]);
+		while (tile != checkerTile) {
+			evasions.add(tile);
+			tile = board.getTile(tile.getRank() + direction[0], tile.getFile() + direction[1]);
+		}
+	}
+
+	/**
+	 * Check if a move stays on the line through the king and the tile it starts from.
+	 *
+	 * @param from the tile of a piece on a rank, file or diagonal of the king.
+	 * @param to the tile the piece moves to.
+	 * @return true if the king, from and to are on one line, false otherwise.
+	 */
+	private boolean onKingLine(Tile from, Tile to) {
+		if (lines != null) {
+			int king = square(kingTile);
+			return WideBitboard.contains(lines.lineLo(king, square(from)), lines.lineHi(king, square(from)), square(to));
+		}
+		// the steps from the king to both tiles are parallel
+		return (from.getRank() - kingTile.getRank()) * (to.getFile() - kingTile.getFile())
+				== (to.getRank() - kingTile.getRank()) * (from.getFile() - kingTile.getFile());
+	}
+
+	/**
+	 * Get the bit index of a tile.
+	 *
+	 * @param tile a tile of the board.
+	 * @return rank * files + file.
+	 */
+	private int square(Tile tile) {
+		return tile.getRank() * files + tile.getFile();
+	}
+
+	/**
+	 * Record a tile the king cannot flee to, because a sliding checker still reaches it through the king's tile.
+	 *
+	 * @param tile the tile behind the king, null if off board.
+	 */
+	private void addBeyondKing(Tile tile) {
+		if (tile != null) {
+			beyondKing.add(tile);
+		}
+	}
+
+	/**
+	 * Record the enemy king as a checker if it is on the given tile.
+	 *
+	 * @param tile a tile next to the player's king, null if off board.
+	 */
+	private void addIfEnemyKing(Tile tile) {
+		if (isEnemy(tile, PieceType.KING)) {
+			addChecker(tile.getOccupant());
+		}
+	}
+
+	/**
+	 * Check if a tile holds an enemy piece of the given type.
+	 *
+	 * @param tile the tile to check, null if off board.
+	 * @param type the type of piece to look for.
+	 * @return true if an enemy piece of that type is on the tile, false otherwise.
+	 */
+	private boolean isEnemy(Tile tile, PieceType type) {
+		return tile != null && tile.getOccupant() != null && tile.getOccupant().getColor() == enemy
+				&& tile.getOccupant().getType() == type;
+	}
+
+	/**
+	 * Check if a piece is one of the given slider types.
+	 *
+	 * @param piece the piece to check.
+	 * @param sliders the slider types (null entries are ignored).
+	 * @return true if the piece's type is one of sliders, false otherwise.
+	 */
+	private boolean isSlider(Piece piece, PieceType... sliders) {
+		for (PieceType type : sliders) {
+			if (piece.getType() == type) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
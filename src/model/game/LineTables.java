@@ -0,0 +1,157 @@
+package model.game;
+
+import java.util.HashMap;
+
+/**
+ * LineTables --- precomputed masks for every pair of tiles that share a rank, file or diagonal: the tiles
+ * strictly between them, and the whole line through them from edge to edge. Both are kept as bitboards (two
+ * longs, see WideBitboard) indexed by from * tiles + to, and are empty for tiles that are not aligned. A slide
+ * is clear when between & occupied is empty, and a piece pinned to its king may only move along line(king, piece).
+ *
+ * Tables are built once per board size and shared by every game of that size.
+ * @author Lance
+ *
+ */
+public class LineTables {
+
+	// (rank, file) steps, in pairs of opposite directions so each pair walks one whole line
+	private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {-1, -1}, {1, -1}, {-1, 1}};
+	private static final HashMap<String, LineTables> TABLES = new HashMap<>(); // tables built so far, by board size
+
+	private final int tiles; // number of tiles (ranks * files) the tables are for
+	private long[] betweenLo; // lo word of the tiles strictly between each pair, indexed by from * tiles + to
+	private long[] betweenHi; // hi word of the tiles strictly between each pair
+	private long[] lineLo; // lo word of the whole line through each aligned pair, both ends included
+	private long[] lineHi; // hi word of the whole line through each aligned pair
+
+	/**
+	 * Get the shared tables for a board size, building them the first time they are needed.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the line tables for boards of that size.
+	 */
+	public static synchronized LineTables forBoard(int ranks, int files) {
+		String key = ranks + "x" + files;
+		LineTables tables = TABLES.get(key);
+		if (tables == null) {
+			tables = new LineTables(ranks, files);
+			TABLES.put(key, tables);
+		}
+		return tables;
+	}
+
+	/**
+	 * Constructor. Builds the tables by walking each direction from each tile, so the tiles passed so far
+	 * are the tiles between the start and the tile reached.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 */
+	private LineTables(int ranks, int files) {
+		if (ranks * files > BitboardBoard.MAX_TILES) {
+			throw new IllegalArgumentException("A " + ranks + "x" + files + " board does not fit in a 128-bit bitboard");
+		}
+		this.tiles = ranks * files;
+		betweenLo = new long[tiles * tiles];
+		betweenHi = new long[tiles * tiles];
+		lineLo = new long[tiles * tiles];
+		lineHi = new long[tiles * tiles];
+		for (int rank = 0; rank < ranks; rank++) {
+			for (int file = 0; file < files; file++) {
+				int from = rank * files + file;
+				for (int d = 0; d < DIRECTIONS.length; d += 2) {
+					// the full line is the ray one way, the ray the other way and the tile itself
+					long fullLo = WideBitboard.bitLo(from);
+					long fullHi = WideBitboard.bitHi(from);
+					for (int side = d; side <= d + 1; side++) {
+						int r = rank + DIRECTIONS[side][0];
+						int f = file + DIRECTIONS[side][1];
+						long passedLo = 0;
+						long passedHi = 0;
+						while (r >= 0 && r < ranks && f >= 0 && f < files) {
+							int to = r * files + f;
+							betweenLo[from * tiles + to] = passedLo;
+							betweenHi[from * tiles + to] = passedHi;
+							passedLo |= WideBitboard.bitLo(to);
+							passedHi |= WideBitboard.bitHi(to);
+							r += DIRECTIONS[side][0];
+							f += DIRECTIONS[side][1];
+						}
+						fullLo |= passedLo;
+						fullHi |= passedHi;
+					}
+					for (int side = d; side <= d + 1; side++) {
+						int r = rank + DIRECTIONS[side][0];
+						int f = file + DIRECTIONS[side][1];
+						while (r >= 0 && r < ranks && f >= 0 && f < files) {
+							lineLo[from * tiles + r * files + f] = fullLo;
+							lineHi[from * tiles + r * files + f] = fullHi;
+							r += DIRECTIONS[side][0];
+							f += DIRECTIONS[side][1];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param from the bit index of one tile.
+	 * @param to the bit index of the other tile.
+	 * @return the lo word of the tiles strictly between them, 0 if they are not aligned.
+	 */
+	public long betweenLo(int from, int to) {
+		return betweenLo[from * tiles + to];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param from the bit index of one tile.
+	 * @param to the bit index of the other tile.
+	 * @return the hi word of the tiles strictly between them, 0 if they are not aligned.
+	 */
+	public long betweenHi(int from, int to) {
+		return betweenHi[from * tiles + to];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param from the bit index of one tile.
+	 * @param to the bit index of the other tile.
+	 * @return the lo word of the rank, file or diagonal through both tiles, 0 if they are not aligned.
+	 */
+	public long lineLo(int from, int to) {
+		return lineLo[from * tiles + to];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param from the bit index of one tile.
+	 * @param to the bit index of the other tile.
+	 * @return the hi word of the rank, file or diagonal through both tiles, 0 if they are not aligned.
+	 */
+	public long lineHi(int from, int to) {
+		return lineHi[from * tiles + to];
+	}
+
+	/**
+	 * Check if nothing stands strictly between two tiles. Callers check first that the tiles are aligned,
+	 * as tiles that are not have nothing between them.
+	 *
+	 * @param from the bit index of one tile.
+	 * @param to the bit index of the other tile.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 * @return true if the tiles between them are all empty (also true for neighbouring tiles).
+	 */
+	public boolean isClear(int from, int to, long occupiedLo, long occupiedHi) {
+		int index = from * tiles + to;
+		return ((betweenLo[index] & occupiedLo) | (betweenHi[index] & occupiedHi)) == 0;
+	}
+}
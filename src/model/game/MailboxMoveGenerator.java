@@ -0,0 +1,403 @@
+package model.game;
+
+import java.util.Arrays;
+
+import model.player.Color;
+
+/**
+ * MailboxMoveGenerator --- generates the legal moves of a position from the board's piece codes (see
+ * PieceCode) rather than from bitboards, so it works on boards of any size a PackedMove can hold. One loop
+ * walks the tiles and switches on the type bits of each code to a loop specialised for that type, so no
+ * call goes through the Piece classes. The rules are the same as MoveGenerator's.
+ *
+ * Each pseudo-legal move is tried on the codes and kept if the player's king is then not attacked, and the
+ * codes are put back before the next one. A generator can work on the board it was built for, or on any
+ * codes laid out like that board's (e.g. a CompactGame of the same size). It keeps scratch state and
+ * changes the codes while generating, so it must not be shared between threads.
+ * @author Lance
+ *
+ */
+public class MailboxMoveGenerator {
+
+	private final byte[] boardCodes; // the piece codes of the board the generator was built for, null if none
+	private byte[] codes; // the piece codes being generated from, indexed by mailbox cell
+	private final int[] cells; // the mailbox cell of each tile, indexed by rank * files + file
+	private final int[] squares; // the tile index of each mailbox cell, Board.OFFBOARD on the border
+	private final int[] orthogonal; // mailbox offsets of a step along a rank or file
+	private final int[] diagonal; // mailbox offsets of a step along a diagonal
+	private final int[] knight; // mailbox offsets of a knight jump
+	private final int[] king; // mailbox offsets of a king step
+	private final int[] forward; // mailbox offset of one rank forward, indexed by Color.ordinal()
+	private int own; // color bits of the player to move
+	private int enemy; // color bits of the other player
+	private int kingCell; // the cell of the king of the player to move, -1 if it is not on the board
+	private boolean capturesOnly; // true to leave out the moves onto empty tiles
+
+	/**
+	 * Constructor. Generates from the board's own piece codes.
+	 *
+	 * @param board the board to generate moves for, of at most PackedMove.MAX_TILES tiles.
+	 */
+	public MailboxMoveGenerator(Board board) {
+		this(board.getRanks(), board.getFiles(), board.getCodes());
+	}
+
+	/**
+	 * Constructor. Generates from codes passed with each call.
+	 *
+	 * @param ranks the number of ranks (rows) of the boards to generate moves for.
+	 * @param files the number of files (columns) of the boards, at most PackedMove.MAX_TILES tiles in all.
+	 */
+	public MailboxMoveGenerator(int ranks, int files) {
+		this(ranks, files, null);
+	}
+
+	/**
+	 * Constructor. Works out the mailbox cells and step offsets of the board size.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @param boardCodes the codes to generate from by default, null if they are passed with each call.
+	 */
+	private MailboxMoveGenerator(int ranks, int files, byte[] boardCodes) {
+		if (ranks * files > PackedMove.MAX_TILES) {
+			throw new IllegalArgumentException("A " + ranks + "x" + files + " board has too many tiles for a packed move");
+		}
+		this.boardCodes = boardCodes;
+		this.cells = new int[ranks * files];
+		this.squares = new int[Board.mailboxLength(ranks, files)];
+		Arrays.fill(squares, Board.OFFBOARD);
+		for (int square = 0; square < cells.length; square++) {
+			cells[square] = Board.mailboxIndex(files, square / files, square % files);
+			squares[cells[square]] = square;
+		}
+		this.orthogonal = new int[] {offset(files, 1, 0), offset(files, -1, 0), offset(files, 0, 1), offset(files, 0, -1)};
+		this.diagonal = new int[] {offset(files, 1, 1), offset(files, 1, -1), offset(files, -1, 1), offset(files, -1, -1)};
+		this.knight = new int[] {offset(files, 2, 1), offset(files, 2, -1), offset(files, -2, 1), offset(files, -2, -1),
+				offset(files, 1, 2), offset(files, 1, -2), offset(files, -1, 2), offset(files, -1, -2)};
+		this.king = new int[] {offset(files, 1, 0), offset(files, -1, 0), offset(files, 0, 1), offset(files, 0, -1),
+				offset(files, 1, 1), offset(files, 1, -1), offset(files, -1, 1), offset(files, -1, -1)};
+		// white moves up the board, black moves down
+		this.forward = new int[Color.values().length];
+		forward[Color.WHITE.ordinal()] = offset(files, 1, 0);
+		forward[Color.BLACK.ordinal()] = offset(files, -1, 0);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal moves of a player on the generator's board.
+	 *
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 */
+	public void generateLegalMoves(Color color, MoveList moves) {
+		generateLegalMoves(boardCodes, color, moves);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal moves of a player. Each move records the moving and
+	 * captured types, and pawn double steps are flagged (see PackedMove).
+	 *
+	 * @param position the piece codes of the position, laid out like Board.getCodes for this board size.
+	 * Changed while generating and put back before returning.
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 */
+	public void generateLegalMoves(byte[] position, Color color, MoveList moves) {
+		generateLegalMoves(position, color, moves, false);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal captures of a player on the generator's board, or with
+	 * all of its legal moves when it is in check, like MoveGenerator.generateCaptures. Quiet moves are
+	 * dropped before they are tried on the codes.
+	 *
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 */
+	public void generateCaptures(Color color, MoveList moves) {
+		generateLegalMoves(boardCodes, color, moves, true);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal moves of a player, or only its captures.
+	 *
+	 * @param position the piece codes of the position, laid out like Board.getCodes for this board size.
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 * @param captures true to leave out the quiet moves when the player is not in check.
+	 */
+	private void generateLegalMoves(byte[] position, Color color, MoveList moves, boolean captures) {
+		moves.clear();
+		codes = position;
+		own = PieceCode.colorBits(color);
+		enemy = own ^ PieceCode.BLACK;
+		kingCell = findKing(own);
+		capturesOnly = captures && (kingCell < 0 || !isCellAttacked(kingCell, enemy));
+		int step = forward[color.ordinal()];
+		for (int square = 0; square < cells.length; square++) {
+			int cell = cells[square];
+			int code = codes[cell];
+			if (code <= 0 || (code & PieceCode.BLACK) != own) {
+				continue;
+			}
+			switch (code & PieceCode.TYPE_MASK) {
+			case PieceCode.PAWN:
+				addPawnMoves(cell, code, step, moves);
+				break;
+			case PieceCode.BEROLINA_PAWN:
+				addBerolinaPawnMoves(cell, code, step, moves);
+				break;
+			case PieceCode.KNIGHT:
+				addLeaperMoves(cell, knight, moves);
+				break;
+			case PieceCode.BISHOP:
+				addSliderMoves(cell, diagonal, moves);
+				break;
+			case PieceCode.ROOK:
+				addSliderMoves(cell, orthogonal, moves);
+				break;
+			case PieceCode.QUEEN:
+				addSliderMoves(cell, orthogonal, moves);
+				addSliderMoves(cell, diagonal, moves);
+				break;
+			case PieceCode.PRINCESS:
+				addSliderMoves(cell, diagonal, moves);
+				addLeaperMoves(cell, knight, moves);
+				break;
+			case PieceCode.KING:
+				addLeaperMoves(cell, king, moves);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Check if a player's king is attacked on the generator's board.
+	 *
+	 * @param color the player whose king to check.
+	 * @return true if the king is on the board and an enemy piece attacks it, false otherwise.
+	 */
+	public boolean inCheck(Color color) {
+		return inCheck(boardCodes, color);
+	}
+
+	/**
+	 * Check if a player's king is attacked.
+	 *
+	 * @param position the piece codes of the position, laid out like Board.getCodes for this board size.
+	 * @param color the player whose king to check.
+	 * @return true if the king is on the board and an enemy piece attacks it, false otherwise.
+	 */
+	public boolean inCheck(byte[] position, Color color) {
+		codes = position;
+		int bits = PieceCode.colorBits(color);
+		int cell = findKing(bits);
+		return cell >= 0 && isCellAttacked(cell, bits ^ PieceCode.BLACK);
+	}
+
+	/**
+	 * Check if a tile of the generator's board is attacked by a player, as the attack map counts attacks:
+	 * pawns attack their forward diagonals and BerolinaPawns the tile straight ahead, whether or not anything
+	 * stands there.
+	 *
+	 * @param square the index of the tile, rank * files + file.
+	 * @param by the attacking player.
+	 * @return true if a piece of that player attacks the tile, false otherwise.
+	 */
+	public boolean isAttacked(int square, Color by) {
+		codes = boardCodes;
+		return isCellAttacked(cells[square], PieceCode.colorBits(by));
+	}
+
+	/**
+	 * Check if a cell is attacked by the pieces of one color, looking outwards from the cell for each kind
+	 * of attacker.
+	 *
+	 * @param cell the mailbox cell of the tile.
+	 * @param by the color bits of the attacking player.
+	 * @return true if a piece of that player attacks the cell, false otherwise.
+	 */
+	private boolean isCellAttacked(int cell, int by) {
+		// an attacking pawn stands one rank behind the cell, as seen from the attacker
+		int behind = cell - forward[by == PieceCode.BLACK ? Color.BLACK.ordinal() : Color.WHITE.ordinal()];
+		if ((codes[behind - 1] & PieceCode.PIECE_MASK) == (PieceCode.PAWN | by)
+				|| (codes[behind + 1] & PieceCode.PIECE_MASK) == (PieceCode.PAWN | by)
+				|| (codes[behind] & PieceCode.PIECE_MASK) == (PieceCode.BEROLINA_PAWN | by)) {
+			return true;
+		}
+		for (int offset : knight) {
+			int piece = codes[cell + offset] & PieceCode.PIECE_MASK;
+			if (piece == (PieceCode.KNIGHT | by) || piece == (PieceCode.PRINCESS | by)) {
+				return true;
+			}
+		}
+		for (int offset : king) {
+			if ((codes[cell + offset] & PieceCode.PIECE_MASK) == (PieceCode.KING | by)) {
+				return true;
+			}
+		}
+		for (int offset : orthogonal) {
+			int piece = firstOccupant(cell, offset) & PieceCode.PIECE_MASK;
+			if (piece == (PieceCode.ROOK | by) || piece == (PieceCode.QUEEN | by)) {
+				return true;
+			}
+		}
+		for (int offset : diagonal) {
+			int piece = firstOccupant(cell, offset) & PieceCode.PIECE_MASK;
+			if (piece == (PieceCode.BISHOP | by) || piece == (PieceCode.QUEEN | by) || piece == (PieceCode.PRINCESS | by)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Walk from a cell in one direction to the first cell that is not an empty tile.
+	 *
+	 * @param cell the cell to walk from.
+	 * @param offset the mailbox offset of one step.
+	 * @return the code of the first piece reached, PieceCode.BORDER if the walk reaches the border.
+	 */
+	private int firstOccupant(int cell, int offset) {
+		int index = cell + offset;
+		while (codes[index] == PieceCode.EMPTY) {
+			index += offset;
+		}
+		return codes[index];
+	}
+
+	/**
+	 * Add the moves of a pawn: one step forward onto an empty tile, two on its first move if both are
+	 * empty, and captures on the forward diagonals.
+	 */
+	private void addPawnMoves(int cell, int code, int step, MoveList moves) {
+		int ahead = cell + step;
+		if (codes[ahead] == PieceCode.EMPTY) {
+			addMove(cell, ahead, 0, moves);
+			if ((code & PieceCode.UNMOVED) != 0 && codes[ahead + step] == PieceCode.EMPTY) {
+				addMove(cell, ahead + step, PackedMove.DOUBLE_STEP, moves);
+			}
+		}
+		if (isEnemy(codes[ahead - 1])) {
+			addMove(cell, ahead - 1, 0, moves);
+		}
+		if (isEnemy(codes[ahead + 1])) {
+			addMove(cell, ahead + 1, 0, moves);
+		}
+	}
+
+	/**
+	 * Add the moves of a BerolinaPawn: captures straight forward, one step diagonally forward onto an
+	 * empty tile, and two on its first move if both are empty.
+	 */
+	private void addBerolinaPawnMoves(int cell, int code, int step, MoveList moves) {
+		int ahead = cell + step;
+		if (isEnemy(codes[ahead])) {
+			addMove(cell, ahead, 0, moves);
+		}
+		for (int side = -1; side <= 1; side += 2) {
+			int diagonal = ahead + side;
+			if (codes[diagonal] != PieceCode.EMPTY) {
+				continue;
+			}
+			addMove(cell, diagonal, 0, moves);
+			if ((code & PieceCode.UNMOVED) != 0 && codes[diagonal + step + side] == PieceCode.EMPTY) {
+				addMove(cell, diagonal + step + side, PackedMove.DOUBLE_STEP, moves);
+			}
+		}
+	}
+
+	/**
+	 * Add the moves of a piece that jumps or steps a fixed offset (Knight, King, the Princess' jumps).
+	 */
+	private void addLeaperMoves(int cell, int[] offsets, MoveList moves) {
+		for (int offset : offsets) {
+			int target = codes[cell + offset];
+			if (target == PieceCode.EMPTY || isEnemy(target)) {
+				addMove(cell, cell + offset, 0, moves);
+			}
+		}
+	}
+
+	/**
+	 * Add the moves of a piece sliding along each of the given directions, up to and including the first
+	 * enemy piece.
+	 */
+	private void addSliderMoves(int cell, int[] offsets, MoveList moves) {
+		for (int offset : offsets) {
+			int index = cell + offset;
+			while (codes[index] == PieceCode.EMPTY) {
+				addMove(cell, index, 0, moves);
+				index += offset;
+			}
+			if (isEnemy(codes[index])) {
+				addMove(cell, index, 0, moves);
+			}
+		}
+	}
+
+	/**
+	 * Try a move on the codes, and add it to the list if it does not leave the player's king attacked.
+	 * The codes are put back afterwards.
+	 *
+	 * @param from the cell the piece moves from.
+	 * @param to the cell the piece moves to.
+	 * @param flags PackedMove flags of the move.
+	 * @param moves the list to add to.
+	 */
+	private void addMove(int from, int to, int flags, MoveList moves) {
+		byte moving = codes[from];
+		byte captured = codes[to];
+		if (capturesOnly && captured == PieceCode.EMPTY) {
+			return;
+		}
+		codes[to] = moving;
+		codes[from] = PieceCode.EMPTY;
+		int kingAt = ((moving & PieceCode.TYPE_MASK) == PieceCode.KING ? to : kingCell);
+		boolean legal = kingAt < 0 || !isCellAttacked(kingAt, enemy);
+		codes[from] = moving;
+		codes[to] = captured;
+		if (legal) {
+			moves.add(PackedMove.ofCodes(squares[from], squares[to], moving & PieceCode.TYPE_MASK, captured & PieceCode.TYPE_MASK, flags));
+		}
+	}
+
+	/**
+	 * Check if a code is a piece of the other player.
+	 *
+	 * @param code the code of a cell.
+	 * @return true if the cell holds an enemy piece, false if it is empty, the border or an own piece.
+	 */
+	private boolean isEnemy(int code) {
+		return code > 0 && (code & PieceCode.BLACK) == enemy;
+	}
+
+	/**
+	 * Get the mailbox offset of a step.
+	 *
+	 * @param files the number of files of the board.
+	 * @param rankStep the number of ranks to step.
+	 * @param fileStep the number of files to step.
+	 * @return the amount to add to a cell index to take the step.
+	 */
+	private static int offset(int files, int rankStep, int fileStep) {
+		return Board.mailboxOffset(files, rankStep, fileStep);
+	}
+
+	/**
+	 * Find the king of one color.
+	 *
+	 * @param bits the color bits of the player.
+	 * @return the cell of the player's king, -1 if it is not on the board.
+	 */
+	private int findKing(int bits) {
+		for (int cell : cells) {
+			if ((codes[cell] & PieceCode.PIECE_MASK) == (PieceCode.KING | bits)) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+}
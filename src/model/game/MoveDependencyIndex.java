@@ -0,0 +1,87 @@
+package model.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import model.pieces.Piece;
+
+/**
+ * MoveDependencyIndex --- records which pieces' valid moves depend on which tiles, so that after a move
+ * only the pieces looking at the changed tiles need their valid moves recomputed.
+ * @author Lance
+ *
+ */
+public class MoveDependencyIndex {
+
+	private final Board board; // the board the indexed pieces are on.
+	private ArrayList<HashSet<Piece>> dependents; // for each tile (rank * files + file), the pieces whose moves depend on it.
+	private HashMap<Piece, TileSet> registered; // the dependencies each piece was last indexed under.
+
+	/**
+	 * Constructor.
+	 *
+	 * @param board the board the indexed pieces are on.
+	 */
+	public MoveDependencyIndex(Board board) {
+		this.board = board;
+		this.dependents = new ArrayList<>();
+		this.registered = new HashMap<>();
+		for (int i = 0; i < board.getRanks() * board.getFiles(); i++) {
+			dependents.add(new HashSet<Piece>());
+		}
+	}
+
+	/**
+	 * Recompute the valid moves of piece and re-index it under the tiles they now depend on.
+	 *
+	 * @param piece the piece to update.
+	 */
+	public void update(Piece piece) {
+		// drop the piece from the tiles it used to depend on
+		TileSet oldDependencies = registered.remove(piece);
+		if (oldDependencies != null) {
+			for (Tile tile : oldDependencies) {
+				dependents.get(indexOf(tile)).remove(piece);
+			}
+		}
+		piece.updateValidMoves(board);
+		// a piece off the board has no moves, so nothing can affect it
+		if (piece.getTile() == null) {
+			return;
+		}
+		TileSet newDependencies = piece.getDependencies();
+		for (Tile tile : newDependencies) {
+			dependents.get(indexOf(tile)).add(piece);
+		}
+		registered.put(piece, newDependencies);
+	}
+
+	/**
+	 * Get the pieces whose valid moves may have changed because the occupants of the given tiles changed.
+	 * This includes the pieces now sitting on those tiles.
+	 *
+	 * @param changedTiles the tiles whose occupants changed.
+	 * @return the pieces that need their valid moves recomputed.
+	 */
+	public HashSet<Piece> getAffectedBy(Tile... changedTiles) {
+		HashSet<Piece> affected = new HashSet<>();
+		for (Tile tile : changedTiles) {
+			affected.addAll(dependents.get(indexOf(tile)));
+			if (tile.getOccupant() != null) {
+				affected.add(tile.getOccupant());
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * Get the position of tile in the dependents list.
+	 *
+	 * @param tile a tile on the board.
+	 * @return rank * files + file for the tile.
+	 */
+	private int indexOf(Tile tile) {
+		return tile.getRank() * board.getFiles() + tile.getFile();
+	}
+}
@@ -0,0 +1,455 @@
+package model.game;
+
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * MoveGenerator --- generates the legal moves of a position straight from the bitboards into a MoveList,
+ * without looking at Tile or Piece objects or allocating anything. It follows the same rules as the
+ * pieces' own move generation and LegalMoves: checkers and pinned pieces are found first, from the king
+ * outwards, and every move is then masked against them instead of being tried.
+ *
+ * One generator belongs to one board, and keeps scratch state between calls, so it must not be shared
+ * between threads.
+ * @author Lance
+ *
+ */
+public class MoveGenerator {
+
+	private final BitboardBoard board; // the bitboards the moves are generated from
+	private final SliderAttacks sliders; // magic attack tables for this board size
+	private final LeaperAttacks leapers; // knight, king and pawn tables for this board size
+	private final LineTables lines; // between and line masks for this board size
+	private final int ranks; // number of ranks (rows) of the board
+	private final int files; // number of files (columns) of the board
+	private final long boardLo; // lo word of every tile of the board
+	private final long boardHi; // hi word of every tile of the board
+	private int king; // the bit index of the king of the player to move, -1 if it is not on the board
+	private long pinnedLo; // lo word of the tiles holding a piece pinned to its king
+	private long pinnedHi; // hi word of the tiles holding a piece pinned to its king
+	private long evasionLo; // lo word of the tiles a non-king move must land on (every tile when not in check)
+	private long evasionHi; // hi word of the same tiles
+	private int checkers; // number of enemy pieces giving check
+
+	/**
+	 * Constructor.
+	 *
+	 * @param board the bitboards of the board to generate moves for.
+	 */
+	public MoveGenerator(BitboardBoard board) {
+		this.board = board;
+		this.sliders = board.getSliderAttacks();
+		this.leapers = board.getLeaperAttacks();
+		this.lines = board.getLineTables();
+		this.ranks = board.getRanks();
+		this.files = board.getFiles();
+		int tiles = ranks * files;
+		this.boardLo = (tiles >= Long.SIZE ? -1L : (1L << tiles) - 1);
+		this.boardHi = (tiles <= Long.SIZE ? 0L : tiles == BitboardBoard.MAX_TILES ? -1L : (1L << (tiles - Long.SIZE)) - 1);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal moves of a player. Each move records the moving and
+	 * captured types, and pawn double steps are flagged (see PackedMove).
+	 *
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 */
+	public void generateLegalMoves(Color color, MoveList moves) {
+		generateLegalMoves(color, moves, false);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal captures of a player, or with all of its legal moves
+	 * when it is in check, so every evasion is there. Quiet moves are masked out of the destination tiles
+	 * before any move is made, which is what the quiescence search wants.
+	 *
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 */
+	public void generateCaptures(Color color, MoveList moves) {
+		generateLegalMoves(color, moves, true);
+	}
+
+	/**
+	 * Replace the contents of a list with the legal moves of a player, or only its captures.
+	 *
+	 * @param color the player to generate moves for.
+	 * @param moves the list to fill. Cleared first.
+	 * @param capturesOnly true to leave out the quiet moves when the player is not in check.
+	 */
+	private void generateLegalMoves(Color color, MoveList moves, boolean capturesOnly) {
+		moves.clear();
+		Color enemy = (color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		long occupiedLo = board.getOccupiedLo();
+		long occupiedHi = board.getOccupiedHi();
+		long kingLo = board.getPiecesLo(PieceType.KING, color);
+		long kingHi = board.getPiecesHi(PieceType.KING, color);
+		int king = ((kingLo | kingHi) == 0 ? -1 : WideBitboard.lowest(kingLo, kingHi));
+		findChecksAndPins(color, enemy, king, occupiedLo, occupiedHi);
+		long targetLo = ~board.getPiecesLo(color);
+		long targetHi = ~board.getPiecesHi(color);
+		// out of check only the moves onto enemy pieces are wanted
+		if (capturesOnly && checkers == 0) {
+			targetLo = board.getPiecesLo(enemy);
+			targetHi = board.getPiecesHi(enemy);
+		}
+		if (king >= 0) {
+			addKingMoves(enemy, king, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		}
+		// in double check only the king can move
+		if (checkers > 1) {
+			return;
+		}
+		targetLo &= evasionLo;
+		targetHi &= evasionHi;
+		addPawnMoves(color, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		addBerolinaPawnMoves(color, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		long fromLo = board.getPiecesLo(PieceType.KNIGHT, color);
+		long fromHi = board.getPiecesHi(PieceType.KNIGHT, color);
+		while ((fromLo | fromHi) != 0) {
+			int from = WideBitboard.lowest(fromLo, fromHi);
+			addMoves(from, PieceType.KNIGHT, leapers.knightLo(from) & targetLo, leapers.knightHi(from) & targetHi, 0, moves);
+			fromLo &= ~WideBitboard.bitLo(from);
+			fromHi &= ~WideBitboard.bitHi(from);
+		}
+		addSliderMoves(PieceType.BISHOP, color, false, true, false, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		addSliderMoves(PieceType.ROOK, color, true, false, false, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		addSliderMoves(PieceType.QUEEN, color, true, true, false, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+		addSliderMoves(PieceType.PRINCESS, color, false, true, true, occupiedLo, occupiedHi, targetLo, targetHi, moves);
+	}
+
+	/**
+	 * Check if a player's king is attacked.
+	 *
+	 * @param color the player whose king to check.
+	 * @return true if the king is on the board and an enemy piece attacks it, false otherwise.
+	 */
+	public boolean inCheck(Color color) {
+		long kingLo = board.getPiecesLo(PieceType.KING, color);
+		long kingHi = board.getPiecesHi(PieceType.KING, color);
+		if ((kingLo | kingHi) == 0) {
+			return false;
+		}
+		return isAttacked(WideBitboard.lowest(kingLo, kingHi), (color == Color.BLACK ? Color.WHITE : Color.BLACK),
+				board.getOccupiedLo(), board.getOccupiedHi());
+	}
+
+	/**
+	 * Check if a tile is attacked by a player, as the attack map counts attacks: pawns attack their forward
+	 * diagonals and BerolinaPawns the tile straight ahead, whether or not anything stands there.
+	 *
+	 * @param square the bit index of the tile.
+	 * @param by the attacking player.
+	 * @param occupiedLo lo word of the tiles to treat as occupied.
+	 * @param occupiedHi hi word of the tiles to treat as occupied.
+	 * @return true if a piece of that player attacks the tile, false otherwise.
+	 */
+	public boolean isAttacked(int square, Color by, long occupiedLo, long occupiedHi) {
+		Color victim = (by == Color.BLACK ? Color.WHITE : Color.BLACK);
+		// a pawn attacks the tile if the tile would attack the pawn's tile as a pawn of the other color
+		if ((leapers.pawnDiagonalLo(victim, square) & board.getPiecesLo(PieceType.PAWN, by)) != 0
+				|| (leapers.pawnDiagonalHi(victim, square) & board.getPiecesHi(PieceType.PAWN, by)) != 0) {
+			return true;
+		}
+		int behind = square / files - (by == Color.BLACK ? -1 : 1);
+		if (behind >= 0 && behind < ranks) {
+			int berolina = behind * files + square % files;
+			if (WideBitboard.contains(board.getPiecesLo(PieceType.BEROLINA_PAWN, by), board.getPiecesHi(PieceType.BEROLINA_PAWN, by), berolina)) {
+				return true;
+			}
+		}
+		long jumpersLo = board.getPiecesLo(PieceType.KNIGHT, by) | board.getPiecesLo(PieceType.PRINCESS, by);
+		long jumpersHi = board.getPiecesHi(PieceType.KNIGHT, by) | board.getPiecesHi(PieceType.PRINCESS, by);
+		if ((leapers.knightLo(square) & jumpersLo) != 0 || (leapers.knightHi(square) & jumpersHi) != 0) {
+			return true;
+		}
+		if ((leapers.kingLo(square) & board.getPiecesLo(PieceType.KING, by)) != 0
+				|| (leapers.kingHi(square) & board.getPiecesHi(PieceType.KING, by)) != 0) {
+			return true;
+		}
+		long orthogonalLo = board.getPiecesLo(PieceType.ROOK, by) | board.getPiecesLo(PieceType.QUEEN, by);
+		long orthogonalHi = board.getPiecesHi(PieceType.ROOK, by) | board.getPiecesHi(PieceType.QUEEN, by);
+		if ((orthogonalLo | orthogonalHi) != 0) {
+			int index = sliders.rookIndex(square, occupiedLo, occupiedHi);
+			if ((sliders.attacksLo(index) & orthogonalLo) != 0 || (sliders.attacksHi(index) & orthogonalHi) != 0) {
+				return true;
+			}
+		}
+		long diagonalLo = board.getPiecesLo(PieceType.BISHOP, by) | board.getPiecesLo(PieceType.QUEEN, by)
+				| board.getPiecesLo(PieceType.PRINCESS, by);
+		long diagonalHi = board.getPiecesHi(PieceType.BISHOP, by) | board.getPiecesHi(PieceType.QUEEN, by)
+				| board.getPiecesHi(PieceType.PRINCESS, by);
+		if ((diagonalLo | diagonalHi) != 0) {
+			int index = sliders.bishopIndex(square, occupiedLo, occupiedHi);
+			if ((sliders.attacksLo(index) & diagonalLo) != 0 || (sliders.attacksHi(index) & diagonalHi) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find the enemy pieces giving check and the player's pieces pinned to the king, and set the evasion
+	 * and pin masks the other moves are filtered with.
+	 *
+	 * @param color the player to move.
+	 * @param enemy the other player.
+	 * @param king the bit index of the player's king, -1 if it is not on the board.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 */
+	private void findChecksAndPins(Color color, Color enemy, int king, long occupiedLo, long occupiedHi) {
+		checkers = 0;
+		evasionLo = boardLo;
+		evasionHi = boardHi;
+		pinnedLo = 0;
+		pinnedHi = 0;
+		this.king = king;
+		// without a king on the board nothing can be pinned or checked
+		if (king < 0) {
+			return;
+		}
+		long orthogonalLo = board.getPiecesLo(PieceType.ROOK, enemy) | board.getPiecesLo(PieceType.QUEEN, enemy);
+		long orthogonalHi = board.getPiecesHi(PieceType.ROOK, enemy) | board.getPiecesHi(PieceType.QUEEN, enemy);
+		long diagonalLo = board.getPiecesLo(PieceType.BISHOP, enemy) | board.getPiecesLo(PieceType.QUEEN, enemy)
+				| board.getPiecesLo(PieceType.PRINCESS, enemy);
+		long diagonalHi = board.getPiecesHi(PieceType.BISHOP, enemy) | board.getPiecesHi(PieceType.QUEEN, enemy)
+				| board.getPiecesHi(PieceType.PRINCESS, enemy);
+		findSliderChecksAndPins(true, king, orthogonalLo, orthogonalHi, color, occupiedLo, occupiedHi);
+		findSliderChecksAndPins(false, king, diagonalLo, diagonalHi, color, occupiedLo, occupiedHi);
+		// the pieces that check without sliding can only be captured
+		long checkLo = leapers.knightLo(king) & (board.getPiecesLo(PieceType.KNIGHT, enemy) | board.getPiecesLo(PieceType.PRINCESS, enemy));
+		long checkHi = leapers.knightHi(king) & (board.getPiecesHi(PieceType.KNIGHT, enemy) | board.getPiecesHi(PieceType.PRINCESS, enemy));
+		checkLo |= leapers.pawnDiagonalLo(color, king) & board.getPiecesLo(PieceType.PAWN, enemy);
+		checkHi |= leapers.pawnDiagonalHi(color, king) & board.getPiecesHi(PieceType.PAWN, enemy);
+		checkLo |= leapers.kingLo(king) & board.getPiecesLo(PieceType.KING, enemy);
+		checkHi |= leapers.kingHi(king) & board.getPiecesHi(PieceType.KING, enemy);
+		int ahead = king / files + (color == Color.BLACK ? -1 : 1);
+		if (ahead >= 0 && ahead < ranks) {
+			int square = ahead * files + king % files;
+			checkLo |= WideBitboard.bitLo(square) & board.getPiecesLo(PieceType.BEROLINA_PAWN, enemy);
+			checkHi |= WideBitboard.bitHi(square) & board.getPiecesHi(PieceType.BEROLINA_PAWN, enemy);
+		}
+		if ((checkLo | checkHi) != 0) {
+			addCheck(WideBitboard.count(checkLo, checkHi), checkLo, checkHi);
+		}
+	}
+
+	/**
+	 * Find the checks and pins along one kind of line through the king. An enemy slider moving along such
+	 * lines is a checker if nothing stands between it and the king, or pins the piece between them if that
+	 * is the only piece there and belongs to the player.
+	 *
+	 * @param orthogonal true for ranks and files, false for diagonals.
+	 * @param king the bit index of the player's king.
+	 * @param snipersLo lo word of the enemy pieces sliding along these lines.
+	 * @param snipersHi hi word of the enemy pieces sliding along these lines.
+	 * @param color the player to move.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 */
+	private void findSliderChecksAndPins(boolean orthogonal, int king, long snipersLo, long snipersHi, Color color,
+			long occupiedLo, long occupiedHi) {
+		// the lines from the king across an empty board
+		int index = lineIndex(orthogonal, king, 0, 0);
+		snipersLo &= sliders.attacksLo(index);
+		snipersHi &= sliders.attacksHi(index);
+		while ((snipersLo | snipersHi) != 0) {
+			int sniper = WideBitboard.lowest(snipersLo, snipersHi);
+			snipersLo &= ~WideBitboard.bitLo(sniper);
+			snipersHi &= ~WideBitboard.bitHi(sniper);
+			long betweenLo = lines.betweenLo(king, sniper);
+			long betweenHi = lines.betweenHi(king, sniper);
+			long blockersLo = betweenLo & occupiedLo;
+			long blockersHi = betweenHi & occupiedHi;
+			int blockers = WideBitboard.count(blockersLo, blockersHi);
+			if (blockers == 0) {
+				addCheck(1, betweenLo | WideBitboard.bitLo(sniper), betweenHi | WideBitboard.bitHi(sniper));
+			} else if (blockers == 1 && ((blockersLo & board.getPiecesLo(color)) | (blockersHi & board.getPiecesHi(color))) != 0) {
+				pinnedLo |= blockersLo;
+				pinnedHi |= blockersHi;
+			}
+		}
+	}
+
+	/**
+	 * Record checkers and narrow the tiles a non-king move may land on to answer them.
+	 *
+	 * @param count the number of checkers.
+	 * @param lineLo lo word of the checkers' tiles and the tiles a move could block on.
+	 * @param lineHi hi word of the same tiles.
+	 */
+	private void addCheck(int count, long lineLo, long lineHi) {
+		checkers += count;
+		evasionLo &= lineLo;
+		evasionHi &= lineHi;
+	}
+
+	/**
+	 * Add the king's steps onto tiles no enemy piece attacks. The king is taken off the board while testing,
+	 * so a slider checking along a line still attacks the tile behind the king.
+	 */
+	private void addKingMoves(Color enemy, int king, long occupiedLo, long occupiedHi, long targetLo, long targetHi, MoveList moves) {
+		long withoutKingLo = occupiedLo & ~WideBitboard.bitLo(king);
+		long withoutKingHi = occupiedHi & ~WideBitboard.bitHi(king);
+		targetLo &= leapers.kingLo(king);
+		targetHi &= leapers.kingHi(king);
+		while ((targetLo | targetHi) != 0) {
+			int to = WideBitboard.lowest(targetLo, targetHi);
+			if (!isAttacked(to, enemy, withoutKingLo, withoutKingHi)) {
+				moves.add(PackedMove.of(king, to, PieceType.KING, board.getType(to), 0));
+			}
+			targetLo &= ~WideBitboard.bitLo(to);
+			targetHi &= ~WideBitboard.bitHi(to);
+		}
+	}
+
+	/**
+	 * Add the moves of the player's pawns: one step forward onto an empty tile, two on their first move
+	 * if both are empty, and captures on the forward diagonals.
+	 */
+	private void addPawnMoves(Color color, long occupiedLo, long occupiedHi, long targetLo, long targetHi, MoveList moves) {
+		int step = (color == Color.BLACK ? -files : files);
+		long enemyLo = board.getPiecesLo(color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		long enemyHi = board.getPiecesHi(color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		long fromLo = board.getPiecesLo(PieceType.PAWN, color);
+		long fromHi = board.getPiecesHi(PieceType.PAWN, color);
+		while ((fromLo | fromHi) != 0) {
+			int from = WideBitboard.lowest(fromLo, fromHi);
+			fromLo &= ~WideBitboard.bitLo(from);
+			fromHi &= ~WideBitboard.bitHi(from);
+			int forward = from + step;
+			if (forward < 0 || forward >= ranks * files) {
+				continue;
+			}
+			if (!WideBitboard.contains(occupiedLo, occupiedHi, forward)) {
+				addMoves(from, PieceType.PAWN, WideBitboard.bitLo(forward) & targetLo, WideBitboard.bitHi(forward) & targetHi, 0, moves);
+				int doubleForward = forward + step;
+				if (WideBitboard.contains(board.getUnmovedLo(), board.getUnmovedHi(), from) && doubleForward >= 0
+						&& doubleForward < ranks * files && !WideBitboard.contains(occupiedLo, occupiedHi, doubleForward)) {
+					addMoves(from, PieceType.PAWN, WideBitboard.bitLo(doubleForward) & targetLo,
+							WideBitboard.bitHi(doubleForward) & targetHi, PackedMove.DOUBLE_STEP, moves);
+				}
+			}
+			addMoves(from, PieceType.PAWN, leapers.pawnDiagonalLo(color, from) & enemyLo & targetLo,
+					leapers.pawnDiagonalHi(color, from) & enemyHi & targetHi, 0, moves);
+		}
+	}
+
+	/**
+	 * Add the moves of the player's BerolinaPawns: captures straight forward, one step diagonally forward
+	 * onto an empty tile, and two on their first move if both are empty.
+	 */
+	private void addBerolinaPawnMoves(Color color, long occupiedLo, long occupiedHi, long targetLo, long targetHi, MoveList moves) {
+		int dir = (color == Color.BLACK ? -1 : 1);
+		long enemyLo = board.getPiecesLo(color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		long enemyHi = board.getPiecesHi(color == Color.BLACK ? Color.WHITE : Color.BLACK);
+		long fromLo = board.getPiecesLo(PieceType.BEROLINA_PAWN, color);
+		long fromHi = board.getPiecesHi(PieceType.BEROLINA_PAWN, color);
+		while ((fromLo | fromHi) != 0) {
+			int from = WideBitboard.lowest(fromLo, fromHi);
+			fromLo &= ~WideBitboard.bitLo(from);
+			fromHi &= ~WideBitboard.bitHi(from);
+			int rank = from / files;
+			int file = from % files;
+			if (rank + dir < 0 || rank + dir >= ranks) {
+				continue;
+			}
+			int forward = from + dir * files;
+			addMoves(from, PieceType.BEROLINA_PAWN, WideBitboard.bitLo(forward) & enemyLo & targetLo,
+					WideBitboard.bitHi(forward) & enemyHi & targetHi, 0, moves);
+			boolean firstMove = WideBitboard.contains(board.getUnmovedLo(), board.getUnmovedHi(), from);
+			for (int side = -1; side <= 1; side += 2) {
+				if (file + side < 0 || file + side >= files) {
+					continue;
+				}
+				int diagonal = forward + side;
+				if (WideBitboard.contains(occupiedLo, occupiedHi, diagonal)) {
+					continue;
+				}
+				addMoves(from, PieceType.BEROLINA_PAWN, WideBitboard.bitLo(diagonal) & targetLo, WideBitboard.bitHi(diagonal) & targetHi, 0, moves);
+				if (firstMove && rank + 2 * dir >= 0 && rank + 2 * dir < ranks && file + 2 * side >= 0 && file + 2 * side < files) {
+					int doubleDiagonal = diagonal + dir * files + side;
+					if (!WideBitboard.contains(occupiedLo, occupiedHi, doubleDiagonal)) {
+						addMoves(from, PieceType.BEROLINA_PAWN, WideBitboard.bitLo(doubleDiagonal) & targetLo,
+								WideBitboard.bitHi(doubleDiagonal) & targetHi, PackedMove.DOUBLE_STEP, moves);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the moves of the player's pieces of one sliding type.
+	 *
+	 * @param type the type of piece.
+	 * @param orthogonal true if the type slides along ranks and files.
+	 * @param diagonal true if the type slides along diagonals.
+	 * @param jumps true if the type also jumps like a knight (Princess).
+	 */
+	private void addSliderMoves(PieceType type, Color color, boolean orthogonal, boolean diagonal, boolean jumps,
+			long occupiedLo, long occupiedHi, long targetLo, long targetHi, MoveList moves) {
+		long fromLo = board.getPiecesLo(type, color);
+		long fromHi = board.getPiecesHi(type, color);
+		while ((fromLo | fromHi) != 0) {
+			int from = WideBitboard.lowest(fromLo, fromHi);
+			fromLo &= ~WideBitboard.bitLo(from);
+			fromHi &= ~WideBitboard.bitHi(from);
+			long attacksLo = 0;
+			long attacksHi = 0;
+			if (orthogonal) {
+				int index = sliders.rookIndex(from, occupiedLo, occupiedHi);
+				attacksLo |= sliders.attacksLo(index);
+				attacksHi |= sliders.attacksHi(index);
+			}
+			if (diagonal) {
+				int index = sliders.bishopIndex(from, occupiedLo, occupiedHi);
+				attacksLo |= sliders.attacksLo(index);
+				attacksHi |= sliders.attacksHi(index);
+			}
+			if (jumps) {
+				attacksLo |= leapers.knightLo(from);
+				attacksHi |= leapers.knightHi(from);
+			}
+			addMoves(from, type, attacksLo & targetLo, attacksHi & targetHi, 0, moves);
+		}
+	}
+
+	/**
+	 * Add a move from one tile to each target tile, keeping a pinned piece on the line through it and its
+	 * king. The line runs on past the pinner and behind the king, but those tiles cannot be reached.
+	 *
+	 * @param from the bit index of the moving piece's tile.
+	 * @param type the type of the moving piece.
+	 * @param targetLo lo word of the destination tiles, already masked for own pieces and check.
+	 * @param targetHi hi word of the destination tiles.
+	 * @param flags PackedMove flags for every move added.
+	 * @param moves the list to add to.
+	 */
+	private void addMoves(int from, PieceType type, long targetLo, long targetHi, int flags, MoveList moves) {
+		if (WideBitboard.contains(pinnedLo, pinnedHi, from)) {
+			targetLo &= lines.lineLo(king, from);
+			targetHi &= lines.lineHi(king, from);
+		}
+		while ((targetLo | targetHi) != 0) {
+			int to = WideBitboard.lowest(targetLo, targetHi);
+			moves.add(PackedMove.of(from, to, type, board.getType(to), flags));
+			targetLo &= ~WideBitboard.bitLo(to);
+			targetHi &= ~WideBitboard.bitHi(to);
+		}
+	}
+
+	/**
+	 * Get the table index of the attacks along one kind of line.
+	 *
+	 * @param orthogonal true for ranks and files, false for diagonals.
+	 * @param square the bit index of the tile the lines start from.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 * @return the index to pass to SliderAttacks.attacksLo / attacksHi.
+	 */
+	private int lineIndex(boolean orthogonal, int square, long occupiedLo, long occupiedHi) {
+		return (orthogonal ? sliders.rookIndex(square, occupiedLo, occupiedHi) : sliders.bishopIndex(square, occupiedLo, occupiedHi));
+	}
+}
@@ -0,0 +1,89 @@
+package model.game;
+
+import java.util.Arrays;
+
+/**
+ * MoveList --- a reusable buffer of packed moves (see PackedMove). A search keeps one list per ply and
+ * clears it before each generation, so filling it allocates nothing once it has reached its largest size.
+ * @author Lance
+ *
+ */
+public class MoveList {
+
+	public static final int DEFAULT_CAPACITY = 256; // more moves than any position of the supported setups has
+
+	private int[] moves; // the moves, valid up to size
+	private int size; // number of moves in the list
+
+	/**
+	 * Constructor. Creates an empty list of the default capacity.
+	 */
+	public MoveList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor. Creates an empty list.
+	 *
+	 * @param capacity the number of moves the list holds before growing.
+	 */
+	public MoveList(int capacity) {
+		this.moves = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Add a move to the end of the list, growing it if it is full.
+	 *
+	 * @param move a packed move.
+	 */
+	public void add(int move) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, 2 * size);
+		}
+		moves[size++] = move;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param index the position of the move, from 0 to size() - 1.
+	 * @return the packed move at that position.
+	 */
+	public int get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " of a list of " + size + " moves");
+		}
+		return moves[index];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of moves in the list.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Swap two moves, e.g. to bring the move to search next to the front.
+	 *
+	 * @param i the position of one move, from 0 to size() - 1.
+	 * @param j the position of the other move, from 0 to size() - 1.
+	 */
+	public void swap(int i, int j) {
+		if (i >= size || j >= size) {
+			throw new IndexOutOfBoundsException("Index " + Math.max(i, j) + " of a list of " + size + " moves");
+		}
+		int move = moves[i];
+		moves[i] = moves[j];
+		moves[j] = move;
+	}
+
+	/**
+	 * Empty the list, keeping its buffer.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,178 @@
+package model.game;
+
+import model.pieces.PieceType;
+
+/**
+ * PackedMove --- encodes a move as a single int so that moves can be made, stored and passed around
+ * without creating objects. Tiles are given by their bit index (rank * files + file), so boards of up to
+ * 256 tiles are supported.
+ *
+ * Bits 0-7 hold the destination tile and bits 8-15 the origin tile. Moves from a generator also record
+ * the moving type (bits 16-19) and captured type (bits 20-23), each as PieceType.ordinal() + 1 so that 0
+ * means not recorded / no capture, and flags from bit 24. Only the tiles are needed to make a move.
+ * @author Lance
+ *
+ */
+public final class PackedMove {
+
+	public static final int MAX_TILES = 256; // largest board (ranks * files) a move can be encoded for
+	public static final int DOUBLE_STEP = 1 << 24; // flag: a Pawn or BerolinaPawn's two-tile first move
+
+	private static final int SQUARE_BITS = 8; // bits used for each tile index
+	private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+	private static final int FROM_SHIFT = SQUARE_BITS; // the destination tile is held in the lowest bits
+	private static final int PIECE_SHIFT = 16; // moving type, ordinal + 1
+	private static final int CAPTURED_SHIFT = 20; // captured type, ordinal + 1
+	private static final int TYPE_MASK = 0xF;
+	private static final PieceType[] TYPES = PieceType.values(); // values() copies the array on every call
+
+	/**
+	 * Constructor. Not used, this class only holds static helpers.
+	 */
+	private PackedMove() {
+	}
+
+	/**
+	 * Encode a move.
+	 *
+	 * @param from the bit index of the tile the piece moves from.
+	 * @param to the bit index of the tile the piece moves to.
+	 * @return the packed move.
+	 */
+	public static int of(int from, int to) {
+		return (from << FROM_SHIFT) | to;
+	}
+
+	/**
+	 * Encode a move along with the pieces involved.
+	 *
+	 * @param from the bit index of the tile the piece moves from.
+	 * @param to the bit index of the tile the piece moves to.
+	 * @param piece the type of the moving piece.
+	 * @param captured the type of the piece on the destination tile, null if it is empty.
+	 * @param flags 0 or DOUBLE_STEP.
+	 * @return the packed move.
+	 */
+	public static int of(int from, int to, PieceType piece, PieceType captured, int flags) {
+		return of(from, to) | ((piece.ordinal() + 1) << PIECE_SHIFT)
+				| ((captured == null ? 0 : captured.ordinal() + 1) << CAPTURED_SHIFT) | flags;
+	}
+
+	/**
+	 * Encode a move along with the pieces involved, given by their type codes (see PieceCode).
+	 *
+	 * @param from the bit index of the tile the piece moves from.
+	 * @param to the bit index of the tile the piece moves to.
+	 * @param piece the type bits of the moving piece's code.
+	 * @param captured the type bits of the code of the destination tile, 0 if it is empty.
+	 * @param flags 0 or DOUBLE_STEP.
+	 * @return the packed move.
+	 */
+	public static int ofCodes(int from, int to, int piece, int captured, int flags) {
+		return of(from, to) | (piece << PIECE_SHIFT) | (captured << CAPTURED_SHIFT) | flags;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param move a packed move.
+	 * @return the bit index of the tile the piece moves from.
+	 */
+	public static int from(int move) {
+		return (move >>> FROM_SHIFT) & SQUARE_MASK;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param move a packed move.
+	 * @return the bit index of the tile the piece moves to.
+	 */
+	public static int to(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param move a packed move.
+	 * @return the type of the moving piece, null if the move does not record it.
+	 */
+	public static PieceType piece(int move) {
+		int code = (move >>> PIECE_SHIFT) & TYPE_MASK;
+		return (code == 0 ? null : TYPES[code - 1]);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param move a packed move.
+	 * @return the type of the captured piece, null if the move is not a capture or does not record it.
+	 */
+	public static PieceType captured(int move) {
+		int code = (move >>> CAPTURED_SHIFT) & TYPE_MASK;
+		return (code == 0 ? null : TYPES[code - 1]);
+	}
+
+	/**
+	 * Getter. Like piece, without looking up the PieceType.
+	 *
+	 * @param move a packed move.
+	 * @return the type bits of the moving piece's code (see PieceCode), 0 if the move does not record it.
+	 */
+	public static int pieceCode(int move) {
+		return (move >>> PIECE_SHIFT) & TYPE_MASK;
+	}
+
+	/**
+	 * Getter. Like captured, without looking up the PieceType.
+	 *
+	 * @param move a packed move.
+	 * @return the type bits of the captured piece's code (see PieceCode), 0 if the move is not a capture.
+	 */
+	public static int capturedCode(int move) {
+		return (move >>> CAPTURED_SHIFT) & TYPE_MASK;
+	}
+
+	/**
+	 * Check if a move captures a piece.
+	 *
+	 * @param move a packed move.
+	 * @return true if the move records a captured piece, false otherwise.
+	 */
+	public static boolean isCapture(int move) {
+		return ((move >>> CAPTURED_SHIFT) & TYPE_MASK) != 0;
+	}
+
+	/**
+	 * Check if a move is a pawn's two-tile first move.
+	 *
+	 * @param move a packed move.
+	 * @return true if the move has the DOUBLE_STEP flag, false otherwise.
+	 */
+	public static boolean isDoubleStep(int move) {
+		return (move & DOUBLE_STEP) != 0;
+	}
+
+	/**
+	 * Write a move in coordinate notation, e.g. "e2e4". Files are lettered from 'a' and ranks numbered from 1.
+	 *
+	 * @param move a packed move.
+	 * @param files the number of files (columns) of the board.
+	 * @return the move as text.
+	 */
+	public static String toString(int move, int files) {
+		return squareName(from(move), files) + squareName(to(move), files);
+	}
+
+	/**
+	 * Name a tile in coordinate notation, e.g. "e2".
+	 *
+	 * @param square the bit index of the tile.
+	 * @param files the number of files (columns) of the board.
+	 * @return the name of the tile.
+	 */
+	private static String squareName(int square, int files) {
+		return (char) ('a' + square % files) + Integer.toString(square / files + 1);
+	}
+}
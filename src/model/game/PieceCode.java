@@ -0,0 +1,93 @@
+package model.game;
+
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.player.Color;
+
+/**
+ * PieceCode --- encodes the occupant of a board cell as a single byte, so move generation can switch on
+ * the type of piece in a tight loop instead of calling through the Piece classes.
+ *
+ * Bits 0-3 hold PieceType.ordinal() + 1 (the same numbering PackedMove uses), so 0 is an empty tile.
+ * Bit 4 is set for black pieces and bit 5 for a Pawn or BerolinaPawn that has not moved yet. Cells on the
+ * border around the board hold BORDER, which has every bit set.
+ * @author Lance
+ *
+ */
+public final class PieceCode {
+
+	public static final byte EMPTY = 0; // code of an empty tile
+	public static final byte BORDER = -1; // code of a cell on the border around the board
+	public static final int TYPE_MASK = 0xF; // bits holding the type, ordinal + 1
+	public static final int BLACK = 1 << 4; // set for a black piece
+	public static final int UNMOVED = 1 << 5; // set for a Pawn or BerolinaPawn that has not moved yet
+
+	// the type bits of each kind of piece, PieceType.ordinal() + 1. Literals so they can label switch cases.
+	public static final int PAWN = 1;
+	public static final int BEROLINA_PAWN = 2;
+	public static final int KNIGHT = 3;
+	public static final int BISHOP = 4;
+	public static final int ROOK = 5;
+	public static final int QUEEN = 6;
+	public static final int PRINCESS = 7;
+	public static final int KING = 8;
+	public static final int PIECE_MASK = TYPE_MASK | BLACK; // bits holding the type and color
+
+	/**
+	 * Constructor. Not used, this class only holds static helpers.
+	 */
+	private PieceCode() {
+	}
+
+	/**
+	 * Encode the occupant of a tile.
+	 *
+	 * @param piece the piece on the tile, null if it is empty.
+	 * @return the code of the piece.
+	 */
+	public static byte of(Piece piece) {
+		if (piece == null) {
+			return EMPTY;
+		}
+		int code = piece.getType().ordinal() + 1;
+		if (piece.getColor() == Color.BLACK) {
+			code |= BLACK;
+		}
+		// only pawns care whether they have moved before
+		if (piece instanceof Pawn && piece.getFirstMove()) {
+			code |= UNMOVED;
+		}
+		return (byte) code;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param code the code of a cell.
+	 * @return the bits of the code holding the type, 0 for an empty tile.
+	 */
+	public static int type(int code) {
+		return code & TYPE_MASK;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param color a player.
+	 * @return the color bits of the player's pieces.
+	 */
+	public static int colorBits(Color color) {
+		return (color == Color.BLACK ? BLACK : 0);
+	}
+
+	/**
+	 * Check if a cell holds a piece of a player.
+	 *
+	 * @param code the code of a cell.
+	 * @param color a player.
+	 * @return true if the cell is a tile holding one of the player's pieces, false otherwise.
+	 */
+	public static boolean isPieceOf(int code, Color color) {
+		return code > 0 && (code & BLACK) == colorBits(color);
+	}
+}
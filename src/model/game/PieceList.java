@@ -0,0 +1,204 @@
+package model.game;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * PieceList --- the pieces of one player, kept in a dense array per piece type. Each piece remembers its
+ * position in its array, so a captured piece is removed in O(1) by moving the last piece of its type into
+ * its place, and put back in O(1) when the capture is undone. Loops over the list only see the pieces
+ * still in play, grouped by type.
+ *
+ * A piece can be in one PieceList at a time.
+ * @author Lance
+ *
+ */
+public class PieceList extends AbstractCollection<Piece> {
+
+	private static final int INITIAL_CAPACITY = 8; // pieces of one type held before that array grows
+	private static final PieceType[] TYPES = PieceType.values(); // values() copies the array on every call
+
+	private Piece[][] pieces; // the pieces of each type, indexed by PieceType.ordinal(), valid up to counts
+	private int[] counts; // number of pieces of each type
+	private int size; // number of pieces of all types
+	private int modifications; // number of adds and removes, so iterators can detect changes made around them
+
+	/**
+	 * Constructor. Creates an empty list.
+	 */
+	public PieceList() {
+		this.pieces = new Piece[TYPES.length][INITIAL_CAPACITY];
+		this.counts = new int[TYPES.length];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of pieces in the list.
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type a type of piece.
+	 * @return the number of pieces of that type in the list.
+	 */
+	public int size(PieceType type) {
+		return counts[type.ordinal()];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type a type of piece.
+	 * @param index the position of the piece among those of its type, from 0 to size(type) - 1.
+	 * @return the piece at that position.
+	 */
+	public Piece get(PieceType type, int index) {
+		if (index >= counts[type.ordinal()]) {
+			throw new IndexOutOfBoundsException("Index " + index + " of " + counts[type.ordinal()] + " pieces of type " + type);
+		}
+		return pieces[type.ordinal()][index];
+	}
+
+	/**
+	 * Add a piece to the end of the pieces of its type.
+	 *
+	 * @param piece the piece to add.
+	 * @return true if the piece was added, false if it was already in the list.
+	 */
+	@Override
+	public boolean add(Piece piece) {
+		if (contains(piece)) {
+			return false;
+		}
+		int type = piece.getType().ordinal();
+		if (counts[type] == pieces[type].length) {
+			pieces[type] = Arrays.copyOf(pieces[type], 2 * counts[type]);
+		}
+		piece.setListIndex(counts[type]);
+		pieces[type][counts[type]++] = piece;
+		size++;
+		modifications++;
+		return true;
+	}
+
+	/**
+	 * Check if a piece is in the list.
+	 *
+	 * @param o the piece to look for.
+	 * @return true if o is a piece in the list, false otherwise.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Piece)) {
+			return false;
+		}
+		Piece piece = (Piece) o;
+		int type = piece.getType().ordinal();
+		int index = piece.getListIndex();
+		return index >= 0 && index < counts[type] && pieces[type][index] == piece;
+	}
+
+	/**
+	 * Remove a piece, moving the last piece of its type into its place.
+	 *
+	 * @param o the piece to remove.
+	 * @return true if the piece was in the list, false otherwise.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		Piece piece = (Piece) o;
+		int type = piece.getType().ordinal();
+		int index = piece.getListIndex();
+		Piece last = pieces[type][--counts[type]];
+		pieces[type][index] = last;
+		last.setListIndex(index);
+		pieces[type][counts[type]] = null;
+		piece.setListIndex(-1);
+		size--;
+		modifications++;
+		return true;
+	}
+
+	/**
+	 * Empty the list.
+	 */
+	@Override
+	public void clear() {
+		for (int type = 0; type < TYPES.length; type++) {
+			for (int index = 0; index < counts[type]; index++) {
+				pieces[type][index].setListIndex(-1);
+				pieces[type][index] = null;
+			}
+			counts[type] = 0;
+		}
+		size = 0;
+		modifications++;
+	}
+
+	/**
+	 * Walk the pieces type by type, in the order of PieceType. Adding or removing pieces while walking,
+	 * other than through the iterator, is not allowed.
+	 *
+	 * @return an iterator over the pieces.
+	 */
+	@Override
+	public Iterator<Piece> iterator() {
+		return new Iterator<Piece>() {
+			private int type = 0; // the type of the next piece
+			private int index = 0; // the position of the next piece among its type
+			private Piece last = null; // the piece last returned, null if none or removed
+			private int expectedModifications = modifications; // changes the iterator knows about
+
+			@Override
+			public boolean hasNext() {
+				while (type < TYPES.length && index >= counts[type]) {
+					type++;
+					index = 0;
+				}
+				return type < TYPES.length;
+			}
+
+			@Override
+			public Piece next() {
+				if (modifications != expectedModifications) {
+					throw new ConcurrentModificationException();
+				}
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = pieces[type][index++];
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				if (modifications != expectedModifications) {
+					throw new ConcurrentModificationException();
+				}
+				// the last piece of the type moves into the removed piece's place, so visit that place again
+				PieceList.this.remove(last);
+				index--;
+				last = null;
+				expectedModifications = modifications;
+			}
+		};
+	}
+}
@@ -0,0 +1,427 @@
+package model.game;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * SliderAttacks --- magic bitboard lookup tables for pieces that slide along ranks, files (Rook, Queen) or
+ * diagonals (Bishop, Queen, Princess). For each tile the occupancy of the tiles that can block a slider
+ * (its "relevant" tiles) is hashed with a magic multiplier into a table holding the precomputed attack set,
+ * so the tiles a slider reaches come from one lookup instead of a walk along each ray.
+ *
+ * Bitboards are two longs wide (see WideBitboard), so the hash multiplies each word by its own magic and
+ * combines the products: index = ((lo &amp; maskLo) * magicLo ^ (hi &amp; maskHi) * magicHi) &gt;&gt;&gt; shift.
+ * On boards of up to 64 tiles maskHi is 0 and this is the usual 64-bit magic hash.
+ *
+ * Tables are built once per board size and shared. Magics are read from magics-{ranks}x{files}.txt on the
+ * classpath, or from the resources folder of the working directory, if present; otherwise they are found at
+ * startup (run main to regenerate the resource). The search is given a fixed amount of work per board
+ * size; larger boards whose magics cannot be found within it get no tables, and are played without
+ * bitboards (see Board).
+ * @author Lance
+ *
+ */
+public class SliderAttacks {
+
+	private static final HashMap<String, SliderAttacks> TABLES = new HashMap<>(); // tables built so far, by board size
+	private static final int SAVED_FIELDS = 6; // numbers saved per tile: rook lo, hi, bits then bishop lo, hi, bits
+	private static final int ATTEMPTS_PER_SIZE = 100000; // random multipliers tried before allowing another index bit
+	private static final int MAX_INDEX_BITS = 20; // largest table (2^bits entries) a single magic may use
+	private static final long MAX_HASHES = 100000000; // occupancies hashed for one board size before giving up on its tables
+
+	private final int ranks; // number of ranks (rows) the tables are for
+	private final int files; // number of files (columns) the tables are for
+	private final Magic[] rookMagics; // magic for rank/file attacks from each tile
+	private final Magic[] bishopMagics; // magic for diagonal attacks from each tile
+	private long[] attacks; // attack sets of every magic, two longs (lo, hi) per entry, null if no magics were found
+	private int attempts; // number of multipliers tried so far while building the tables
+	private long hashes; // number of occupancies hashed so far while trying multipliers
+
+	/**
+	 * Get the shared tables for a board size, building them the first time they are needed.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the slider attack tables for boards of that size, null if no magics could be found for it.
+	 */
+	public static synchronized SliderAttacks forBoard(int ranks, int files) {
+		String key = ranks + "x" + files;
+		if (!TABLES.containsKey(key)) {
+			SliderAttacks tables = new SliderAttacks(ranks, files);
+			TABLES.put(key, (tables.attacks != null ? tables : null));
+		}
+		return TABLES.get(key);
+	}
+
+	/**
+	 * Constructor. Builds the tables, loading the magics from resources if possible. If the magics cannot be
+	 * found within MAX_HASHES, the attacks table is left null.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 */
+	private SliderAttacks(int ranks, int files) {
+		if (ranks * files > BitboardBoard.MAX_TILES) {
+			throw new IllegalArgumentException("A " + ranks + "x" + files + " board does not fit in a 128-bit bitboard");
+		}
+		this.ranks = ranks;
+		this.files = files;
+		this.rookMagics = new Magic[ranks * files];
+		this.bishopMagics = new Magic[ranks * files];
+		long[] savedMagics = loadMagics();
+		Random random = new Random(ranks * 31 + files);
+		int tableSize = 0;
+		for (int square = 0; square < ranks * files; square++) {
+			int saved = SAVED_FIELDS * square;
+			rookMagics[square] = new Magic(square, Directions.ORTHOGONAL);
+			bishopMagics[square] = new Magic(square, Directions.DIAGONAL);
+			boolean found = (savedMagics != null && rookMagics[square].tryMagic(savedMagics[saved], savedMagics[saved + 1], (int) savedMagics[saved + 2]))
+					|| rookMagics[square].findMagic(random);
+			found = found && ((savedMagics != null && bishopMagics[square].tryMagic(savedMagics[saved + 3], savedMagics[saved + 4], (int) savedMagics[saved + 5]))
+					|| bishopMagics[square].findMagic(random));
+			if (!found) {
+				System.err.println("No magics found for " + ranks + "x" + files + " boards, they are played without bitboards");
+				return;
+			}
+			tableSize += rookMagics[square].reserve(tableSize);
+			tableSize += bishopMagics[square].reserve(tableSize);
+		}
+		// every magic is known, so the attack sets can be laid out in one shared table
+		attacks = new long[2 * tableSize];
+		for (int square = 0; square < ranks * files; square++) {
+			rookMagics[square].fill();
+			bishopMagics[square].fill();
+		}
+	}
+
+	/**
+	 * Get the table index of the rank/file attacks from a tile (for Rook and Queen).
+	 *
+	 * @param square the bit index of the slider's tile.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 * @return the index to pass to attacksLo / attacksHi.
+	 */
+	public int rookIndex(int square, long occupiedLo, long occupiedHi) {
+		return index(rookMagics[square], occupiedLo, occupiedHi);
+	}
+
+	/**
+	 * Get the table index of the diagonal attacks from a tile (for Bishop, Queen and Princess).
+	 *
+	 * @param square the bit index of the slider's tile.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 * @return the index to pass to attacksLo / attacksHi.
+	 */
+	public int bishopIndex(int square, long occupiedLo, long occupiedHi) {
+		return index(bishopMagics[square], occupiedLo, occupiedHi);
+	}
+
+	/**
+	 * Get the lo word of an attack set. The set holds every tile along the rays up to and including
+	 * the first occupied tile, whatever its color.
+	 *
+	 * @param index an index from rookIndex or bishopIndex.
+	 * @return the lo word of the attacked tiles.
+	 */
+	public long attacksLo(int index) {
+		return attacks[2 * index];
+	}
+
+	/**
+	 * Get the hi word of an attack set.
+	 *
+	 * @param index an index from rookIndex or bishopIndex.
+	 * @return the hi word of the attacked tiles.
+	 */
+	public long attacksHi(int index) {
+		return attacks[2 * index + 1];
+	}
+
+	/**
+	 * Hash the relevant occupancy into a table index.
+	 *
+	 * @param magic the magic of the slider and tile.
+	 * @param occupiedLo lo word of the occupied tiles.
+	 * @param occupiedHi hi word of the occupied tiles.
+	 * @return the index of the attack set in the table.
+	 */
+	private static int index(Magic magic, long occupiedLo, long occupiedHi) {
+		return magic.offset + hash(occupiedLo & magic.maskLo, occupiedHi & magic.maskHi, magic.magicLo, magic.magicHi, magic.shift);
+	}
+
+	/**
+	 * Hash an occupancy of relevant tiles with a pair of multipliers.
+	 *
+	 * @param relevantLo lo word of the occupied relevant tiles.
+	 * @param relevantHi hi word of the occupied relevant tiles.
+	 * @param magicLo the multiplier for the lo word.
+	 * @param magicHi the multiplier for the hi word.
+	 * @param shift 64 - number of index bits.
+	 * @return the hash, below 2^(64 - shift).
+	 */
+	private static int hash(long relevantLo, long relevantHi, long magicLo, long magicHi, int shift) {
+		long product = (relevantLo * magicLo) ^ (relevantHi * magicHi);
+		// a shift of 64 would be taken as 0 by Java; only a slider with no relevant tiles has one
+		return (shift == Long.SIZE ? 0 : (int) (product >>> shift));
+	}
+
+	/**
+	 * Magic --- the hashing parameters for the attacks of one kind of slider from one tile, and while the
+	 * tables are being built, every relevant occupancy with its attack set.
+	 */
+	private class Magic {
+		long maskLo; // lo word of the relevant (blocking) tiles
+		long maskHi; // hi word of the relevant (blocking) tiles
+		long magicLo; // multiplier for the lo word
+		long magicHi; // multiplier for the hi word
+		int shift; // 64 - number of index bits
+		int offset; // index of the first entry of this magic in the attacks table
+		private long[] occupancies; // each relevant occupancy as (lo, hi) pairs, dropped once the table is filled
+		private long[] occupancyAttacks; // the attack set of each relevant occupancy as (lo, hi) pairs
+		private int[] usedBy; // for each index, the attempt that last used it (avoids clearing between attempts)
+		private long[] usedFor; // for each index, the attack set (lo, hi) stored there by the current attempt
+
+		/**
+		 * Constructor. Computes the relevant tiles of a slider on a tile and the attacks for each of their occupancies.
+		 *
+		 * @param square the bit index of the slider's tile.
+		 * @param directions the (rank, file) steps of the slider.
+		 */
+		Magic(int square, int[][] directions) {
+			int rank = square / files;
+			int file = square % files;
+			for (int[] dir : directions) {
+				// the last tile of each ray never blocks anything behind it, so it is not relevant
+				int r = rank + dir[0];
+				int f = file + dir[1];
+				while (onBoard(r + dir[0], f + dir[1])) {
+					maskLo |= WideBitboard.bitLo(r * files + f);
+					maskHi |= WideBitboard.bitHi(r * files + f);
+					r += dir[0];
+					f += dir[1];
+				}
+			}
+			int bits = WideBitboard.count(maskLo, maskHi);
+			int[] relevant = new int[bits];
+			long lo = maskLo;
+			long hi = maskHi;
+			for (int i = 0; i < bits; i++) {
+				relevant[i] = WideBitboard.lowest(lo, hi);
+				lo &= ~WideBitboard.bitLo(relevant[i]);
+				hi &= ~WideBitboard.bitHi(relevant[i]);
+			}
+			occupancies = new long[2 << bits];
+			occupancyAttacks = new long[2 << bits];
+			for (int subset = 0; subset < (1 << bits); subset++) {
+				// the occupancy made of the relevant tiles picked by the bits of subset
+				long occupiedLo = 0;
+				long occupiedHi = 0;
+				for (int i = 0; i < bits; i++) {
+					if ((subset & (1 << i)) != 0) {
+						occupiedLo |= WideBitboard.bitLo(relevant[i]);
+						occupiedHi |= WideBitboard.bitHi(relevant[i]);
+					}
+				}
+				occupancies[2 * subset] = occupiedLo;
+				occupancies[2 * subset + 1] = occupiedHi;
+				for (int[] dir : directions) {
+					int r = rank + dir[0];
+					int f = file + dir[1];
+					while (onBoard(r, f)) {
+						int target = r * files + f;
+						occupancyAttacks[2 * subset] |= WideBitboard.bitLo(target);
+						occupancyAttacks[2 * subset + 1] |= WideBitboard.bitHi(target);
+						if (WideBitboard.contains(occupiedLo, occupiedHi, target)) {
+							break;
+						}
+						r += dir[0];
+						f += dir[1];
+					}
+				}
+			}
+			shift = Long.SIZE - bits;
+		}
+
+		/**
+		 * Try random sparse multipliers until a pair hashes every relevant occupancy without a harmful collision.
+		 * The two-word hash is harder to satisfy than a plain 64-bit magic, so after a number of failed attempts
+		 * one more index bit (twice the table space) is allowed, up to MAX_INDEX_BITS.
+		 *
+		 * @param random the source of candidate multipliers.
+		 * @return true if a magic was found, false if none fits in MAX_INDEX_BITS or the board size has used up
+		 * its MAX_HASHES.
+		 */
+		boolean findMagic(Random random) {
+			for (int bits = Long.SIZE - shift; bits <= MAX_INDEX_BITS; bits++) {
+				for (int attempt = 0; attempt < ATTEMPTS_PER_SIZE; attempt++) {
+					if (hashes >= MAX_HASHES) {
+						return false;
+					}
+					long candidateLo = random.nextLong() & random.nextLong() & random.nextLong();
+					long candidateHi = (maskHi == 0 ? 0 : random.nextLong() & random.nextLong() & random.nextLong());
+					if (tryMagic(candidateLo, candidateHi, bits)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Check whether a pair of multipliers works and, if so, keep them.
+		 *
+		 * @param candidateLo the multiplier for the lo word.
+		 * @param candidateHi the multiplier for the hi word.
+		 * @param bits the number of index bits.
+		 * @return true if no two occupancies with different attacks hash to the same index.
+		 */
+		boolean tryMagic(long candidateLo, long candidateHi, int bits) {
+			if (bits < WideBitboard.count(maskLo, maskHi) || bits > MAX_INDEX_BITS) {
+				return false;
+			}
+			int candidateShift = Long.SIZE - bits;
+			if (usedBy == null || usedBy.length < (1 << bits)) {
+				usedBy = new int[1 << bits];
+				usedFor = new long[2 << bits];
+			}
+			int attempt = ++attempts;
+			for (int i = 0; i < occupancies.length / 2; i++) {
+				hashes++;
+				int h = hash(occupancies[2 * i], occupancies[2 * i + 1], candidateLo, candidateHi, candidateShift);
+				if (usedBy[h] != attempt) {
+					usedBy[h] = attempt;
+					usedFor[2 * h] = occupancyAttacks[2 * i];
+					usedFor[2 * h + 1] = occupancyAttacks[2 * i + 1];
+				} else if (usedFor[2 * h] != occupancyAttacks[2 * i] || usedFor[2 * h + 1] != occupancyAttacks[2 * i + 1]) {
+					return false;
+				}
+			}
+			magicLo = candidateLo;
+			magicHi = candidateHi;
+			shift = candidateShift;
+			return true;
+		}
+
+		/**
+		 * Reserve this magic's part of the attacks table.
+		 *
+		 * @param firstFree the first free index in the table.
+		 * @return the number of entries reserved.
+		 */
+		int reserve(int firstFree) {
+			offset = firstFree;
+			return 1 << (Long.SIZE - shift);
+		}
+
+		/**
+		 * Write the attack set of every relevant occupancy into the table, then drop the build-time data.
+		 */
+		void fill() {
+			for (int i = 0; i < occupancies.length / 2; i++) {
+				int index = index(this, occupancies[2 * i], occupancies[2 * i + 1]);
+				attacks[2 * index] = occupancyAttacks[2 * i];
+				attacks[2 * index + 1] = occupancyAttacks[2 * i + 1];
+			}
+			occupancies = null;
+			occupancyAttacks = null;
+			usedBy = null;
+			usedFor = null;
+		}
+	}
+
+	/**
+	 * Check if (rank, file) is on the board.
+	 *
+	 * @param rank the rank to check.
+	 * @param file the file to check.
+	 * @return true if the position is on the board.
+	 */
+	private boolean onBoard(int rank, int file) {
+		return rank >= 0 && rank < ranks && file >= 0 && file < files;
+	}
+
+	/**
+	 * Read saved magics for this board size from magics-{ranks}x{files}.txt. The file has one line per tile:
+	 * the rook lo and hi multipliers and index bits, then the same for the bishop, in hex. A missing or
+	 * unreadable file is reported on System.err, since the magics must then be searched for.
+	 *
+	 * @return SAVED_FIELDS numbers per tile, or null if the resource is missing or unreadable.
+	 */
+	private long[] loadMagics() {
+		String name = resourceName(ranks, files);
+		InputStream in = openResource(name);
+		if (in == null) {
+			System.err.println("No saved magics " + name + " on the classpath or in resources/, searching for them");
+			return null;
+		}
+		long[] magics = new long[SAVED_FIELDS * ranks * files];
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+			for (int square = 0; square < ranks * files; square++) {
+				String[] fields = reader.readLine().trim().split("\\s+");
+				for (int i = 0; i < SAVED_FIELDS; i++) {
+					magics[SAVED_FIELDS * square + i] = Long.parseUnsignedLong(fields[i], 16);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Could not read saved magics " + name + " (" + e + "), searching for them");
+			return null;
+		}
+		return magics;
+	}
+
+	/**
+	 * Open a resource from the classpath, or from the resources folder of the working directory if it is not
+	 * on the classpath.
+	 *
+	 * @param name the file name of the resource.
+	 * @return a stream of the resource, null if it is in neither place.
+	 */
+	private static InputStream openResource(String name) {
+		InputStream in = SliderAttacks.class.getResourceAsStream("/" + name);
+		if (in != null) {
+			return in;
+		}
+		try {
+			return new FileInputStream("resources/" + name);
+		} catch (FileNotFoundException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Get the file name of the saved magics for a board size.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the file name of the resource.
+	 */
+	private static String resourceName(int ranks, int files) {
+		return "magics-" + ranks + "x" + files + ".txt";
+	}
+
+	/**
+	 * Print the magics for a board size in the format read by loadMagics.
+	 * Usage: SliderAttacks ranks files &gt; resources/magics-{ranks}x{files}.txt
+	 *
+	 * @param args the number of ranks and files.
+	 */
+	public static void main(String[] args) {
+		SliderAttacks tables = forBoard(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+		for (int square = 0; square < tables.ranks * tables.files; square++) {
+			Magic rook = tables.rookMagics[square];
+			Magic bishop = tables.bishopMagics[square];
+			System.out.println(Long.toHexString(rook.magicLo) + " " + Long.toHexString(rook.magicHi) + " "
+					+ Integer.toHexString(Long.SIZE - rook.shift) + " " + Long.toHexString(bishop.magicLo) + " "
+					+ Long.toHexString(bishop.magicHi) + " " + Integer.toHexString(Long.SIZE - bishop.shift));
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package model.game;
 
+import model.pieces.Pawn;
 import model.pieces.Piece;
 import model.player.Color;
 import view.TileGUI;
@@ -16,6 +17,9 @@ public class Tile {
 	private Piece occupant; // the piece sitting on this tile
 	private Color color; // the color of the tile
 	private TileGUI tileGUI; // the tileGUI that corresponds to this tile
+	private BitboardBoard bitboards; // the bitboards of the board this tile is on, null if none
+	private Board board; // the board this tile is on, null if none
+	private int cell; // the index of this tile's cell in the board's piece codes
 	
 	/**
 	 * Constructor.
@@ -69,6 +73,55 @@ public class Tile {
 	 */
 	public void setOccupant(Piece piece) {
 		this.occupant = piece;
+		// keep the bitboards of the board in sync with this tile
+		if (bitboards != null) {
+			bitboards.setOccupant(rank, file, piece);
+		}
+		if (board != null) {
+			board.setCode(cell, PieceCode.of(piece));
+		}
+	}
+	
+	/**
+	 * Record whether the pawn on this tile has moved yet, in the board's piece codes, key and bitboards.
+	 * Only pawns (Pawn and BerolinaPawn) are recorded, so for other pieces this does nothing.
+	 * 
+	 * @param unmoved true if the pawn has not moved yet, false otherwise.
+	 */
+	public void setUnmoved(boolean unmoved) {
+		if (!(occupant instanceof Pawn)) {
+			return;
+		}
+		if (bitboards != null) {
+			if (unmoved) {
+				bitboards.setUnmoved(bitboards.square(rank, file));
+			} else {
+				bitboards.clearUnmoved(bitboards.square(rank, file));
+			}
+		}
+		if (board != null) {
+			board.setUnmoved(cell, unmoved);
+		}
+	}
+	
+	/**
+	 * Setter.
+	 * 
+	 * @param bitboards the bitboards to update whenever the occupant of this tile changes.
+	 */
+	void setBitboards(BitboardBoard bitboards) {
+		this.bitboards = bitboards;
+	}
+	
+	/**
+	 * Setter.
+	 * 
+	 * @param board the board whose piece codes and key to update whenever the occupant of this tile changes.
+	 * @param cell the index of this tile's cell in the board's piece codes.
+	 */
+	void setBoard(Board board, int cell) {
+		this.board = board;
+		this.cell = cell;
 	}
 	/**
 	 * Getter.
@@ -0,0 +1,209 @@
+package model.game;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * TileSet --- a set of the tiles of one board, kept as a bitmask with a bit for each tile (rank * files + file).
+ * Adding, removing and looking up a tile is a bit operation and allocates nothing, unlike a HashSet of
+ * Tiles. Iterating walks the set bits in tile order and hands back the board's own Tile objects.
+ *
+ * A set created without a board is always empty and cannot be added to.
+ * @author Lance
+ *
+ */
+public class TileSet extends AbstractSet<Tile> {
+
+	private final Board board; // the board the tiles belong to, null for an empty unbound set
+	private final long[] words; // bit (rank * files + file) is set for each tile in the set
+	private int size; // number of tiles in the set
+
+	/**
+	 * Constructor. Creates an empty set that is not bound to a board.
+	 */
+	public TileSet() {
+		this.board = null;
+		this.words = new long[0];
+	}
+
+	/**
+	 * Constructor. Creates an empty set of tiles of a board.
+	 *
+	 * @param board the board the tiles will belong to.
+	 */
+	public TileSet(Board board) {
+		this.board = board;
+		this.words = new long[(board.getRanks() * board.getFiles() + Long.SIZE - 1) / Long.SIZE];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the board the tiles belong to, null if the set is not bound to one.
+	 */
+	public Board getBoard() {
+		return this.board;
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the number of tiles in the set.
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Add a tile to the set.
+	 *
+	 * @param tile a tile of the set's board.
+	 * @return true if the tile was not already in the set, false otherwise.
+	 */
+	@Override
+	public boolean add(Tile tile) {
+		int square = indexOf(tile);
+		if (square < 0) {
+			throw new IllegalArgumentException("Tile (" + tile.getRank() + ", " + tile.getFile() + ") is not on this set's board");
+		}
+		long bit = 1L << square;
+		if ((words[square >>> 6] & bit) != 0) {
+			return false;
+		}
+		words[square >>> 6] |= bit;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Add every tile of a bitboard to the set. Only for boards that have bitboards (see BitboardBoard).
+	 *
+	 * @param lo lo word of the tiles to add.
+	 * @param hi hi word of the tiles to add.
+	 */
+	public void addBitboard(long lo, long hi) {
+		size += Long.bitCount(lo & ~words[0]);
+		words[0] |= lo;
+		if (words.length > 1) {
+			size += Long.bitCount(hi & ~words[1]);
+			words[1] |= hi;
+		}
+	}
+
+	/**
+	 * Check if a tile is in the set.
+	 *
+	 * @param o the tile to look for.
+	 * @return true if o is a tile of the set's board and is in the set, false otherwise.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Tile)) {
+			return false;
+		}
+		int square = indexOf((Tile) o);
+		return square >= 0 && (words[square >>> 6] & (1L << square)) != 0;
+	}
+
+	/**
+	 * Remove a tile from the set.
+	 *
+	 * @param o the tile to remove.
+	 * @return true if the tile was in the set, false otherwise.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		int square = indexOf((Tile) o);
+		words[square >>> 6] &= ~(1L << square);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Empty the set.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0);
+		size = 0;
+	}
+
+	/**
+	 * Getter. Only for boards that have bitboards.
+	 *
+	 * @return the lo word of the tiles in the set.
+	 */
+	public long getLo() {
+		return (words.length > 0 ? words[0] : 0L);
+	}
+
+	/**
+	 * Getter. Only for boards that have bitboards.
+	 *
+	 * @return the hi word of the tiles in the set.
+	 */
+	public long getHi() {
+		return (words.length > 1 ? words[1] : 0L);
+	}
+
+	/**
+	 * Walk the tiles in the set in tile order (rank, then file).
+	 *
+	 * @return an iterator over the tiles.
+	 */
+	@Override
+	public Iterator<Tile> iterator() {
+		return new Iterator<Tile>() {
+			private int word = 0; // the word the remaining bits come from
+			private long remaining = (words.length > 0 ? words[0] : 0L); // bits of word not yet returned
+			private int last = -1; // the tile last returned, -1 if none or removed
+
+			@Override
+			public boolean hasNext() {
+				while (remaining == 0 && word < words.length - 1) {
+					remaining = words[++word];
+				}
+				return remaining != 0;
+			}
+
+			@Override
+			public Tile next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return board.getTiles()[last / board.getFiles()][last % board.getFiles()];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				words[last >>> 6] &= ~(1L << last);
+				size--;
+				last = -1;
+			}
+		};
+	}
+
+	/**
+	 * Get the bit index of a tile.
+	 *
+	 * @param tile a tile.
+	 * @return rank * files + file for the tile, -1 if it is not a tile of the set's board.
+	 */
+	private int indexOf(Tile tile) {
+		if (board == null || board.getTile(tile.getRank(), tile.getFile()) != tile) {
+			return -1;
+		}
+		return tile.getRank() * board.getFiles() + tile.getFile();
+	}
+}
@@ -0,0 +1,128 @@
+package model.game;
+
+/**
+ * WideBitboard --- static helpers for 128-bit bitboards held as two longs. Bits 0-63 (the "lo" word) are tiles
+ * 0-63 and bits 0-63 of the "hi" word are tiles 64-127, so the 81 tiles of a 9x9 board fit. Java has no 128-bit
+ * primitive, so each operation that produces a bitboard comes as a pair of methods returning the lo and the hi word.
+ * @author Lance
+ *
+ */
+public final class WideBitboard {
+
+	/**
+	 * Constructor. Not used, class only has static helpers.
+	 */
+	private WideBitboard() {
+	}
+
+	/**
+	 * Get the lo word of the bitboard with only the given tile set.
+	 *
+	 * @param square the bit index of the tile (0-127).
+	 * @return the lo word.
+	 */
+	public static long bitLo(int square) {
+		return (square < Long.SIZE ? 1L << square : 0L);
+	}
+
+	/**
+	 * Get the hi word of the bitboard with only the given tile set.
+	 *
+	 * @param square the bit index of the tile (0-127).
+	 * @return the hi word.
+	 */
+	public static long bitHi(int square) {
+		return (square < Long.SIZE ? 0L : 1L << (square - Long.SIZE));
+	}
+
+	/**
+	 * Check if a tile is in a bitboard.
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param square the bit index of the tile.
+	 * @return true if the bit for the tile is set.
+	 */
+	public static boolean contains(long lo, long hi, int square) {
+		if (square < Long.SIZE) {
+			return (lo & (1L << square)) != 0;
+		}
+		return (hi & (1L << (square - Long.SIZE))) != 0;
+	}
+
+	/**
+	 * Count the tiles in a bitboard.
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @return the number of bits set.
+	 */
+	public static int count(long lo, long hi) {
+		return Long.bitCount(lo) + Long.bitCount(hi);
+	}
+
+	/**
+	 * Get the bit index of the lowest tile in a non-empty bitboard.
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @return the bit index of the lowest set bit.
+	 */
+	public static int lowest(long lo, long hi) {
+		return (lo != 0 ? Long.numberOfTrailingZeros(lo) : Long.SIZE + Long.numberOfTrailingZeros(hi));
+	}
+
+	/**
+	 * Lo word of the bitboard shifted towards higher bit indexes by n (0 &lt; n &lt; 128).
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param n the number of bits to shift by.
+	 * @return the lo word of the shifted bitboard.
+	 */
+	public static long shiftUpLo(long lo, long hi, int n) {
+		return (n < Long.SIZE ? lo << n : 0L);
+	}
+
+	/**
+	 * Hi word of the bitboard shifted towards higher bit indexes by n (0 &lt; n &lt; 128).
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param n the number of bits to shift by.
+	 * @return the hi word of the shifted bitboard, including the bits carried over from lo.
+	 */
+	public static long shiftUpHi(long lo, long hi, int n) {
+		if (n >= Long.SIZE) {
+			return lo << (n - Long.SIZE);
+		}
+		return (hi << n) | (lo >>> (Long.SIZE - n));
+	}
+
+	/**
+	 * Lo word of the bitboard shifted towards lower bit indexes by n (0 &lt; n &lt; 128).
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param n the number of bits to shift by.
+	 * @return the lo word of the shifted bitboard, including the bits carried over from hi.
+	 */
+	public static long shiftDownLo(long lo, long hi, int n) {
+		if (n >= Long.SIZE) {
+			return hi >>> (n - Long.SIZE);
+		}
+		return (lo >>> n) | (hi << (Long.SIZE - n));
+	}
+
+	/**
+	 * Hi word of the bitboard shifted towards lower bit indexes by n (0 &lt; n &lt; 128).
+	 *
+	 * @param lo the lo word of the bitboard.
+	 * @param hi the hi word of the bitboard.
+	 * @param n the number of bits to shift by.
+	 * @return the hi word of the shifted bitboard.
+	 */
+	public static long shiftDownHi(long lo, long hi, int n) {
+		return (n < Long.SIZE ? hi >>> n : 0L);
+	}
+}
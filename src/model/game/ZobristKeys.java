@@ -0,0 +1,114 @@
+package model.game;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+import model.pieces.PieceType;
+import model.player.Color;
+
+/**
+ * ZobristKeys --- the random numbers a position's Zobrist key is built from: one per piece type, color and
+ * tile, one per tile for a pawn (Pawn or BerolinaPawn) that has not moved yet, and one for black to move.
+ * The key of a position is the XOR of the numbers of everything in it, so a move changes the key with a
+ * few XORs and equal positions have equal keys.
+ *
+ * Keys are generated once per board size from a fixed seed and shared, so the same position has the same
+ * key in every game.
+ * @author Lance
+ *
+ */
+public class ZobristKeys {
+
+	private static final HashMap<String, ZobristKeys> KEYS = new HashMap<>(); // keys generated so far, by board size
+
+	private long[][][] pieceKeys; // indexed by PieceType.ordinal(), Color.ordinal() then tile
+	private long[] firstMoveKeys; // for each tile, the key of an unmoved pawn standing on it
+	private long blackToMove; // the key of black being the player to move
+
+	/**
+	 * Get the shared keys for a board size, generating them the first time they are needed.
+	 *
+	 * @param ranks the number of ranks (rows) of the board.
+	 * @param files the number of files (columns) of the board.
+	 * @return the Zobrist keys for boards of that size.
+	 */
+	public static synchronized ZobristKeys forBoard(int ranks, int files) {
+		String key = ranks + "x" + files;
+		ZobristKeys keys = KEYS.get(key);
+		if (keys == null) {
+			keys = new ZobristKeys(ranks * files, new SplittableRandom(ranks * 31 + files));
+			KEYS.put(key, keys);
+		}
+		return keys;
+	}
+
+	/**
+	 * Constructor. Generates the keys.
+	 *
+	 * @param tiles the number of tiles on the board.
+	 * @param random the source of the keys.
+	 */
+	private ZobristKeys(int tiles, SplittableRandom random) {
+		pieceKeys = new long[PieceType.values().length][Color.values().length][tiles];
+		firstMoveKeys = new long[tiles];
+		for (long[][] byColor : pieceKeys) {
+			for (long[] byTile : byColor) {
+				for (int square = 0; square < tiles; square++) {
+					byTile[square] = random.nextLong();
+				}
+			}
+		}
+		for (int square = 0; square < tiles; square++) {
+			firstMoveKeys[square] = random.nextLong();
+		}
+		blackToMove = random.nextLong();
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param type the type of the piece.
+	 * @param color the color of the piece.
+	 * @param square the bit index of the piece's tile.
+	 * @return the key of the piece standing on the tile.
+	 */
+	public long piece(PieceType type, Color color, int square) {
+		return pieceKeys[type.ordinal()][color.ordinal()][square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param square the bit index of the pawn's tile.
+	 * @return the key of an unmoved pawn standing on the tile.
+	 */
+	public long firstMove(int square) {
+		return firstMoveKeys[square];
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @param code the PieceCode of a tile.
+	 * @param square the index of the tile, rank * files + file.
+	 * @return the key of what stands on the tile: its piece, and its first move for an unmoved pawn. 0 if
+	 * the tile is empty.
+	 */
+	public long code(int code, int square) {
+		if (code == PieceCode.EMPTY) {
+			return 0;
+		}
+		int color = ((code & PieceCode.BLACK) != 0 ? Color.BLACK : Color.WHITE).ordinal();
+		long key = pieceKeys[(code & PieceCode.TYPE_MASK) - 1][color][square];
+		return ((code & PieceCode.UNMOVED) != 0 ? key ^ firstMoveKeys[square] : key);
+	}
+
+	/**
+	 * Getter.
+	 *
+	 * @return the key of black being the player to move.
+	 */
+	public long blackToMove() {
+		return blackToMove;
+	}
+}
@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 /**
  * BerolinaPawn --- Class to represent BerolinaPawn in Chess game (https://en.wikipedia.org/wiki/Fairy_chess_piece)
@@ -20,6 +21,28 @@ public class BerolinaPawn extends Pawn {
 		super(tile,color); // pawns constructor handles firstMove field
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.BEROLINA_PAWN
+	 */
+	@Override
+	public PieceType getType() {
+		return PieceType.BEROLINA_PAWN;
+	}
+	
+	
+	/**
+	 * Check whether the BerolinaPawn attacks the given tile, one of the tiles looked at when its moves were generated.
+	 * 
+	 * @param tile a tile near the BerolinaPawn.
+	 * @return true if tile is directly in-front of the BerolinaPawn, false otherwise.
+	 */
+	@Override
+	protected boolean isAttackedTile (Tile tile) {
+		int dir = (getColor() == Color.BLACK ? -1 : 1);
+		return tile.getRank() == getTile().getRank() + dir && tile.getFile() == getTile().getFile();
+	}
 	
 	/**
 	 * Checks whether the proposed move is valid for a BerolinaPawn. Helper method for isValidMove defined 
@@ -61,4 +84,52 @@ public class BerolinaPawn extends Pawn {
 		}
 		return false;
 	}
+	
+	/**
+	 * Add every tile the BerolinaPawn can move to. Helper method for generateMoves defined in parent class (Pawn).
+	 * 
+	 * @param dir The direction to move the piece. +1 to move upward (white BerolinaPawn), -1 to move downward (black BerolinaPawn).
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	@Override
+	protected void generateMovesHelper (int dir, Board board, TileSet moves, TileSet dependencies) {
+		int currRank = getTile().getRank();
+		int currFile = getTile().getFile();
+		// BerolinaPawns capture directly in-front
+		Tile forward = board.getTile(currRank + dir, currFile);
+		addDependency(forward, dependencies);
+		if (forward != null && !forward.isEmpty() && forward.getOccupant().getColor() != getColor()) {
+			moves.add(forward);
+		}
+		// BerolinaPawns move diagonally in-front into an empty tile, or two diagonally on their first move if both are empty
+		addDiagonalMoves(dir, board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the moves onto one tile diagonally in-front of the BerolinaPawn. BerolinaPawns may move there if it 
+	 * is empty, and on their first move one tile further along the same diagonal if that is empty too.
+	 * 
+	 * @param diagonal The tile diagonally in-front of the BerolinaPawn.
+	 * @param dir The direction to move the piece. +1 to move upward (white BerolinaPawn), -1 to move downward (black BerolinaPawn).
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	@Override
+	protected void addDiagonalMove (Tile diagonal, int dir, Board board, TileSet moves, TileSet dependencies) {
+		if (!diagonal.isEmpty()) {
+			return;
+		}
+		moves.add(diagonal);
+		if (firstMove) {
+			int side = diagonal.getFile() - getTile().getFile();
+			Tile doubleDiagonal = board.getTile(diagonal.getRank() + dir, diagonal.getFile() + side);
+			addDependency(doubleDiagonal, dependencies);
+			if (doubleDiagonal != null && doubleDiagonal.isEmpty()) {
+				moves.add(doubleDiagonal);
+			}
+		}
+	}
 }
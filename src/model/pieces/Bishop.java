@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -20,6 +21,15 @@ public class Bishop extends Piece {
 		super(tile, color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.BISHOP
+	 */
+	public PieceType getType() {
+		return PieceType.BISHOP;
+	}
+	
 	/**
 	 * Check whether the proposed move is valid. Bishop's can move any number of squares diagonally.
 	 * 
@@ -31,4 +41,15 @@ public class Bishop extends Piece {
 		// Bishops can move along the diagonals until blocked by another piece or end of the board
 		return isValidDiagonolMove(this,newTile,board);
 	}
+	
+	/**
+	 * Add every tile the Bishop can move to. Slides along each diagonal until blocked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addBishopMoves(this, board, moves, dependencies);
+	}
 }
@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -21,6 +22,15 @@ public class King extends Piece {
 		super(tile,color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.KING
+	 */
+	public PieceType getType() {
+		return PieceType.KING;
+	}
+	
 	/**
 	 * Check whether the proposed move is valid. King's can move one square in any direction.
 	 * 
@@ -31,4 +41,15 @@ public class King extends Piece {
 	public boolean isValidMove (Tile newTile, Board board) {
 		return isValidOneTileMove(this, newTile, board);
 	}
+	
+	/**
+	 * Add every tile the King can move to. Only the eight neighbouring tiles need to be checked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addKingMoves(this, board, moves, dependencies);
+	}
 }
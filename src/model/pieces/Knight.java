@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -20,6 +21,15 @@ public class Knight extends Piece {
 	public Knight (Tile tile, Color color) {
 		super(tile, color);
 	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.KNIGHT
+	 */
+	public PieceType getType() {
+		return PieceType.KNIGHT;
+	}
 
 	/**
 	 * Check whether the proposed move is valid. 
@@ -34,4 +44,15 @@ public class Knight extends Piece {
 	public boolean isValidMove (Tile newTile, Board board) {
 		return isValidLMove(this, newTile, board);
 	}
+	
+	/**
+	 * Add every tile the Knight can move to. Only the eight "L" jumps need to be checked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addKnightMoves(this, board, moves, dependencies);
+	}
 }
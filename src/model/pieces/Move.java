@@ -1,11 +1,205 @@
 package model.pieces;
 
+import model.game.BitboardBoard;
 import model.game.Board;
+import model.game.Directions;
+import model.game.LeaperAttacks;
+import model.game.SliderAttacks;
 import model.game.Tile;
+import model.game.TileSet;
+import model.game.WideBitboard;
 import model.player.Color;
 
 public class Move {
 
+	/**
+	 * Walk outward from piece along each direction, adding every tile reached until the walk 
+	 * reaches the border of the board's mailbox or hits a piece. A tile holding an enemy piece is 
+	 * added (capture), a tile holding a piece of the same color is not.
+	 * 
+	 * @param piece
+	 *            The sliding piece to generate moves for.
+	 * @param directions
+	 *            The (rank, file) steps the piece may slide along.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every tile the walk looks at is added to (the tiles whose occupancy decides the moves).
+	 */
+	public static void addRayMoves(Piece piece, int[][] directions, Board board, TileSet moves, TileSet dependencies) {
+		int start = board.getMailboxIndex(piece.getTile().getRank(), piece.getTile().getFile());
+		for (int[] dir : directions) {
+			int step = board.getOffset(dir[0], dir[1]);
+			int index = start + step;
+			// keep stepping until the border of the mailbox or the first blocker
+			while (board.getSquare(index) != Board.OFFBOARD) {
+				Tile newTile = board.getTile(board.getSquare(index));
+				dependencies.add(newTile);
+				if (!newTile.isEmpty()) {
+					if (newTile.getOccupant().getColor() != piece.getColor()) {
+						moves.add(newTile);
+					}
+					break;
+				}
+				moves.add(newTile);
+				index += step;
+			}
+		}
+	}
+
+	/**
+	 * Add the tiles a piece can reach by sliding along its rank and file (Rook, Queen). Uses the magic
+	 * attack tables when the board has bitboards, otherwise walks the rays.
+	 * 
+	 * @param piece
+	 *            The sliding piece to generate moves for.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every tile the rays look at is added to.
+	 */
+	public static void addRookMoves(Piece piece, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards == null) {
+			addRayMoves(piece, Directions.ORTHOGONAL, board, moves, dependencies);
+			return;
+		}
+		SliderAttacks sliderAttacks = bitboards.getSliderAttacks();
+		int index = sliderAttacks.rookIndex(bitboards.square(piece.getTile().getRank(), piece.getTile().getFile()), 
+				bitboards.getOccupiedLo(), bitboards.getOccupiedHi());
+		addAttackedTiles(piece, sliderAttacks.attacksLo(index), sliderAttacks.attacksHi(index), board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the tiles a piece can reach by sliding along its diagonals (Bishop, Queen, Princess). Uses the magic
+	 * attack tables when the board has bitboards, otherwise walks the rays.
+	 * 
+	 * @param piece
+	 *            The sliding piece to generate moves for.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every tile the rays look at is added to.
+	 */
+	public static void addBishopMoves(Piece piece, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards == null) {
+			addRayMoves(piece, Directions.DIAGONAL, board, moves, dependencies);
+			return;
+		}
+		SliderAttacks sliderAttacks = bitboards.getSliderAttacks();
+		int index = sliderAttacks.bishopIndex(bitboards.square(piece.getTile().getRank(), piece.getTile().getFile()), 
+				bitboards.getOccupiedLo(), bitboards.getOccupiedHi());
+		addAttackedTiles(piece, sliderAttacks.attacksLo(index), sliderAttacks.attacksHi(index), board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the tiles a piece can reach with a knight jump (Knight, Princess). Uses the precomputed jump 
+	 * tables when the board has bitboards, otherwise checks each offset.
+	 * 
+	 * @param piece
+	 *            The jumping piece to generate moves for.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every on-board jump target is added to.
+	 */
+	public static void addKnightMoves(Piece piece, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards == null) {
+			addOffsetMoves(piece, Directions.KNIGHT, board, moves, dependencies);
+			return;
+		}
+		int square = bitboards.square(piece.getTile().getRank(), piece.getTile().getFile());
+		LeaperAttacks leaperAttacks = bitboards.getLeaperAttacks();
+		addAttackedTiles(piece, leaperAttacks.knightLo(square), leaperAttacks.knightHi(square), board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the tiles a piece can reach by stepping one tile in any direction (King). Uses the precomputed 
+	 * step tables when the board has bitboards, otherwise checks each offset.
+	 * 
+	 * @param piece
+	 *            The stepping piece to generate moves for.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every on-board neighbouring tile is added to.
+	 */
+	public static void addKingMoves(Piece piece, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards == null) {
+			addOffsetMoves(piece, Directions.KING, board, moves, dependencies);
+			return;
+		}
+		int square = bitboards.square(piece.getTile().getRank(), piece.getTile().getFile());
+		LeaperAttacks leaperAttacks = bitboards.getLeaperAttacks();
+		addAttackedTiles(piece, leaperAttacks.kingLo(square), leaperAttacks.kingHi(square), board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the tiles of an attack set. Every attacked tile is a dependency, the ones not holding a piece 
+	 * of the same color are moves.
+	 * 
+	 * @param piece
+	 *            The piece attacking the tiles.
+	 * @param attacksLo
+	 *            The lo word of the attacked tiles.
+	 * @param attacksHi
+	 *            The hi word of the attacked tiles.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every attacked tile is added to.
+	 */
+	protected static void addAttackedTiles(Piece piece, long attacksLo, long attacksHi, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		dependencies.addBitboard(attacksLo, attacksHi);
+		moves.addBitboard(attacksLo & ~bitboards.getPiecesLo(piece.getColor()), attacksHi & ~bitboards.getPiecesHi(piece.getColor()));
+	}
+	
+	/**
+	 * Add each tile a fixed offset away from piece, provided it is on the board and is not 
+	 * occupied by a piece of the same color. Used by pieces that jump or step (Knight, King, Princess).
+	 * 
+	 * @param piece
+	 *            The piece to generate moves for.
+	 * @param offsets
+	 *            The (rank, file) offsets the piece may move by.
+	 * @param board
+	 *            The game board the piece is on.
+	 * @param moves
+	 *            The set the reachable tiles are added to.
+	 * @param dependencies
+	 *            The set every on-board target tile is added to, whether or not it can be moved to.
+	 */
+	public static void addOffsetMoves(Piece piece, int[][] offsets, Board board, TileSet moves, TileSet dependencies) {
+		int start = board.getMailboxIndex(piece.getTile().getRank(), piece.getTile().getFile());
+		for (int[] offset : offsets) {
+			int square = board.getSquare(start + board.getOffset(offset[0], offset[1]));
+			if (square == Board.OFFBOARD) {
+				continue;
+			}
+			Tile newTile = board.getTile(square);
+			dependencies.add(newTile);
+			if (newTile.isEmpty() || newTile.getOccupant().getColor() != piece.getColor()) {
+				moves.add(newTile);
+			}
+		}
+	}
+
 	/**
 	 * Check whether piece can be moved to newTile by traveling along a rank or
 	 * file. Used by both Queen and Rook.
@@ -35,56 +229,11 @@ public class Move {
 		int currFile = currTile.getFile();
 		int newRank = newTile.getRank();
 		int newFile = newTile.getFile();
-
-		// check if possible to move along file
-		if (newFile == currFile) {
-			// move downwards along file
-			if (currRank > newRank) {
-				// check that all tiles in between currTile and newTile are
-				// empty
-				for (int i = 1; i < (currRank - newRank); i++) {
-					if (board.getTile(newRank + i, currFile).getOccupant() != null) {
-						return false;
-					}
-				}
-				return true;
-				// move upwards along file
-			} else {
-				// check that all tiles in between currTile and newTile are
-				// empty
-				for (int i = 1; i < (newRank - currRank); i++) {
-					if (board.getTile(currRank + i, currFile).getOccupant() != null) {
-						return false;
-					}
-				}
-				return true;
-			}
-			// check if possible to move along rank
-		} else if (newRank == currRank) {
-			// move downward along rank
-			if (currFile > newFile) {
-				// check that all tiles in between currTile and newTile are
-				// empty
-				for (int i = 1; i < (currFile - newFile); i++) {
-					if (board.getTile(newRank, newFile + i).getOccupant() != null) {
-						return false;
-					}
-				}
-				return true;
-				// move upward along rank
-			} else {
-				// check that all tiles in between currTile and newTile are
-				// empty
-				for (int i = 1; i < (newFile - currFile); i++) {
-					if (board.getTile(newRank, currFile + i).getOccupant() != null) {
-						return false;
-					}
-				}
-				return true;
-			}
-		} else {
-			return false; // Rooks can only move vertically or horizontally
+		// Rooks can only move vertically or horizontally
+		if (newFile != currFile && newRank != currRank) {
+			return false;
 		}
+		return isPathClear(currTile, newTile, board);
 	}
 
 	/**
@@ -119,54 +268,36 @@ public class Move {
 		if (Math.abs(currRank - newRank) != Math.abs(currFile - newFile)) {
 			return false;
 		}
+		return isPathClear(currTile, newTile, board);
+	}
 
-		// check if move along lower-left diagonal is valid
-		if (currRank > newRank && currFile > newFile) {
-			for (int i = 1; i < (currRank - newRank); i++) {
-				// check that all tiles in between currTile and newTile are
-				// empty (non-inclusive)
-				if (board.getTile(newRank + i, newFile + i).getOccupant() != null) {
-					return false;
-				}
-			}
-			return true;
-		}
-		// check if move along upper-right diagonal is valid.
-		else if (currRank < newRank && currFile < newFile) {
-			for (int i = 1; i < (newRank - currRank); i++) {
-				// check that all tiles in between currTile and newTile are
-				// empty (non-inclusive)
-				if (board.getTile(currRank + i, currFile + i).getOccupant() != null) {
-					return false;
-				}
-			}
-			return true;
-		}
-		// check if move along lower-right diagonal is valid
-		else if (currRank > newRank && currFile < newFile) {
-			for (int i = 1; i < (currRank - newRank); i++) {
-				// check that all tiles in between currTile and newTile are
-				// empty (non-inclusive)
-				if (board.getTile(currRank - i, currFile + i).getOccupant() != null) {
-					return false;
-				}
-			}
-			return true;
+	/**
+	 * Check that every tile strictly between two tiles on the same rank, file or diagonal is empty. With 
+	 * bitboards this is one mask of the precomputed between tiles against the occupied tiles, otherwise 
+	 * the tiles are walked on the board's mailbox.
+	 * 
+	 * @param currTile
+	 *            The tile the path starts from.
+	 * @param newTile
+	 *            The tile the path ends on, aligned with currTile.
+	 * @param board
+	 *            The game board the tiles are on.
+	 * @return true if nothing stands between the two tiles, false otherwise.
+	 */
+	public static boolean isPathClear(Tile currTile, Tile newTile, Board board) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards != null) {
+			return bitboards.getLineTables().isClear(bitboards.square(currTile.getRank(), currTile.getFile()), 
+					bitboards.square(newTile.getRank(), newTile.getFile()), bitboards.getOccupiedLo(), bitboards.getOccupiedHi());
 		}
-		// check if move along upper-left diagonal is valid.
-		else if (currRank < newRank && currFile > newFile) {
-			for (int i = 1; i < (newRank - currRank); i++) {
-				// check that all tiles in between currTile and newTile are
-				// empty (non-inclusive)
-				if (board.getTile(currRank + i, currFile - i).getOccupant() != null) {
-					return false;
-				}
+		int step = board.getOffset(Integer.signum(newTile.getRank() - currTile.getRank()), Integer.signum(newTile.getFile() - currTile.getFile()));
+		int end = board.getMailboxIndex(newTile.getRank(), newTile.getFile());
+		for (int index = board.getMailboxIndex(currTile.getRank(), currTile.getFile()) + step; index != end; index += step) {
+			if (!board.getTile(board.getSquare(index)).isEmpty()) {
+				return false;
 			}
-			return true;
-		} else {
-			// bishops can only move along diagonals.
-			return false;
 		}
+		return true;
 	}
 
 	/**
@@ -194,6 +325,13 @@ public class Move {
 		int currFile = currTile.getFile();
 		int newRank = newTile.getRank();
 		int newFile = newTile.getFile();
+		// with bitboards the jumps from each tile are precomputed
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards != null) {
+			int square = bitboards.square(currRank, currFile);
+			return WideBitboard.contains(bitboards.getLeaperAttacks().knightLo(square), bitboards.getLeaperAttacks().knightHi(square), 
+					bitboards.square(newRank, newFile));
+		}
 		/*
 		 * knight can jump over other pieces, so always has 8 valid moves (if on
 		 * board). check each of the closest squares that are not on the same
@@ -222,6 +360,13 @@ public class Move {
 		if ((newTile.occupiedByBlack() && piece.getColor() == Color.BLACK) || (newTile.occupiedByWhite() && piece.getColor() == Color.WHITE)) {
 			return false;
 		}
+		// with bitboards the steps from each tile are precomputed
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards != null) {
+			int square = bitboards.square(piece.getTile().getRank(), piece.getTile().getFile());
+			return WideBitboard.contains(bitboards.getLeaperAttacks().kingLo(square), bitboards.getLeaperAttacks().kingHi(square), 
+					bitboards.square(newTile.getRank(), newTile.getFile()));
+		}
 		// any space that is one away from current space is valid
 		if (Math.abs(newTile.getRank() - piece.getTile().getRank()) < 2 && Math.abs(newTile.getFile() - piece.getTile().getFile()) < 2) {
 			return true;
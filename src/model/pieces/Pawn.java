@@ -1,7 +1,10 @@
 package model.pieces;
 
+import model.game.BitboardBoard;
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
+import model.game.WideBitboard;
 import model.player.Color;
 
 /**
@@ -22,6 +25,15 @@ public class Pawn extends Piece {
 		super(tile,color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.PAWN
+	 */
+	public PieceType getType() {
+		return PieceType.PAWN;
+	}
+	
 	
 	/**
 	 * Checks whether the proposed move is valid. Pawns can move straight forward to an unoccupied space, 
@@ -79,6 +91,139 @@ public class Pawn extends Piece {
 		return false;
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return the tiles this pawn attacks. Pawns only attack the tiles diagonally in-front, 
+	 * not the tiles they push to.
+	 */
+	@Override
+	public TileSet getAttacks() {
+		// a pawn that has never been updated has looked at no tiles
+		if (dependencies.getBoard() == null) {
+			return dependencies;
+		}
+		TileSet attacks = new TileSet(dependencies.getBoard());
+		for (Tile tile : dependencies) {
+			if (isAttackedTile(tile)) {
+				attacks.add(tile);
+			}
+		}
+		return attacks;
+	}
+	
+	/**
+	 * Check whether the pawn attacks the given tile, one of the tiles looked at when its moves were generated.
+	 * 
+	 * @param tile a tile near the pawn.
+	 * @return true if tile is diagonally in-front of the pawn, false otherwise.
+	 */
+	protected boolean isAttackedTile (Tile tile) {
+		int dir = (getColor() == Color.BLACK ? -1 : 1);
+		return tile.getRank() == getTile().getRank() + dir && Math.abs(tile.getFile() - getTile().getFile()) == 1;
+	}
+	
+	/**
+	 * Add every tile the pawn can move to. Only the tiles directly and diagonally in-front need to be checked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		// black tiles move down board, white tiles move up board. Handle seperately.
+		generateMovesHelper((getColor() == Color.BLACK ? -1 : 1), board, moves, dependencies);
+	}
+	
+	/**
+	 * Add every tile the pawn can move to. Helper method for generateMoves.
+	 * 
+	 * @param dir The direction to move the piece. +1 to move upward (white pawn), -1 to move downward (black pawn).
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMovesHelper (int dir, Board board, TileSet moves, TileSet dependencies) {
+		int currRank = getTile().getRank();
+		int currFile = getTile().getFile();
+		// pawns move forward one space into an empty tile, or two on their first move if both are empty
+		Tile forward = board.getTile(currRank + dir, currFile);
+		addDependency(forward, dependencies);
+		if (forward != null && forward.isEmpty()) {
+			moves.add(forward);
+			if (firstMove) {
+				Tile doubleForward = board.getTile(currRank + (2*dir), currFile);
+				addDependency(doubleForward, dependencies);
+				if (doubleForward != null && doubleForward.isEmpty()) {
+					moves.add(doubleForward);
+				}
+			}
+		}
+		// pawns capture diagonally in-front
+		addDiagonalMoves(dir, board, moves, dependencies);
+	}
+	
+	/**
+	 * Add the moves onto the tiles diagonally in-front of the pawn. With bitboards the diagonals of each tile 
+	 * are precomputed, otherwise both sides are checked.
+	 * 
+	 * @param dir The direction to move the piece. +1 to move upward (white pawn), -1 to move downward (black pawn).
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void addDiagonalMoves (int dir, Board board, TileSet moves, TileSet dependencies) {
+		BitboardBoard bitboards = board.getBitboards();
+		if (bitboards == null) {
+			for (int side = -1; side <= 1; side += 2) {
+				Tile diagonal = board.getTile(getTile().getRank() + dir, getTile().getFile() + side);
+				if (diagonal != null) {
+					dependencies.add(diagonal);
+					addDiagonalMove(diagonal, dir, board, moves, dependencies);
+				}
+			}
+			return;
+		}
+		int square = bitboards.square(getTile().getRank(), getTile().getFile());
+		long diagonalLo = bitboards.getLeaperAttacks().pawnDiagonalLo(getColor(), square);
+		long diagonalHi = bitboards.getLeaperAttacks().pawnDiagonalHi(getColor(), square);
+		while ((diagonalLo | diagonalHi) != 0) {
+			int diagonalSquare = WideBitboard.lowest(diagonalLo, diagonalHi);
+			Tile diagonal = board.getTiles()[diagonalSquare / board.getFiles()][diagonalSquare % board.getFiles()];
+			dependencies.add(diagonal);
+			addDiagonalMove(diagonal, dir, board, moves, dependencies);
+			diagonalLo &= ~WideBitboard.bitLo(diagonalSquare);
+			diagonalHi &= ~WideBitboard.bitHi(diagonalSquare);
+		}
+	}
+	
+	/**
+	 * Add the move onto one tile diagonally in-front of the pawn. Pawns may only move there to capture.
+	 * 
+	 * @param diagonal The tile diagonally in-front of the pawn.
+	 * @param dir The direction to move the piece. +1 to move upward (white pawn), -1 to move downward (black pawn).
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void addDiagonalMove (Tile diagonal, int dir, Board board, TileSet moves, TileSet dependencies) {
+		if (!diagonal.isEmpty() && diagonal.getOccupant().getColor() != getColor()) {
+			moves.add(diagonal);
+		}
+	}
+	
+	/**
+	 * Record that the pawn's moves depend on the given tile, if it is on the board.
+	 * 
+	 * @param tile the tile looked at, null if off board.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void addDependency (Tile tile, TileSet dependencies) {
+		if (tile != null) {
+			dependencies.add(tile);
+		}
+	}
+	
 	/**
 	 *  Moves the pawn to the given tile (if it is a valid move) and updates the firstMove flag
 	 *  if this is the first time the pawn's moved.
@@ -91,7 +236,7 @@ public class Pawn extends Piece {
 		int ret = super.move(tile,board);
 		// if the proposed move occurred (i.e it was valid), and change firstMove flag to false
 		if(ret == 0) {
-			firstMove = false;
+			setFirstMove(false);
 			// need to update valid moves again, since no longer can move 2 spaces forward
 			updateValidMoves(board);
 		}
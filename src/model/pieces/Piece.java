@@ -1,9 +1,8 @@
 package model.pieces;
 
-import java.util.HashSet;
-
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -15,8 +14,10 @@ public abstract class Piece extends Move {
 	
 	protected Tile tile; //  the board Tile the piece is currently on, null if not on board
 	protected final Color color; //  the color of the piece
-	protected HashSet<Tile> validMoves; //  the board Tiles the piece could move to from current location
+	protected TileSet validMoves; //  the board Tiles the piece could move to from current location
+	protected TileSet dependencies; //  the board Tiles whose occupants decided validMoves
 	protected boolean firstMove;
+	private int listIndex; //  the position of the piece in its player's PieceList, -1 if not in one
 
 	/**
 	 * Constructor.
@@ -26,10 +27,12 @@ public abstract class Piece extends Move {
 	 */
 	protected Piece(Tile tile, Color color) {
 		this.tile = tile;
-		tile.setOccupant(this); // ensure tile points to this piece now
 		this.color = color;
-		this.validMoves = new HashSet<Tile>();
+		this.validMoves = new TileSet();
+		this.dependencies = new TileSet();
 		this.firstMove = true;
+		this.listIndex = -1;
+		tile.setOccupant(this); // ensure tile points to this piece now (once its fields are set)
 	}
 	
 	/**
@@ -45,7 +48,38 @@ public abstract class Piece extends Move {
 	 * Setter.
 	 */
 	public void setFirstMove() {
-		this.firstMove = true;
+		setFirstMove(true);
+	}
+	
+	/**
+	 * Setter.
+	 * 
+	 * @param firstMove true if the piece has not moved yet, false otherwise.
+	 */
+	public void setFirstMove(boolean firstMove) {
+		this.firstMove = firstMove;
+		// the board records which pawns have moved
+		if (tile != null && tile.getOccupant() == this) {
+			tile.setUnmoved(firstMove);
+		}
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the position of the piece among the pieces of its type in its player's PieceList, -1 if not in one.
+	 */
+	public int getListIndex() {
+		return this.listIndex;
+	}
+	
+	/**
+	 * Setter. Only for PieceList.
+	 * 
+	 * @param listIndex the position of the piece in its PieceList, -1 if removed.
+	 */
+	public void setListIndex(int listIndex) {
+		this.listIndex = listIndex;
 	}
 	
 	/**
@@ -53,7 +87,7 @@ public abstract class Piece extends Move {
 	 * 
 	 * @return the tile this piece can currently legally move to.
 	 */
-	public HashSet<Tile> getValidMoves() {
+	public TileSet getValidMoves() {
 		return this.validMoves;
 	}
 	
@@ -62,10 +96,38 @@ public abstract class Piece extends Move {
 	 * 
 	 *
 	 */
-	public void setValidMoves(HashSet<Tile> validMoves) {
+	public void setValidMoves(TileSet validMoves) {
 		this.validMoves = validMoves;
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return the tiles looked at when validMoves was last computed. validMoves can only change
+	 * if the occupant of one of these tiles (or this piece's own tile) changes.
+	 */
+	public TileSet getDependencies() {
+		return this.dependencies;
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the tiles this piece attacks, i.e. could capture on if an enemy piece stood there. Includes tiles
+	 * holding pieces of its own color. For every piece but pawns these are exactly the tiles looked at when 
+	 * validMoves was last computed.
+	 */
+	public TileSet getAttacks() {
+		return this.dependencies;
+	}
+	
+	/**
+	 * Getter.
+	 * 
+	 * @return the kind of piece this is.
+	 */
+	public abstract PieceType getType();
+	
 	/**
 	 * Getter.
 	 * 
@@ -173,29 +235,35 @@ public abstract class Piece extends Move {
 	 */
 	protected abstract boolean isValidMove (Tile newTile, Board board);
 	
+	/**
+	 * Abstract method to add every tile the piece can currently move to. Each piece walks only its own
+	 * directions (rays, jumps or forward tiles) rather than testing every tile on the board.
+	 * Only called while the piece is on the board.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set every tile looked at while generating is added to.
+	 */
+	protected abstract void generateMoves (Board board, TileSet moves, TileSet dependencies);
+	
 	/**
 	 * Populates validMoves field with all tiles the piece can currently move to legally
 	 * 
 	 * @param board The game board the piece and tile are on.
 	 */
 	public void updateValidMoves (Board board) {
-		HashSet<Tile> newValidMoves = new HashSet<>();
-		Tile currTile = getTile();
-		// if this piece is not on the board, no moves are valid
-		if (currTile == null) {
-			setValidMoves(newValidMoves);
-			return;
+		// valid moves are refilled in place. Dependencies get a new set, as the dependency index and 
+		// attack map still hold the old one to unregister it.
+		if (validMoves.getBoard() == board) {
+			validMoves.clear();
+		} else {
+			validMoves = new TileSet(board);
 		}
-		Tile newMove;
-		// check every tile to see if valid, TODO: optimize this if time allows
-		for (int i = 0; i < board.getRanks(); i++) {
-			for (int j = 0; j < board.getFiles(); j++) {
-				newMove = board.getTile(i, j);
-				if (isValidMove(newMove,board)) {
-					newValidMoves.add(newMove);
-				}
-			}
+		TileSet newDependencies = new TileSet(board);
+		// if this piece is not on the board, no moves are valid
+		if (getTile() != null) {
+			generateMoves(board, validMoves, newDependencies);
 		}
-		setValidMoves(newValidMoves);
+		this.dependencies = newDependencies;
 	}
 }
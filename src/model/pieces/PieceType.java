@@ -0,0 +1,49 @@
+package model.pieces;
+
+import model.game.Tile;
+import model.player.Color;
+
+/**
+ * PieceType --- Enum of the kinds of piece, used where a compact code is needed instead of a Piece object
+ * (e.g. indexing the bitboards of a board).
+ * @author Lance
+ *
+ */
+public enum PieceType {
+	PAWN,
+	BEROLINA_PAWN,
+	KNIGHT,
+	BISHOP,
+	ROOK,
+	QUEEN,
+	PRINCESS,
+	KING;
+	
+	/**
+	 * Create a new piece of this type and place it on tile.
+	 * 
+	 * @param tile The board tile to place the piece on.
+	 * @param color The color (black or white) indicating the player that controls the piece.
+	 * @return the new piece.
+	 */
+	public Piece create(Tile tile, Color color) {
+		switch (this) {
+		case PAWN:
+			return new Pawn(tile, color);
+		case BEROLINA_PAWN:
+			return new BerolinaPawn(tile, color);
+		case KNIGHT:
+			return new Knight(tile, color);
+		case BISHOP:
+			return new Bishop(tile, color);
+		case ROOK:
+			return new Rook(tile, color);
+		case QUEEN:
+			return new Queen(tile, color);
+		case PRINCESS:
+			return new Princess(tile, color);
+		default:
+			return new King(tile, color);
+		}
+	}
+}
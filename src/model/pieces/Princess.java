@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -21,6 +22,15 @@ public class Princess extends Piece {
 		super(tile, color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.PRINCESS
+	 */
+	public PieceType getType() {
+		return PieceType.PRINCESS;
+	}
+	
 	/**
 	 * Check whether the proposed move is valid. Princesses can make same moves as a bishop or knight.
 	 * 
@@ -32,5 +42,16 @@ public class Princess extends Piece {
 		// Queen can make the same moves the Bishop or Rook can
 		return (isValidLMove(this, newTile, board) || isValidDiagonolMove(this, newTile, board));
 	}
-
+	
+	/**
+	 * Add every tile the Princess can move to. Slides along each diagonal until blocked, then adds the knight jumps.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addBishopMoves(this, board, moves, dependencies);
+		addKnightMoves(this, board, moves, dependencies);
+	}
 }
@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -21,6 +22,15 @@ public class Queen extends Piece {
 		super(tile, color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.QUEEN
+	 */
+	public PieceType getType() {
+		return PieceType.QUEEN;
+	}
+	
 	/**
 	 * Check whether the proposed move is valid. Queens's can move along file, rank, or diagonal,
 	 * but cannot jump over other pieces.
@@ -33,4 +43,16 @@ public class Queen extends Piece {
 		// Queen can make the same moves the Bishop or Rook can
 		return (isValidDiagonolMove(this, newTile, board) || isValidVerticalOrHorizontalMove(this, newTile, board));
 	}
+	
+	/**
+	 * Add every tile the Queen can move to. Slides along each rank, file and diagonal until blocked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addRookMoves(this, board, moves, dependencies);
+		addBishopMoves(this, board, moves, dependencies);
+	}
 }
@@ -2,6 +2,7 @@ package model.pieces;
 
 import model.game.Board;
 import model.game.Tile;
+import model.game.TileSet;
 import model.player.Color;
 
 /**
@@ -21,6 +22,15 @@ public class Rook extends Piece {
 		super(tile, color);
 	}
 	
+	/**
+	 * Getter.
+	 * 
+	 * @return PieceType.ROOK
+	 */
+	public PieceType getType() {
+		return PieceType.ROOK;
+	}
+	
 	/**
 	 * Check whether the proposed move is valid. Rook's can move
 	 * along rank or file, but cannot jump over pieces.
@@ -33,4 +43,15 @@ public class Rook extends Piece {
 		return isValidVerticalOrHorizontalMove(this, newTile, board);
 		
 	}
+	
+	/**
+	 * Add every tile the Rook can move to. Slides along each rank and file until blocked.
+	 * 
+	 * @param board The game board the piece and tile are on.
+	 * @param moves The set the reachable tiles are added to.
+	 * @param dependencies The set the tiles looked at are added to.
+	 */
+	protected void generateMoves (Board board, TileSet moves, TileSet dependencies) {
+		addRookMoves(this, board, moves, dependencies);
+	}
 }
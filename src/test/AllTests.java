@@ -9,6 +9,13 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({BerolinaPawnTests.class, BishopTests.class, BoardTests.class, ChessGameTests.class, KingTests.class, KnightTests.class, 
-	PawnTests.class, PieceTests.class, PrincessTests.class, QueenTests.class, RookTests.class, TileTests.class, ControllerTests.class, CommandTests.class, PlayerTests.class})
+	PawnTests.class, PieceTests.class, PrincessTests.class, QueenTests.class, RookTests.class, TileTests.class, ControllerTests.class, CommandTests.class, PlayerTests.class,
+	MoveDependencyIndexTests.class, BitboardBoardTests.class, SliderAttacksTests.class, LeaperAttacksTests.class,
+	AttackMapTests.class, LegalMovesTests.class, TranspositionTableTests.class,
+	PerftTests.class, MoveListTests.class, MoveGeneratorTests.class,
+	TileSetTests.class, PieceListTests.class, LineTablesTests.class,
+	MailboxMoveGeneratorTests.class, CompactGameTests.class, MemoryBenchmarkTests.class,
+	SearchTests.class, TimeManagerTests.class,
+	SmpSearchTests.class, MoveOrderingTests.class, StaticExchangeTests.class})
 public class AllTests {   
 }  
\ No newline at end of file
@@ -0,0 +1,104 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.*;
+
+import model.game.AttackMap;
+import model.game.Board;
+import model.game.ChessGame;
+import model.pieces.BerolinaPawn;
+import model.pieces.Pawn;
+import model.pieces.Rook;
+import model.player.Color;
+
+public class AttackMapTests {
+
+	Board board;
+	AttackMap attackMap;
+	
+	@Before
+	public void setUp() {
+		board = new Board(8,8);
+		attackMap = new AttackMap(board);
+	}
+	
+	/*
+	 * test that a rook attacks along its rays up to and including the first blocker, of either color.
+	 */
+	@Test
+	public void TestRookAttacks() {
+		Rook rook = new Rook(board.getTile(0, 0), Color.WHITE);
+		Pawn pawn = new Pawn(board.getTile(0, 3), Color.WHITE);
+		rook.updateValidMoves(board);
+		attackMap.update(rook);
+		assertTrue(attackMap.isAttacked(Color.WHITE, board.getTile(7, 0)));
+		assertTrue(attackMap.isAttacked(Color.WHITE, board.getTile(0, 3)));
+		assertFalse(attackMap.isAttacked(Color.WHITE, board.getTile(0, 4)));
+		assertFalse(attackMap.isAttacked(Color.BLACK, board.getTile(7, 0)));
+		// moving the blocker away and updating the rook extends its attacks
+		pawn.movePiece(board.getTile(2, 3));
+		rook.updateValidMoves(board);
+		attackMap.update(rook);
+		assertTrue(attackMap.isAttacked(Color.WHITE, board.getTile(0, 7)));
+	}
+	
+	/*
+	 * test that pawns attack diagonally and BerolinaPawns attack straight ahead, not where they push to.
+	 */
+	@Test
+	public void TestPawnAttacks() {
+		Pawn pawn = new Pawn(board.getTile(1, 1), Color.WHITE);
+		BerolinaPawn berolinaPawn = new BerolinaPawn(board.getTile(6, 5), Color.BLACK);
+		pawn.updateValidMoves(board);
+		berolinaPawn.updateValidMoves(board);
+		attackMap.update(pawn);
+		attackMap.update(berolinaPawn);
+		assertTrue(attackMap.isAttacked(Color.WHITE, board.getTile(2, 0)));
+		assertTrue(attackMap.isAttacked(Color.WHITE, board.getTile(2, 2)));
+		assertFalse(attackMap.isAttacked(Color.WHITE, board.getTile(2, 1)));
+		assertFalse(attackMap.isAttacked(Color.WHITE, board.getTile(3, 1)));
+		assertTrue(attackMap.isAttacked(Color.BLACK, board.getTile(5, 5)));
+		assertFalse(attackMap.isAttacked(Color.BLACK, board.getTile(5, 4)));
+	}
+	
+	/*
+	 * test that attackers are counted, and a captured piece stops attacking.
+	 */
+	@Test
+	public void TestCountsAndCapture() {
+		Rook rookLeft = new Rook(board.getTile(0, 0), Color.BLACK);
+		Rook rookRight = new Rook(board.getTile(0, 7), Color.BLACK);
+		rookLeft.updateValidMoves(board);
+		rookRight.updateValidMoves(board);
+		attackMap.update(rookLeft);
+		attackMap.update(rookRight);
+		assertEquals(2, attackMap.getAttackerCount(Color.BLACK, board.getTile(0, 4)));
+		rookLeft.movePiece(null);
+		rookLeft.updateValidMoves(board);
+		attackMap.update(rookLeft);
+		assertEquals(1, attackMap.getAttackerCount(Color.BLACK, board.getTile(0, 4)));
+		assertFalse(attackMap.isAttacked(Color.BLACK, board.getTile(5, 0)));
+	}
+	
+	/*
+	 * test that a game keeps its attack map up to date as moves are made.
+	 */
+	@Test
+	public void TestFollowsGame() {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		ChessGame chessGame = new ChessGame(8,8,false);
+		Board board = chessGame.getBoard();
+		// at the start only the third rank is attacked by white
+		assertTrue(chessGame.getAttackMap().isAttacked(Color.WHITE, board.getTile(2, 4)));
+		assertFalse(chessGame.getAttackMap().isAttacked(Color.WHITE, board.getTile(3, 4)));
+		// moving the king's pawn lets the queen see along the diagonal
+		chessGame.whiteMove(board.getTile(1, 4).getOccupant(), board.getTile(3, 4));
+		assertTrue(chessGame.getAttackMap().isAttacked(Color.WHITE, board.getTile(4, 7)));
+		assertTrue(chessGame.getAttackMap().isAttacked(Color.WHITE, board.getTile(4, 3)));
+		System.setOut(out);
+	}
+}
@@ -0,0 +1,143 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import model.game.BitboardBoard;
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.Tile;
+import model.game.WideBitboard;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+import model.pieces.Queen;
+import model.player.Color;
+
+public class BitboardBoardTests {
+
+	ChessGame chessGame;
+	Board board;
+	BitboardBoard bitboards;
+	
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		board = chessGame.getBoard();
+		bitboards = board.getBitboards();
+	}
+	
+	/*
+	 * test that the bitboards answer the same occupancy queries as the tiles.
+	 */
+	@Test
+	public void TestMatchesTilesAtStart() {
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				Tile tile = board.getTile(i, j);
+				assertEquals(tile.isEmpty(), bitboards.isEmpty(i, j));
+				assertEquals(tile.occupiedByWhite(), bitboards.occupiedByWhite(i, j));
+				assertEquals(tile.occupiedByBlack(), bitboards.occupiedByBlack(i, j));
+			}
+		}
+		assertEquals(16, Long.bitCount(bitboards.getPiecesLo(Color.WHITE)));
+		assertEquals(16, Long.bitCount(bitboards.getPiecesLo(Color.BLACK)));
+		assertEquals(8, Long.bitCount(bitboards.getPiecesLo(PieceType.PAWN, Color.WHITE)));
+		// an 8x8 board never uses the hi word
+		assertEquals(0, bitboards.getOccupiedHi());
+		assertEquals(PieceType.KING, bitboards.getType(bitboards.square(0, 4)));
+	}
+	
+	/*
+	 * test that the bitboards follow moves and captures.
+	 */
+	@Test
+	public void TestFollowsMoves() {
+		Piece whitePawn = board.getTile(1, 4).getOccupant();
+		chessGame.whiteMove(whitePawn, board.getTile(3, 4));
+		assertTrue(bitboards.isEmpty(1, 4));
+		assertTrue(bitboards.occupiedByWhite(3, 4));
+		// place a black queen to be captured
+		new Queen(board.getTile(4, 3), Color.BLACK);
+		assertEquals(PieceType.QUEEN, bitboards.getType(bitboards.square(4, 3)));
+		whitePawn.move(board.getTile(4, 3), board);
+		assertTrue(bitboards.occupiedByWhite(4, 3));
+		assertEquals(PieceType.PAWN, bitboards.getType(bitboards.square(4, 3)));
+		// the captured queen should be gone, leaving black's original 16 pieces
+		assertEquals(16, Long.bitCount(bitboards.getPiecesLo(Color.BLACK)));
+	}
+	
+	/*
+	 * test that a piece removed from the board is removed from the bitboards.
+	 */
+	@Test
+	public void TestRemovePiece() {
+		board.getTile(0, 3).getOccupant().movePiece(null);
+		assertTrue(bitboards.isEmpty(0, 3));
+		assertEquals(0, bitboards.getPiecesLo(PieceType.QUEEN, Color.WHITE));
+	}
+	
+	/*
+	 * test that a Tile view can be built from the bitboards alone.
+	 */
+	@Test
+	public void TestCreateBoard() {
+		BitboardBoard empty = new BitboardBoard(8, 8);
+		empty.setPiece(empty.square(2, 2), PieceType.PAWN, Color.BLACK);
+		Board view = empty.createBoard();
+		assertTrue(view.getTile(2, 2).getOccupant() instanceof Pawn);
+		assertTrue(view.getTile(2, 2).occupiedByBlack());
+		assertTrue(view.getBitboards().occupiedByBlack(2, 2));
+	}
+	
+	/*
+	 * test that the custom 9x9 game is mirrored, including the tiles held in the hi word.
+	 */
+	@Test
+	public void TestCustomGame() {
+		ChessGame custom = new ChessGame(9,9,true);
+		BitboardBoard wide = custom.getBoard().getBitboards();
+		for (int i = 0; i < 9; i++) {
+			for (int j = 0; j < 9; j++) {
+				Tile tile = custom.getBoard().getTile(i, j);
+				assertEquals(tile.isEmpty(), wide.isEmpty(i, j));
+				assertEquals(tile.occupiedByWhite(), wide.occupiedByWhite(i, j));
+				assertEquals(tile.occupiedByBlack(), wide.occupiedByBlack(i, j));
+			}
+		}
+		// black's back rank (tiles 72-80) and all but the first pawn (tiles 64-71) live in the hi word
+		assertEquals(17, Long.bitCount(wide.getPiecesHi(Color.BLACK)));
+		assertEquals(1, Long.bitCount(wide.getPiecesLo(Color.BLACK)));
+		assertEquals(PieceType.PRINCESS, wide.getType(wide.square(8, 4)));
+		assertEquals(PieceType.BEROLINA_PAWN, wide.getType(wide.square(7, 1)));
+		assertEquals(1, Long.bitCount(wide.getPiecesLo(PieceType.PRINCESS, Color.WHITE)));
+	}
+	
+	/*
+	 * test that shifts drop tiles that would wrap around the edge files or leave the board.
+	 */
+	@Test
+	public void TestShiftEdges() {
+		BitboardBoard wide = new BitboardBoard(9, 9);
+		// a tile on the last file, moved one file right, falls off the board
+		int lastFile = wide.square(6, 8);
+		assertEquals(0, wide.shiftLo(WideBitboard.bitLo(lastFile), WideBitboard.bitHi(lastFile), 0, 1));
+		assertEquals(0, wide.shiftHi(WideBitboard.bitLo(lastFile), WideBitboard.bitHi(lastFile), 0, 1));
+		// a tile in the lo word moved up two ranks crosses into the hi word
+		long lo = wide.shiftLo(WideBitboard.bitLo(lastFile), WideBitboard.bitHi(lastFile), 2, -1);
+		long hi = wide.shiftHi(WideBitboard.bitLo(lastFile), WideBitboard.bitHi(lastFile), 2, -1);
+		assertTrue(WideBitboard.contains(lo, hi, wide.square(8, 7)));
+		assertEquals(1, WideBitboard.count(lo, hi));
+		// a tile on the top rank moved up falls off the board
+		int topRank = wide.square(8, 0);
+		assertEquals(0, wide.shiftHi(WideBitboard.bitLo(topRank), WideBitboard.bitHi(topRank), 1, 0));
+	}
+	
+	/*
+	 * test that boards too large for 128 bits have no bitboards.
+	 */
+	@Test
+	public void TestLargeBoardHasNoBitboards() {
+		assertEquals(null, new Board(10, 25).getBitboards());
+	}
+}
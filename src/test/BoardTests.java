@@ -4,6 +4,11 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 
 import model.game.Board;
+import model.game.PieceCode;
+import model.game.Tile;
+import model.pieces.Pawn;
+import model.pieces.Rook;
+import model.player.Color;
 
 public class BoardTests {
 
@@ -57,6 +62,76 @@ public class BoardTests {
 		Board board = new Board(ranks,files);
 		assertEquals(board.getTile(1, 9), null);
 	}
-
-
+	
+	@Test
+	public void TestGetTileBySquare() {
+		Board board = new Board(9,9);
+		assertEquals(board.getTile(0, 0), board.getTile(0));
+		assertEquals(board.getTile(4, 7), board.getTile(4 * 9 + 7));
+		assertEquals(board.getTile(8, 8), board.getTile(80));
+	}
+	
+	@Test
+	public void TestMailboxSteps() {
+		Board board = new Board(8,8);
+		int e4 = board.getMailboxIndex(3, 4);
+		assertEquals(board.getTile(4, 4), board.getTile(board.getSquare(e4 + board.getOffset(1, 0))));
+		assertEquals(board.getTile(1, 3), board.getTile(board.getSquare(e4 + board.getOffset(-2, -1))));
+		assertEquals(board.getTile(2, 6), board.getTile(board.getSquare(e4 + board.getOffset(-1, 2))));
+	}
+	
+	@Test
+	public void TestMailboxBorder() {
+		int[][] sizes = {{8, 8}, {9, 9}, {5, 12}, {14, 2}};
+		int[][] jumps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {-1, -1}, {2, 1}, {-2, -1}, {1, 2}, {-1, -2}, {2, -1}, {-1, 2}};
+		for (int[] size : sizes) {
+			Board board = new Board(size[0], size[1]);
+			// every step of up to two ranks and files lands on the right tile, or on the border if off the board
+			for (int rank = 0; rank < size[0]; rank++) {
+				for (int file = 0; file < size[1]; file++) {
+					for (int[] jump : jumps) {
+						int square = board.getSquare(board.getMailboxIndex(rank, file) + board.getOffset(jump[0], jump[1]));
+						Tile expected = board.getTile(rank + jump[0], file + jump[1]);
+						if (expected == null) {
+							assertEquals(Board.OFFBOARD, square);
+						} else {
+							assertEquals(expected, board.getTile(square));
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void TestCodesFollowTiles() {
+		Board board = new Board(8,8);
+		int e2 = board.getMailboxIndex(1, 4);
+		assertEquals(PieceCode.EMPTY, board.getCodes()[e2]);
+		assertEquals(PieceCode.BORDER, board.getCodes()[board.getMailboxIndex(0, 0) - 1]);
+		Pawn pawn = new Pawn(board.getTile(1, 4), Color.BLACK);
+		board.getTile(1, 4).setOccupant(pawn);
+		assertEquals(PieceCode.PAWN | PieceCode.BLACK | PieceCode.UNMOVED, board.getCodes()[e2]);
+		// the unmoved bit goes with the pawn's first move flag
+		pawn.setFirstMove(false);
+		assertEquals(PieceCode.PAWN | PieceCode.BLACK, board.getCodes()[e2]);
+		board.getTile(1, 4).setOccupant(new Rook(board.getTile(1, 4), Color.WHITE));
+		assertEquals(PieceCode.ROOK, board.getCodes()[e2]);
+		board.getTile(1, 4).setOccupant(null);
+		assertEquals(PieceCode.EMPTY, board.getCodes()[e2]);
+	}
+	
+	@Test
+	public void TestUnmovedFollowsFirstMove() {
+		Board board = new Board(8,8);
+		Pawn pawn = new Pawn(board.getTile(1, 4), Color.WHITE);
+		board.getTile(1, 4).setOccupant(pawn);
+		long unmovedKey = board.getKey();
+		pawn.setFirstMove(false);
+		assertTrue(unmovedKey != board.getKey());
+		assertEquals(0, board.getBitboards().getUnmovedLo());
+		pawn.setFirstMove(true);
+		assertEquals(unmovedKey, board.getKey());
+		assertEquals(1L << 12, board.getBitboards().getUnmovedLo());
+	}
 }
@@ -10,6 +10,7 @@ import org.junit.Test;
 
 import model.game.Board;
 import model.game.ChessGame;
+import model.game.PackedMove;
 import model.game.Tile;
 import model.pieces.BerolinaPawn;
 import model.pieces.Bishop;
@@ -678,4 +679,171 @@ public class ChessGameTests {
 		// no error messages should have been printed
 		assertEquals("", outContent.toString());	
 	}
+	
+	/*
+	 * test makeMove moves the piece and hands the turn over, and unmakeMove restores the position.
+	 */
+	@Test
+	public void TestMakeUnmakeMove() {
+		Piece pawn = board.getTile(1, 4).getOccupant();
+		chessGame.makeMove(PackedMove.of(12, 28));
+		assertEquals(pawn, board.getTile(3, 4).getOccupant());
+		assertEquals(board.getTile(3, 4), pawn.getTile());
+		assertTrue(board.getTile(1, 4).isEmpty());
+		assertFalse(pawn.getFirstMove());
+		assertEquals(Color.BLACK, chessGame.getPlayerTurn());
+		assertEquals(1, chessGame.getPly());
+		chessGame.unmakeMove();
+		assertEquals(pawn, board.getTile(1, 4).getOccupant());
+		assertTrue(board.getTile(3, 4).isEmpty());
+		assertTrue(pawn.getFirstMove());
+		assertEquals(Color.WHITE, chessGame.getPlayerTurn());
+		assertEquals(0, chessGame.getPly());
+	}
+	
+	/*
+	 * test a capture made with makeMove takes the piece off the board, and unmakeMove puts it back.
+	 */
+	@Test
+	public void TestMakeMoveCapture() {
+		chessGame.makeMove(PackedMove.of(12, 28));
+		chessGame.makeMove(PackedMove.of(51, 35));
+		Piece blackPawn = board.getTile(4, 3).getOccupant();
+		chessGame.makeMove(PackedMove.of(28, 35));
+		assertNull(blackPawn.getTile());
+		assertTrue(board.getTile(4, 3).getOccupant().isWhite());
+		assertFalse(chessGame.getBlackPieces().contains(blackPawn));
+		assertEquals(15, chessGame.getBlackPieces().size());
+		chessGame.unmakeMove();
+		assertEquals(blackPawn, board.getTile(4, 3).getOccupant());
+		assertEquals(board.getTile(4, 3), blackPawn.getTile());
+		assertTrue(chessGame.getBlackPieces().contains(blackPawn));
+		assertEquals(16, chessGame.getBlackPieces().size());
+	}
+	
+	/*
+	 * test a piece captured by playerMove is no longer one of its player's pieces.
+	 */
+	@Test
+	public void TestCaptureRemovesPiece() {
+		chessGame.whiteMove(board.getTile(1, 4).getOccupant(), board.getTile(3, 4));
+		chessGame.blackMove(board.getTile(6, 3).getOccupant(), board.getTile(4, 3));
+		Piece blackPawn = board.getTile(4, 3).getOccupant();
+		chessGame.whiteMove(board.getTile(3, 4).getOccupant(), board.getTile(4, 3));
+		assertFalse(chessGame.getBlackPieces().contains(blackPawn));
+		assertEquals(15, chessGame.getBlackPieces().size());
+		for (Piece p : chessGame.getBlackPieces()) {
+			assertNotNull(p.getTile());
+		}
+		// putting it back, as undoing the move does, returns it to the list
+		board.getTile(4, 3).getOccupant().movePiece(board.getTile(3, 4));
+		blackPawn.movePiece(board.getTile(4, 3));
+		chessGame.updateAffectedPieces(board.getTile(3, 4), board.getTile(4, 3));
+		assertTrue(chessGame.getPieces(Color.BLACK).contains(blackPawn));
+		assertEquals(16, chessGame.getBlackPieces().size());
+	}
+	
+	/*
+	 * test valid moves and check detection catch up with moves made by makeMove.
+	 */
+	@Test
+	public void TestMakeMoveRefreshesValidMoves() {
+		// fool's mate
+		chessGame.makeMove(PackedMove.of(13, 21));
+		chessGame.makeMove(PackedMove.of(52, 36));
+		chessGame.makeMove(PackedMove.of(14, 30));
+		chessGame.makeMove(PackedMove.of(59, 31));
+		assertTrue(chessGame.kingInCheck(chessGame.getWhiteKing()));
+		assertTrue(chessGame.kingInCheckmate(chessGame.getWhiteKing()));
+		assertTrue(board.getTile(3, 7).getOccupant().getValidMoves().contains(board.getTile(0, 4)));
+		chessGame.unmakeMove();
+		assertFalse(chessGame.kingInCheck(chessGame.getWhiteKing()));
+		assertTrue(board.getTile(7, 3).getOccupant().getValidMoves().contains(board.getTile(3, 7)));
+	}
+	
+	/*
+	 * test unmakeMove without a move to take back is rejected.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void TestUnmakeWithoutMove() {
+		chessGame.unmakeMove();
+	}
+	
+	/*
+	 * test the same position reached by different move orders has the same key.
+	 */
+	@Test
+	public void TestKeyTransposition() {
+		ChessGame other = new ChessGame(8,8,false);
+		assertEquals(other.getKey(), chessGame.getKey());
+		// knights out and back again
+		chessGame.makeMove(PackedMove.of(12, 28));
+		chessGame.makeMove(PackedMove.of(62, 45));
+		chessGame.makeMove(PackedMove.of(6, 21));
+		chessGame.makeMove(PackedMove.of(45, 62));
+		chessGame.makeMove(PackedMove.of(21, 6));
+		other.makeMove(PackedMove.of(12, 28));
+		assertEquals(other.getKey(), chessGame.getKey());
+		// but not the same player to move
+		other.makeMove(PackedMove.of(62, 45));
+		assertTrue(other.getKey() != chessGame.getKey());
+	}
+	
+	/*
+	 * test the key tells apart pawns that have moved from pawns that have not.
+	 */
+	@Test
+	public void TestKeyFirstMove() {
+		long start = chessGame.getKey();
+		Piece pawn = board.getTile(1, 0).getOccupant();
+		pawn.setFirstMove(false);
+		assertTrue(start != chessGame.getKey());
+		pawn.setFirstMove();
+		assertEquals(start, chessGame.getKey());
+	}
+	
+	/*
+	 * test the key is restored by unmakeMove and follows moves made with playerMove.
+	 */
+	@Test
+	public void TestKeyFollowsMoves() {
+		long start = chessGame.getKey();
+		chessGame.makeMove(PackedMove.of(12, 28));
+		long afterMove = chessGame.getKey();
+		assertTrue(start != afterMove);
+		chessGame.unmakeMove();
+		assertEquals(start, chessGame.getKey());
+		chessGame.whiteMove(board.getTile(1, 4).getOccupant(), board.getTile(3, 4));
+		assertEquals(afterMove, chessGame.getKey());
+	}
+	
+	/*
+	 * test boards too large for bitboards keep their key through a move and its undo.
+	 */
+	@Test
+	public void TestKeyOnLargeBoard() {
+		chessGame = new ChessGame(10, 25, false);
+		long start = chessGame.getKey();
+		chessGame.makeMove(PackedMove.of(25, 50));
+		assertTrue(start != chessGame.getKey());
+		chessGame.unmakeMove();
+		assertEquals(start, chessGame.getKey());
+	}
+	
+	/*
+	 * test a copied game has the same position and can be played on independently.
+	 */
+	@Test
+	public void TestCopy() {
+		chessGame.makeMove(PackedMove.of(12, 28));
+		ChessGame copy = new ChessGame(chessGame);
+		assertEquals(chessGame.getKey(), copy.getKey());
+		assertEquals(Color.BLACK, copy.getPlayerTurn());
+		assertEquals(16, copy.getBlackPieces().size());
+		assertFalse(copy.getBoard().getTile(3, 4).getOccupant().getFirstMove());
+		assertEquals(copy.getBoard().getTile(0, 4).getOccupant(), copy.getWhiteKing());
+		assertEquals(board.getTile(7, 6).getOccupant().getValidMoves().size(), copy.getBoard().getTile(7, 6).getOccupant().getValidMoves().size());
+		copy.makeMove(PackedMove.of(52, 36));
+		assertTrue(board.getTile(4, 4).isEmpty());
+	}
 }
@@ -0,0 +1,135 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.ChessGame;
+import model.game.CompactGame;
+import model.game.MailboxMoveGenerator;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.PieceCode;
+import model.pieces.PieceType;
+import model.player.Color;
+
+public class CompactGameTests {
+
+	CompactGame game;
+	MailboxMoveGenerator generator;
+	
+	@Before
+	public void setUp() {
+		game = new CompactGame(8, 8, false);
+		generator = new MailboxMoveGenerator(8, 8);
+	}
+	
+	/*
+	 * count the leaf nodes of the legal move tree, making moves on the compact game.
+	 */
+	private long perft(CompactGame game, MailboxMoveGenerator generator, int depth) {
+		MoveList moves = new MoveList();
+		game.generateLegalMoves(generator, moves);
+		if (depth == 1) {
+			return moves.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int undo = game.makeMove(moves.get(i));
+			nodes += perft(game, generator, depth - 1);
+			game.unmakeMove(moves.get(i), undo);
+		}
+		return nodes;
+	}
+	
+	/*
+	 * test the starting position has the pieces of the standard setup.
+	 */
+	@Test
+	public void TestStart() {
+		assertEquals(Color.WHITE, game.getPlayerTurn());
+		assertEquals(PieceType.KING, game.getType(0, 4));
+		assertEquals(PieceType.QUEEN, game.getType(7, 3));
+		assertNull(game.getType(4, 4));
+		assertEquals(PieceCode.PAWN | PieceCode.BLACK | PieceCode.UNMOVED, game.getCode(6, 0));
+	}
+	
+	/*
+	 * test the move counts match the known perft counts, for both setups.
+	 */
+	@Test
+	public void TestPerft() {
+		assertEquals(8902, perft(game, generator, 3));
+		CompactGame custom = new CompactGame(9, 9, true);
+		assertEquals(28848, perft(custom, new MailboxMoveGenerator(9, 9), 3));
+	}
+	
+	/*
+	 * test making and unmaking a move updates and restores the codes and the player to move.
+	 */
+	@Test
+	public void TestMakeUnmake() {
+		CompactGame before = new CompactGame(game);
+		int move = PackedMove.of(12, 28);
+		int undo = game.makeMove(move);
+		assertEquals(Color.BLACK, game.getPlayerTurn());
+		assertEquals(PieceCode.PAWN, game.getCode(3, 4));
+		assertEquals(PieceCode.EMPTY, game.getCode(1, 4));
+		game.unmakeMove(move, undo);
+		assertEquals(Color.WHITE, game.getPlayerTurn());
+		for (int rank = 0; rank < 8; rank++) {
+			for (int file = 0; file < 8; file++) {
+				assertEquals(before.getCode(rank, file), game.getCode(rank, file));
+			}
+		}
+	}
+	
+	/*
+	 * test a position survives being turned into a ChessGame and back.
+	 */
+	@Test
+	public void TestRoundTrip() {
+		ChessGame chessGame = new ChessGame(8, 8, false);
+		chessGame.makeMove(PackedMove.of(12, 28));
+		chessGame.makeMove(PackedMove.of(52, 36));
+		chessGame.makeMove(PackedMove.of(6, 21));
+		CompactGame compact = new CompactGame(chessGame);
+		assertEquals(Color.BLACK, compact.getPlayerTurn());
+		ChessGame copy = compact.toChessGame();
+		assertEquals(Color.BLACK, copy.getPlayerTurn());
+		assertTrue(Arrays.equals(chessGame.getBoard().getCodes(), copy.getBoard().getCodes()));
+		assertFalse(copy.getBoard().getTile(3, 4).getOccupant().getFirstMove());
+		assertTrue(copy.getBoard().getTile(1, 3).getOccupant().getFirstMove());
+		assertEquals(copy.getBoard().getTile(7, 4).getOccupant(), copy.getBlackKing());
+		assertEquals(16, copy.getBlackPieces().size());
+		assertEquals(chessGame.getLegalMoves(Color.BLACK).getPackedMoves().length,
+				copy.getLegalMoves(Color.BLACK).getPackedMoves().length);
+	}
+	
+	/*
+	 * test copies are played on independently.
+	 */
+	@Test
+	public void TestCopy() {
+		CompactGame copy = new CompactGame(game);
+		copy.makeMove(PackedMove.of(12, 28));
+		assertEquals(PieceCode.PAWN | PieceCode.UNMOVED, game.getCode(1, 4));
+		assertEquals(Color.WHITE, game.getPlayerTurn());
+		assertEquals(PieceCode.EMPTY, new CompactGame(8, 8, false).getCode(3, 4));
+	}
+	
+	/*
+	 * test check is seen from the codes.
+	 */
+	@Test
+	public void TestInCheck() {
+		// 1. e4 f5 2. Qh5+
+		game.makeMove(PackedMove.of(12, 28));
+		game.makeMove(PackedMove.of(53, 37));
+		assertFalse(game.inCheck(generator));
+		game.makeMove(PackedMove.of(3, 39));
+		assertTrue(game.inCheck(generator));
+	}
+}
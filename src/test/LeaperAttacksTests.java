@@ -0,0 +1,70 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import model.game.LeaperAttacks;
+import model.game.WideBitboard;
+import model.player.Color;
+
+public class LeaperAttacksTests {
+	
+	LeaperAttacks classic;
+	LeaperAttacks custom;
+	
+	@Before
+	public void setUp() {
+		classic = LeaperAttacks.forBoard(8, 8);
+		custom = LeaperAttacks.forBoard(9, 9);
+	}
+	
+	/*
+	 * test knight jumps in the middle and in a corner of the board.
+	 */
+	@Test
+	public void TestKnight() {
+		assertEquals(8, WideBitboard.count(classic.knightLo(27), classic.knightHi(27)));
+		assertEquals(2, WideBitboard.count(classic.knightLo(0), classic.knightHi(0)));
+		assertTrue(WideBitboard.contains(classic.knightLo(0), classic.knightHi(0), 10));
+		assertTrue(WideBitboard.contains(classic.knightLo(0), classic.knightHi(0), 17));
+		// jumps from the top corner of the 9x9 board land in the hi word
+		assertEquals(2, WideBitboard.count(custom.knightLo(80), custom.knightHi(80)));
+		assertTrue(WideBitboard.contains(custom.knightLo(80), custom.knightHi(80), 61));
+		assertTrue(WideBitboard.contains(custom.knightLo(80), custom.knightHi(80), 69));
+	}
+	
+	/*
+	 * test king steps do not wrap around the edge files.
+	 */
+	@Test
+	public void TestKing() {
+		assertEquals(8, WideBitboard.count(classic.kingLo(27), classic.kingHi(27)));
+		assertEquals(5, WideBitboard.count(classic.kingLo(8), classic.kingHi(8)));
+		assertFalse(WideBitboard.contains(classic.kingLo(8), classic.kingHi(8), 7));
+		assertEquals(3, WideBitboard.count(custom.kingLo(8), custom.kingHi(8)));
+		assertFalse(WideBitboard.contains(custom.kingLo(8), custom.kingHi(8), 9));
+	}
+	
+	/*
+	 * test forward diagonals point up the board for white and down for black.
+	 */
+	@Test
+	public void TestPawnDiagonals() {
+		assertTrue(WideBitboard.contains(classic.pawnDiagonalLo(Color.WHITE, 9), classic.pawnDiagonalHi(Color.WHITE, 9), 16));
+		assertTrue(WideBitboard.contains(classic.pawnDiagonalLo(Color.WHITE, 9), classic.pawnDiagonalHi(Color.WHITE, 9), 18));
+		assertEquals(2, WideBitboard.count(classic.pawnDiagonalLo(Color.BLACK, 9), classic.pawnDiagonalHi(Color.BLACK, 9)));
+		assertTrue(WideBitboard.contains(classic.pawnDiagonalLo(Color.BLACK, 9), classic.pawnDiagonalHi(Color.BLACK, 9), 0));
+		// an edge file only has one diagonal, and the last rank has none
+		assertEquals(1, WideBitboard.count(custom.pawnDiagonalLo(Color.WHITE, 9), custom.pawnDiagonalHi(Color.WHITE, 9)));
+		assertEquals(0, WideBitboard.count(custom.pawnDiagonalLo(Color.WHITE, 76), custom.pawnDiagonalHi(Color.WHITE, 76)));
+	}
+	
+	/*
+	 * test that tables are built once per board size and shared.
+	 */
+	@Test
+	public void TestSharedPerSize() {
+		assertSame(classic, LeaperAttacks.forBoard(8, 8));
+		assertNotSame(classic, custom);
+	}
+}
@@ -0,0 +1,155 @@
+package test;
+import static org.junit.Assert.*;
+import static test.TestGames.move;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.LegalMoves;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.Tile;
+import model.pieces.Piece;
+import model.player.Color;
+
+public class LegalMovesTests {
+
+	Board board;
+	ChessGame chessGame;
+	private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+	
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		board = chessGame.getBoard();
+		System.setOut(new PrintStream(outContent));
+	}
+	
+	@After
+	public void cleanUpStreams() {
+	    System.setOut(null);
+	}
+	
+	/*
+	 * test every piece can make all its valid moves at the start of the game.
+	 */
+	@Test
+	public void TestStart() {
+		LegalMoves legalMoves = chessGame.getLegalMoves(Color.WHITE);
+		int count = 0;
+		for (HashSet<Tile> tiles : legalMoves.getAllLegalMoves().values()) {
+			count += tiles.size();
+		}
+		assertEquals(20, count);
+		assertTrue(legalMoves.getCheckers().isEmpty());
+	}
+	
+	/*
+	 * test a knight pinned to its king by a bishop has no legal moves.
+	 */
+	@Test
+	public void TestPinnedPiece() {
+		move(chessGame, 1, 3, 3, 3);
+		move(chessGame, 6, 4, 4, 4);
+		move(chessGame, 0, 1, 2, 2);
+		move(chessGame, 7, 5, 3, 1);
+		Piece knight = board.getTile(2, 2).getOccupant();
+		LegalMoves legalMoves = chessGame.getLegalMoves(Color.WHITE);
+		assertTrue(legalMoves.isPinned(knight));
+		assertFalse(knight.getValidMoves().isEmpty());
+		assertTrue(legalMoves.getLegalMoves(knight).isEmpty());
+		assertFalse(legalMoves.isPinned(board.getTile(0, 6).getOccupant()));
+	}
+	
+	/*
+	 * test that in check only moves answering the check are legal.
+	 */
+	@Test
+	public void TestEvasions() {
+		move(chessGame, 1, 4, 3, 4);
+		move(chessGame, 6, 5, 5, 5);
+		move(chessGame, 0, 3, 4, 7);
+		LegalMoves legalMoves = chessGame.getLegalMoves(Color.BLACK);
+		assertEquals(1, legalMoves.getCheckers().size());
+		// the king cannot step onto the checking diagonal, so blocking with the pawn is the only answer
+		HashMap<Piece, HashSet<Tile>> allMoves = legalMoves.getAllLegalMoves();
+		assertEquals(1, allMoves.size());
+		HashSet<Tile> pawnMoves = allMoves.get(board.getTile(6, 6).getOccupant());
+		assertEquals(1, pawnMoves.size());
+		assertTrue(pawnMoves.contains(board.getTile(5, 6)));
+	}
+	
+	/*
+	 * test the king cannot step away from a checking queen along the queen's line.
+	 */
+	@Test
+	public void TestKingCannotRetreatAlongCheck() {
+		move(chessGame, 1, 4, 3, 4);
+		move(chessGame, 6, 4, 4, 4);
+		move(chessGame, 0, 4, 1, 4);
+		move(chessGame, 7, 3, 4, 6);
+		move(chessGame, 1, 4, 2, 3);
+		move(chessGame, 4, 6, 2, 6);
+		Piece king = chessGame.getWhiteKing();
+		LegalMoves legalMoves = chessGame.getLegalMoves(Color.WHITE);
+		// the tile behind the king is not attacked while the king blocks it
+		assertFalse(chessGame.getAttackMap().isAttacked(Color.BLACK, board.getTile(2, 2)));
+		assertTrue(king.getValidMoves().contains(board.getTile(2, 2)));
+		assertFalse(legalMoves.getLegalMoves(king).contains(board.getTile(2, 2)));
+		assertTrue(legalMoves.getLegalMoves(king).contains(board.getTile(1, 4)));
+		// blocking with the knight is legal
+		assertTrue(legalMoves.getLegalMoves(board.getTile(0, 6).getOccupant()).contains(board.getTile(2, 5)));
+	}
+	
+	/*
+	 * test checkmate is found even though the king still has pseudo-legal moves.
+	 */
+	@Test
+	public void TestCheckmate() {
+		move(chessGame, 1, 5, 2, 5);
+		move(chessGame, 6, 4, 4, 4);
+		move(chessGame, 1, 6, 3, 6);
+		move(chessGame, 7, 3, 3, 7);
+		assertTrue(chessGame.getWhiteKing().hasValidMove());
+		assertTrue(chessGame.kingInCheckmate(chessGame.getWhiteKing()));
+		assertFalse(chessGame.isStalemate());
+	}
+	
+	/*
+	 * test the legal moves on a board too large for bitboards, where pins and checks are followed without
+	 * line tables, match the mailbox generator's along random games.
+	 */
+	@Test
+	public void TestLargeBoard() {
+		Random random = new Random(5);
+		MoveList moves = new MoveList();
+		for (int game = 0; game < 3; game++) {
+			chessGame = new ChessGame(10, 25, false);
+			for (int ply = 0; ply < 150; ply++) {
+				HashSet<Integer> expected = new HashSet<>();
+				for (int move : chessGame.getLegalMoves(chessGame.getPlayerTurn()).getPackedMoves()) {
+					expected.add(move);
+				}
+				chessGame.generateLegalMoves(moves);
+				HashSet<Integer> generated = new HashSet<>();
+				for (int i = 0; i < moves.size(); i++) {
+					generated.add(PackedMove.of(PackedMove.from(moves.get(i)), PackedMove.to(moves.get(i))));
+				}
+				assertEquals(expected, generated);
+				if (moves.size() == 0) {
+					break;
+				}
+				chessGame.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+		}
+	}
+}
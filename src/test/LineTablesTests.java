@@ -0,0 +1,109 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.LineTables;
+import model.game.WideBitboard;
+
+public class LineTablesTests {
+
+	LineTables lines;
+	LineTables wideLines;
+	
+	@Before
+	public void setUp() {
+		lines = LineTables.forBoard(8, 8);
+		wideLines = LineTables.forBoard(9, 9);
+	}
+	
+	/*
+	 * test the tiles between two tiles on a file, rank and diagonal, from both ends.
+	 */
+	@Test
+	public void TestBetween() {
+		// a1 and a4: a2, a3
+		long expected = (1L << 8) | (1L << 16);
+		assertEquals(expected, lines.betweenLo(0, 24));
+		assertEquals(expected, lines.betweenLo(24, 0));
+		// a1 and h1: b1 to g1
+		assertEquals(0x7EL, lines.betweenLo(0, 7));
+		// c1 and f4: d2, e3
+		assertEquals((1L << 11) | (1L << 20), lines.betweenLo(2, 29));
+		// neighbours have nothing between them
+		assertEquals(0L, lines.betweenLo(0, 9));
+	}
+	
+	/*
+	 * test that tiles that are not on a common line have no between or line tiles.
+	 */
+	@Test
+	public void TestNotAligned() {
+		// a1 and b3 (knight jump)
+		assertEquals(0L, lines.betweenLo(0, 17));
+		assertEquals(0L, lines.lineLo(0, 17));
+		assertEquals(0L, lines.lineLo(0, 0));
+	}
+	
+	/*
+	 * test the full line through two tiles runs from edge to edge.
+	 */
+	@Test
+	public void TestLine() {
+		// c3 and e5 lie on the long diagonal a1-h8
+		long diagonal = 0x8040201008040201L;
+		assertEquals(diagonal, lines.lineLo(18, 36));
+		assertEquals(diagonal, lines.lineLo(63, 0));
+		// b1 and b5 lie on the b file
+		assertEquals(0x0202020202020202L, lines.lineLo(1, 33));
+	}
+	
+	/*
+	 * test the tables of a 9x9 board, whose tiles go past the lo word.
+	 */
+	@Test
+	public void TestWideBoard() {
+		// a1 (0) and a9 (72) on the a file: a2 to a8
+		long lo = 0;
+		long hi = 0;
+		for (int rank = 1; rank < 8; rank++) {
+			lo |= WideBitboard.bitLo(rank * 9);
+			hi |= WideBitboard.bitHi(rank * 9);
+		}
+		assertEquals(lo, wideLines.betweenLo(0, 72));
+		assertEquals(hi, wideLines.betweenHi(0, 72));
+		// i9 (80) and a1 (0) on the long diagonal
+		assertTrue(WideBitboard.contains(wideLines.lineLo(80, 40), wideLines.lineHi(80, 40), 0));
+		assertTrue(WideBitboard.contains(wideLines.betweenLo(80, 0), wideLines.betweenHi(80, 0), 70));
+		assertEquals(7, WideBitboard.count(wideLines.betweenLo(80, 0), wideLines.betweenHi(80, 0)));
+	}
+	
+	/*
+	 * test a path is clear only when no occupied tile is between its ends.
+	 */
+	@Test
+	public void TestIsClear() {
+		long occupied = (1L << 0) | (1L << 24) | (1L << 16);
+		assertFalse(lines.isClear(0, 24, occupied, 0L));
+		assertTrue(lines.isClear(0, 16, occupied, 0L));
+		assertTrue(lines.isClear(16, 24, occupied, 0L));
+	}
+	
+	/*
+	 * test tables are shared between boards of the same size.
+	 */
+	@Test
+	public void TestShared() {
+		assertSame(lines, LineTables.forBoard(8, 8));
+		assertTrue(lines != wideLines);
+	}
+	
+	/*
+	 * test boards too big for a bitboard are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void TestTooBig() {
+		LineTables.forBoard(12, 12);
+	}
+}
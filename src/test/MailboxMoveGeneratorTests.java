@@ -0,0 +1,144 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.MailboxMoveGenerator;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.PieceCode;
+import model.pieces.PieceType;
+import model.player.Color;
+
+public class MailboxMoveGeneratorTests {
+
+	ChessGame chessGame;
+	MailboxMoveGenerator generator;
+	
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		generator = new MailboxMoveGenerator(chessGame.getBoard());
+	}
+	
+	/*
+	 * count the leaf nodes of the legal move tree with the mailbox generator.
+	 */
+	private long perft(ChessGame game, MailboxMoveGenerator generator, int depth) {
+		MoveList moves = new MoveList();
+		generator.generateLegalMoves(game.getPlayerTurn(), moves);
+		if (depth == 1) {
+			return moves.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			game.makeMove(moves.get(i));
+			nodes += perft(game, generator, depth - 1);
+			game.unmakeMove();
+		}
+		return nodes;
+	}
+	
+	/*
+	 * test the type bits of the codes are numbered like PieceType.
+	 */
+	@Test
+	public void TestCodesMatchTypes() {
+		int[] codes = {PieceCode.PAWN, PieceCode.BEROLINA_PAWN, PieceCode.KNIGHT, PieceCode.BISHOP, PieceCode.ROOK,
+				PieceCode.QUEEN, PieceCode.PRINCESS, PieceCode.KING};
+		assertEquals(PieceType.values().length, codes.length);
+		for (PieceType type : PieceType.values()) {
+			assertEquals(type.ordinal() + 1, codes[type.ordinal()]);
+		}
+	}
+	
+	/*
+	 * test the move counts of the standard setup match the known perft counts.
+	 */
+	@Test
+	public void TestPerft() {
+		assertEquals(20, perft(chessGame, generator, 1));
+		assertEquals(400, perft(chessGame, generator, 2));
+		assertEquals(8902, perft(chessGame, generator, 3));
+	}
+	
+	/*
+	 * test the custom setup, with BerolinaPawns and Princesses, matches the bitboard generator.
+	 */
+	@Test
+	public void TestCustomPerft() {
+		ChessGame custom = new ChessGame(9, 9, true);
+		MailboxMoveGenerator customGenerator = new MailboxMoveGenerator(custom.getBoard());
+		assertEquals(30, perft(custom, customGenerator, 1));
+		assertEquals(900, perft(custom, customGenerator, 2));
+		assertEquals(28848, perft(custom, customGenerator, 3));
+	}
+	
+	/*
+	 * test the moves are recorded with their pieces and flags, as the bitboard generator records them.
+	 */
+	@Test
+	public void TestSameMovesAsBitboards() {
+		chessGame.makeMove(PackedMove.of(12, 28));
+		chessGame.makeMove(PackedMove.of(51, 35));
+		MoveList mailboxMoves = new MoveList();
+		MoveList bitboardMoves = new MoveList();
+		generator.generateLegalMoves(chessGame.getPlayerTurn(), mailboxMoves);
+		chessGame.generateLegalMoves(bitboardMoves);
+		HashSet<Integer> expected = new HashSet<>();
+		for (int i = 0; i < bitboardMoves.size(); i++) {
+			expected.add(bitboardMoves.get(i));
+		}
+		HashSet<Integer> actual = new HashSet<>();
+		for (int i = 0; i < mailboxMoves.size(); i++) {
+			actual.add(mailboxMoves.get(i));
+		}
+		assertEquals(expected, actual);
+		assertTrue(actual.contains(PackedMove.of(28, 35, PieceType.PAWN, PieceType.PAWN, 0)));
+	}
+	
+	/*
+	 * test a pinned piece may not leave its line and check is seen.
+	 */
+	@Test
+	public void TestPinAndCheck() {
+		// 1. e4 e5 2. Qh5 Nc6 3. Qxf7+: the king must take the queen or be left in check
+		chessGame.makeMove(PackedMove.of(12, 28));
+		chessGame.makeMove(PackedMove.of(52, 36));
+		chessGame.makeMove(PackedMove.of(3, 39));
+		chessGame.makeMove(PackedMove.of(57, 42));
+		chessGame.makeMove(PackedMove.of(39, 53));
+		assertTrue(generator.inCheck(Color.BLACK));
+		MoveList moves = new MoveList();
+		generator.generateLegalMoves(Color.BLACK, moves);
+		assertEquals(1, moves.size());
+		assertEquals(PackedMove.of(60, 53, PieceType.KING, PieceType.QUEEN, 0), moves.get(0));
+	}
+	
+	/*
+	 * test boards too large for bitboards get their moves from the mailbox generator.
+	 */
+	@Test
+	public void TestLargeBoard() {
+		ChessGame large = new ChessGame(10, 25, false);
+		MoveList moves = new MoveList();
+		large.generateLegalMoves(moves);
+		assertEquals(large.getLegalMoves(large.getPlayerTurn()).getPackedMoves().length, moves.size());
+		large.makeMove(moves.get(0));
+		large.generateLegalMoves(moves);
+		assertEquals(large.getLegalMoves(large.getPlayerTurn()).getPackedMoves().length, moves.size());
+	}
+	
+	/*
+	 * test boards with more tiles than a packed move can hold are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void TestTooLarge() {
+		new MailboxMoveGenerator(new Board(16, 17));
+	}
+}
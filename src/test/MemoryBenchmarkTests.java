@@ -0,0 +1,73 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import controller.MemoryBenchmark;
+import controller.MemoryBenchmark.Part;
+import controller.MoveCommand;
+import controller.MoveCommandManager;
+import model.game.ChessGame;
+
+public class MemoryBenchmarkTests {
+
+	ChessGame game;
+	MemoryBenchmark footprint;
+
+	@Before
+	public void setUp() {
+		game = new ChessGame(8, 8, false);
+		footprint = new MemoryBenchmark();
+	}
+
+	/*
+	 * sizes follow the compressed reference layout.
+	 */
+	@Test
+	public void TestShallowSize() {
+		assertEquals(16, MemoryBenchmark.shallowSize(new Object()));
+		assertEquals(40, MemoryBenchmark.shallowSize(new long[3]));
+		assertEquals(16, MemoryBenchmark.shallowSize(new byte[0]));
+		assertEquals(32, MemoryBenchmark.shallowSize(new Object[4]));
+	}
+
+	/*
+	 * each tile and piece of a new game is counted once.
+	 */
+	@Test
+	public void TestTilesAndPieces() {
+		footprint.add(game);
+		assertEquals(64, footprint.getObjects(Part.TILE));
+		assertEquals(32, footprint.getObjects(Part.PIECE));
+		assertEquals(64 * MemoryBenchmark.shallowSize(game.getBoard().getTile(0)), footprint.getBytes(Part.TILE));
+		assertTrue(footprint.getTotalBytes() > footprint.getBytes(Part.TILE) + footprint.getBytes(Part.PIECE));
+	}
+
+	/*
+	 * objects reached again are not counted twice.
+	 */
+	@Test
+	public void TestAddTwice() {
+		footprint.add(game);
+		long bytes = footprint.getTotalBytes();
+		footprint.add(game);
+		assertEquals(bytes, footprint.getTotalBytes());
+	}
+
+	/*
+	 * executed commands are counted in the history.
+	 */
+	@Test
+	public void TestHistoryGrows() {
+		MoveCommandManager history = new MoveCommandManager();
+		footprint.add(history);
+		long empty = footprint.getBytes(Part.HISTORY);
+		history.executeCommand(new MoveCommand(game, game.getBoard().getTile(1, 4), game.getBoard().getTile(3, 4)));
+		MemoryBenchmark after = new MemoryBenchmark();
+		after.add(history);
+		assertTrue(after.getBytes(Part.HISTORY) > empty);
+		// the command holds the game, so its tiles are reached and counted as tiles
+		assertEquals(64, after.getObjects(Part.TILE));
+	}
+}
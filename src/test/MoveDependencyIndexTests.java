@@ -0,0 +1,71 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import model.game.Board;
+import model.game.MoveDependencyIndex;
+import model.pieces.Knight;
+import model.pieces.Pawn;
+import model.pieces.Rook;
+import model.player.Color;
+
+public class MoveDependencyIndexTests {
+
+	Board board;
+	MoveDependencyIndex index;
+	Rook whiteRook;
+	Knight blackKnight;
+	
+	@Before
+	public void setUp() {
+		board = new Board(8,8);
+		index = new MoveDependencyIndex(board);
+		whiteRook = new Rook(board.getTile(0, 0), Color.WHITE);
+		blackKnight = new Knight(board.getTile(7, 7), Color.BLACK);
+		index.update(whiteRook);
+		index.update(blackKnight);
+	}
+	
+	/*
+	 * test that a rook depends on every tile along its rays.
+	 */
+	@Test
+	public void TestRookDependsOnRays() {
+		assertTrue(index.getAffectedBy(board.getTile(0, 5)).contains(whiteRook));
+		assertTrue(index.getAffectedBy(board.getTile(6, 0)).contains(whiteRook));
+		assertFalse(index.getAffectedBy(board.getTile(3, 3)).contains(whiteRook));
+	}
+	
+	/*
+	 * test that a knight only depends on its jump targets.
+	 */
+	@Test
+	public void TestKnightDependsOnTargets() {
+		assertTrue(index.getAffectedBy(board.getTile(5, 6)).contains(blackKnight));
+		assertTrue(index.getAffectedBy(board.getTile(6, 5)).contains(blackKnight));
+		assertFalse(index.getAffectedBy(board.getTile(6, 6)).contains(blackKnight));
+	}
+	
+	/*
+	 * test that a blocker shortens a ray and the tiles behind it are no longer dependencies.
+	 */
+	@Test
+	public void TestBlockerShortensRay() {
+		Pawn whitePawn = new Pawn(board.getTile(0, 3), Color.WHITE);
+		index.update(whiteRook);
+		index.update(whitePawn);
+		// rook now looks up to (and including) the pawn, but not past it
+		assertTrue(index.getAffectedBy(board.getTile(0, 3)).contains(whiteRook));
+		assertFalse(index.getAffectedBy(board.getTile(0, 5)).contains(whiteRook));
+		assertFalse(whiteRook.getValidMoves().contains(board.getTile(0, 3)));
+	}
+	
+	/*
+	 * test that pieces sitting on a changed tile are always affected.
+	 */
+	@Test
+	public void TestOccupantAffected() {
+		assertTrue(index.getAffectedBy(board.getTile(0, 0)).contains(whiteRook));
+	}
+}
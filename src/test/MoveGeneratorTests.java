@@ -0,0 +1,175 @@
+package test;
+import static org.junit.Assert.*;
+import static test.TestGames.move;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.pieces.PieceType;
+
+public class MoveGeneratorTests {
+
+	Board board;
+	ChessGame chessGame;
+	MoveList moves;
+	private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+	
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		board = chessGame.getBoard();
+		moves = new MoveList();
+		System.setOut(new PrintStream(outContent));
+	}
+	
+	@After
+	public void cleanUpStreams() {
+	    System.setOut(null);
+	}
+	
+	/*
+	 * find the generated move between two tiles, 0 if there is none.
+	 */
+	private int find(int from, int to) {
+		for (int i = 0; i < moves.size(); i++) {
+			if (PackedMove.from(moves.get(i)) == from && PackedMove.to(moves.get(i)) == to) {
+				return moves.get(i);
+			}
+		}
+		return 0;
+	}
+	
+	/*
+	 * test the opening moves: 16 pawn moves, half of them double steps, and 4 knight moves.
+	 */
+	@Test
+	public void TestStart() {
+		chessGame.generateLegalMoves(moves);
+		assertEquals(20, moves.size());
+		int doubleSteps = 0;
+		int knightMoves = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			assertFalse(PackedMove.isCapture(moves.get(i)));
+			doubleSteps += (PackedMove.isDoubleStep(moves.get(i)) ? 1 : 0);
+			knightMoves += (PackedMove.piece(moves.get(i)) == PieceType.KNIGHT ? 1 : 0);
+		}
+		assertEquals(8, doubleSteps);
+		assertEquals(4, knightMoves);
+	}
+	
+	/*
+	 * test BerolinaPawns step and double step diagonally in the custom setup.
+	 */
+	@Test
+	public void TestBerolinaPawns() {
+		chessGame = new ChessGame(9,9,true);
+		chessGame.generateLegalMoves(moves);
+		assertEquals(30, moves.size());
+		// the BerolinaPawn on b2 can step to a3 or c3, or double step to d4
+		int doubleStep = find(9 + 1, 27 + 3);
+		assertEquals(PieceType.BEROLINA_PAWN, PackedMove.piece(doubleStep));
+		assertTrue(PackedMove.isDoubleStep(doubleStep));
+		assertFalse(PackedMove.isDoubleStep(find(9 + 1, 18 + 2)));
+	}
+	
+	/*
+	 * test captures record the captured piece.
+	 */
+	@Test
+	public void TestCapture() {
+		move(chessGame, 1, 4, 3, 4);
+		move(chessGame, 6, 3, 4, 3);
+		chessGame.generateLegalMoves(moves);
+		int capture = find(28, 35);
+		assertEquals(PieceType.PAWN, PackedMove.piece(capture));
+		assertEquals(PieceType.PAWN, PackedMove.captured(capture));
+		assertFalse(PackedMove.isCapture(find(28, 36)));
+	}
+	
+	/*
+	 * test a knight pinned to its king by a bishop has no legal moves.
+	 */
+	@Test
+	public void TestPinnedPiece() {
+		move(chessGame, 1, 3, 3, 3);
+		move(chessGame, 6, 4, 4, 4);
+		move(chessGame, 0, 1, 2, 2);
+		move(chessGame, 7, 5, 3, 1);
+		chessGame.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			assertTrue(PackedMove.from(moves.get(i)) != 18);
+		}
+		assertTrue(find(6, 21) != 0);
+	}
+	
+	/*
+	 * test the generated moves are the legal moves LegalMoves finds, along random games of both setups.
+	 */
+	@Test
+	public void TestMatchesLegalMoves() {
+		Random random = new Random(7);
+		for (int game = 0; game < 10; game++) {
+			chessGame = (game % 2 == 0 ? new ChessGame(8,8,false) : new ChessGame(9,9,true));
+			for (int ply = 0; ply < 100; ply++) {
+				HashSet<Integer> expected = new HashSet<>();
+				for (int move : chessGame.getLegalMoves(chessGame.getPlayerTurn()).getPackedMoves()) {
+					expected.add(move);
+				}
+				chessGame.generateLegalMoves(moves);
+				HashSet<Integer> generated = new HashSet<>();
+				for (int i = 0; i < moves.size(); i++) {
+					generated.add(PackedMove.of(PackedMove.from(moves.get(i)), PackedMove.to(moves.get(i))));
+				}
+				assertEquals(expected, generated);
+				if (moves.size() == 0) {
+					break;
+				}
+				chessGame.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+		}
+	}
+	
+	/*
+	 * test generateCaptures gives the captures of the legal moves, or all of them in check, along random games
+	 * of both setups and of a board too large for bitboards.
+	 */
+	@Test
+	public void TestCaptures() {
+		Random random = new Random(11);
+		MoveList captures = new MoveList();
+		for (int game = 0; game < 9; game++) {
+			chessGame = (game % 3 == 0 ? new ChessGame(8,8,false) : game % 3 == 1 ? new ChessGame(9,9,true) : new ChessGame(10,25,false));
+			for (int ply = 0; ply < 100; ply++) {
+				chessGame.generateLegalMoves(moves);
+				boolean inCheck = chessGame.inCheck();
+				HashSet<Integer> expected = new HashSet<>();
+				for (int i = 0; i < moves.size(); i++) {
+					if (inCheck || PackedMove.isCapture(moves.get(i))) {
+						expected.add(moves.get(i));
+					}
+				}
+				chessGame.generateCaptures(captures);
+				HashSet<Integer> generated = new HashSet<>();
+				for (int i = 0; i < captures.size(); i++) {
+					generated.add(captures.get(i));
+				}
+				assertEquals(expected, generated);
+				assertEquals(expected.size(), captures.size());
+				if (moves.size() == 0) {
+					break;
+				}
+				chessGame.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+		}
+	}
+}
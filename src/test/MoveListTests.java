@@ -0,0 +1,76 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.pieces.PieceType;
+
+public class MoveListTests {
+
+	/*
+	 * test moves come back in the order they were added, and clear empties the list.
+	 */
+	@Test
+	public void TestAddAndClear() {
+		MoveList moves = new MoveList();
+		assertEquals(0, moves.size());
+		moves.add(PackedMove.of(12, 28));
+		moves.add(PackedMove.of(6, 21));
+		assertEquals(2, moves.size());
+		assertEquals(PackedMove.of(12, 28), moves.get(0));
+		assertEquals(PackedMove.of(6, 21), moves.get(1));
+		moves.clear();
+		assertEquals(0, moves.size());
+		moves.add(PackedMove.of(1, 18));
+		assertEquals(PackedMove.of(1, 18), moves.get(0));
+	}
+	
+	/*
+	 * test a full list grows rather than dropping moves.
+	 */
+	@Test
+	public void TestGrow() {
+		MoveList moves = new MoveList(2);
+		for (int i = 0; i < 100; i++) {
+			moves.add(PackedMove.of(i, i + 1));
+		}
+		assertEquals(100, moves.size());
+		assertEquals(PackedMove.of(99, 100), moves.get(99));
+	}
+	
+	/*
+	 * test moves past the end cannot be read, even if the buffer still holds them.
+	 */
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void TestGetPastEnd() {
+		MoveList moves = new MoveList();
+		moves.add(PackedMove.of(12, 28));
+		moves.clear();
+		moves.get(0);
+	}
+	
+	/*
+	 * test the pieces and flags recorded in a packed move read back, and do not change its tiles.
+	 */
+	@Test
+	public void TestPackedFields() {
+		int move = PackedMove.of(12, 28, PieceType.PAWN, null, PackedMove.DOUBLE_STEP);
+		assertEquals(12, PackedMove.from(move));
+		assertEquals(28, PackedMove.to(move));
+		assertEquals(PieceType.PAWN, PackedMove.piece(move));
+		assertNull(PackedMove.captured(move));
+		assertFalse(PackedMove.isCapture(move));
+		assertTrue(PackedMove.isDoubleStep(move));
+		move = PackedMove.of(80, 0, PieceType.KING, PieceType.PRINCESS, 0);
+		assertEquals(80, PackedMove.from(move));
+		assertEquals(0, PackedMove.to(move));
+		assertEquals(PieceType.KING, PackedMove.piece(move));
+		assertEquals(PieceType.PRINCESS, PackedMove.captured(move));
+		assertTrue(PackedMove.isCapture(move));
+		assertFalse(PackedMove.isDoubleStep(move));
+		// a move given only by its tiles records no pieces
+		assertNull(PackedMove.piece(PackedMove.of(12, 28)));
+	}
+}
@@ -0,0 +1,141 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.engine.MoveOrdering;
+import model.game.MoveList;
+import model.game.PackedMove;
+import model.game.PieceCode;
+
+public class MoveOrderingTests {
+
+	MoveOrdering ordering;
+	MoveList moves;
+	int[] scores;
+
+	@Before
+	public void setUp() {
+		ordering = new MoveOrdering(16);
+		moves = new MoveList();
+		scores = new int[MoveList.DEFAULT_CAPACITY];
+	}
+
+	/*
+	 * score the moves and pick them all, returning them in the order they would be tried.
+	 */
+	private int[] order(int hashMove, int ply, int previous) {
+		ordering.score(moves, scores, hashMove, ply, previous);
+		int[] order = new int[moves.size()];
+		for (int i = 0; i < moves.size(); i++) {
+			order[i] = MoveOrdering.selectNext(moves, scores, i);
+		}
+		return order;
+	}
+
+	/*
+	 * test captures come most valuable victim first, least valuable attacker first between equal victims,
+	 * with Princesses and BerolinaPawns valued.
+	 */
+	@Test
+	public void TestMvvLva() {
+		int queenTakesPawn = PackedMove.ofCodes(1, 2, PieceCode.QUEEN, PieceCode.PAWN, 0);
+		int pawnTakesRook = PackedMove.ofCodes(3, 4, PieceCode.PAWN, PieceCode.ROOK, 0);
+		int queenTakesRook = PackedMove.ofCodes(5, 4, PieceCode.QUEEN, PieceCode.ROOK, 0);
+		int knightTakesPrincess = PackedMove.ofCodes(6, 7, PieceCode.KNIGHT, PieceCode.PRINCESS, 0);
+		int berolinaTakesKnight = PackedMove.ofCodes(8, 9, PieceCode.BEROLINA_PAWN, PieceCode.KNIGHT, 0);
+		int quiet = PackedMove.ofCodes(10, 11, PieceCode.ROOK, 0, 0);
+		moves.add(quiet);
+		moves.add(queenTakesPawn);
+		moves.add(queenTakesRook);
+		moves.add(berolinaTakesKnight);
+		moves.add(pawnTakesRook);
+		moves.add(knightTakesPrincess);
+		assertArrayEquals(new int[] {knightTakesPrincess, pawnTakesRook, queenTakesRook, berolinaTakesKnight, queenTakesPawn, quiet},
+				order(0, 0, 0));
+	}
+
+	/*
+	 * test the hash move comes first, then captures, then killers, then the countermove, then history.
+	 */
+	@Test
+	public void TestStages() {
+		int previous = PackedMove.ofCodes(50, 40, PieceCode.KNIGHT, 0, 0);
+		int hash = PackedMove.ofCodes(1, 9, PieceCode.KING, 0, 0);
+		int capture = PackedMove.ofCodes(2, 10, PieceCode.QUEEN, PieceCode.PAWN, 0);
+		int killer = PackedMove.ofCodes(3, 11, PieceCode.BISHOP, 0, 0);
+		int counter = PackedMove.ofCodes(4, 12, PieceCode.ROOK, 0, 0);
+		int good = PackedMove.ofCodes(5, 13, PieceCode.KNIGHT, 0, 0);
+		int bad = PackedMove.ofCodes(6, 14, PieceCode.PAWN, 0, 0);
+		// the counter cuts off after the previous move at another ply, then the killer at this ply
+		moves.add(bad);
+		moves.add(counter);
+		ordering.cutoff(moves, 1, 3, 5, previous);
+		moves.clear();
+		moves.add(killer);
+		ordering.cutoff(moves, 0, 1, 2, 0);
+		moves.clear();
+		moves.add(good);
+		ordering.cutoff(moves, 0, 2, 7, 0);
+		moves.clear();
+		moves.add(bad);
+		moves.add(good);
+		moves.add(counter);
+		moves.add(killer);
+		moves.add(capture);
+		moves.add(hash);
+		assertArrayEquals(new int[] {hash, capture, killer, counter, good, bad}, order(hash, 2, previous));
+	}
+
+	/*
+	 * test history rewards cutoffs by depth and punishes the quiet moves tried before them.
+	 */
+	@Test
+	public void TestHistory() {
+		int first = PackedMove.ofCodes(1, 2, PieceCode.ROOK, 0, 0);
+		int capture = PackedMove.ofCodes(3, 4, PieceCode.ROOK, PieceCode.KNIGHT, 0);
+		int cutoff = PackedMove.ofCodes(5, 6, PieceCode.PRINCESS, 0, 0);
+		moves.add(first);
+		moves.add(capture);
+		moves.add(cutoff);
+		ordering.cutoff(moves, 2, 4, 0, 0);
+		assertEquals(16, ordering.getHistory(cutoff));
+		assertEquals(-16, ordering.getHistory(first));
+		// the same move from another tile shares the piece and destination
+		assertEquals(16, ordering.getHistory(PackedMove.ofCodes(7, 6, PieceCode.PRINCESS, 0, 0)));
+		// a capture cutting off changes nothing
+		ordering.cutoff(moves, 1, 4, 0, 0);
+		assertEquals(-16, ordering.getHistory(first));
+		ordering.newSearch();
+		assertEquals(8, ordering.getHistory(cutoff));
+	}
+
+	/*
+	 * test killers are kept per ply, two at a time, and forgotten by a new search.
+	 */
+	@Test
+	public void TestKillers() {
+		int a = PackedMove.ofCodes(1, 2, PieceCode.KNIGHT, 0, 0);
+		int b = PackedMove.ofCodes(3, 4, PieceCode.BISHOP, 0, 0);
+		int c = PackedMove.ofCodes(5, 6, PieceCode.ROOK, 0, 0);
+		int quiet = PackedMove.ofCodes(7, 8, PieceCode.PAWN, 0, 0);
+		for (int killer : new int[] {a, b, c}) {
+			moves.clear();
+			moves.add(killer);
+			ordering.cutoff(moves, 0, 1, 3, 0);
+		}
+		moves.clear();
+		moves.add(quiet);
+		moves.add(a);
+		moves.add(b);
+		moves.add(c);
+		// b and c are the killers, a was pushed out but keeps the history its cutoff earned
+		assertArrayEquals(new int[] {c, b, a, quiet}, order(0, 3, 0));
+		ordering.newSearch();
+		ordering.score(moves, scores, 0, 3, 0);
+		for (int i = 0; i < moves.size(); i++) {
+			assertTrue(scores[i] < 1 << 20);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.*;
+
+import model.engine.Perft;
+import model.game.ChessGame;
+import model.game.PackedMove;
+import model.pieces.PieceType;
+
+public class PerftTests {
+
+	ChessGame chessGame;
+	
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+	}
+	
+	/*
+	 * test the counts from the standard setup match the known values (no castling, en passant or promotion is
+	 * possible this early).
+	 */
+	@Test
+	public void TestStandardCounts() {
+		Perft perft = new Perft();
+		assertEquals(20, perft.count(chessGame, 1));
+		assertEquals(400, perft.count(chessGame, 2));
+		assertEquals(8902, perft.count(chessGame, 3));
+		// counting leaves the game as it was
+		assertEquals(0, chessGame.getPly());
+		assertEquals(new ChessGame(8,8,false).getKey(), chessGame.getKey());
+	}
+	
+	/*
+	 * test the counts from the custom 9x9 setup.
+	 */
+	@Test
+	public void TestCustomCounts() {
+		ChessGame custom = new ChessGame(9,9,true);
+		Perft perft = new Perft();
+		assertEquals(30, perft.count(custom, 1));
+		assertEquals(900, perft.count(custom, 2));
+		assertEquals(28848, perft.count(custom, 3));
+	}
+	
+	/*
+	 * test divide splits the count by root move.
+	 */
+	@Test
+	public void TestDivide() {
+		LinkedHashMap<Integer, Long> counts = new Perft().divide(chessGame, 3);
+		assertEquals(20, counts.size());
+		long total = 0;
+		for (long nodes : counts.values()) {
+			total += nodes;
+		}
+		assertEquals(8902, total);
+		// root moves are keyed by the generated move, which also records the piece and the double step
+		int e2e4 = PackedMove.of(12, 28, PieceType.PAWN, null, PackedMove.DOUBLE_STEP);
+		assertEquals(600, (long) counts.get(e2e4));
+		assertEquals("e2e4", PackedMove.toString(e2e4, 8));
+	}
+	
+	/*
+	 * test the parallel and cached counts agree with the plain count.
+	 */
+	@Test
+	public void TestParallelAndCached() {
+		LinkedHashMap<Integer, Long> parallel = new Perft(4).divideParallel(chessGame, 3, new ForkJoinPool(2));
+		assertEquals(new Perft().divide(chessGame, 3), parallel);
+		Perft cached = new Perft(4);
+		assertEquals(8902, cached.count(chessGame, 3));
+		assertEquals(8902, cached.count(chessGame, 3));
+		assertEquals(28848, cached.count(new ChessGame(9,9,true), 3));
+	}
+}
@@ -0,0 +1,113 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.Board;
+import model.game.PieceList;
+import model.pieces.King;
+import model.pieces.Knight;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+import model.player.Color;
+
+public class PieceListTests {
+
+	Board board;
+	PieceList pieces;
+	
+	@Before
+	public void setUp() {
+		board = new Board(8,8);
+		pieces = new PieceList();
+	}
+	
+	/*
+	 * test pieces are grouped by type and each piece is only added once.
+	 */
+	@Test
+	public void TestAdd() {
+		Piece king = new King(board.getTile(0, 4), Color.WHITE);
+		Piece pawn = new Pawn(board.getTile(1, 4), Color.WHITE);
+		Piece knight = new Knight(board.getTile(0, 1), Color.WHITE);
+		assertTrue(pieces.add(king));
+		assertTrue(pieces.add(pawn));
+		assertTrue(pieces.add(knight));
+		assertFalse(pieces.add(pawn));
+		assertEquals(3, pieces.size());
+		assertEquals(1, pieces.size(PieceType.PAWN));
+		assertEquals(knight, pieces.get(PieceType.KNIGHT, 0));
+		ArrayList<Piece> walked = new ArrayList<>(pieces);
+		assertEquals(pawn, walked.get(0));
+		assertEquals(knight, walked.get(1));
+		assertEquals(king, walked.get(2));
+	}
+	
+	/*
+	 * test removing a piece moves the last piece of its type into its place, and it can be put back.
+	 */
+	@Test
+	public void TestRemoveAndRestore() {
+		Piece[] pawns = new Piece[8];
+		for (int i = 0; i < 8; i++) {
+			pawns[i] = new Pawn(board.getTile(1, i), Color.WHITE);
+			pieces.add(pawns[i]);
+		}
+		assertTrue(pieces.remove(pawns[2]));
+		assertFalse(pieces.remove(pawns[2]));
+		assertFalse(pieces.contains(pawns[2]));
+		assertEquals(7, pieces.size());
+		assertEquals(pawns[7], pieces.get(PieceType.PAWN, 2));
+		assertTrue(pieces.add(pawns[2]));
+		assertEquals(8, pieces.size(PieceType.PAWN));
+		for (Piece pawn : pawns) {
+			assertTrue(pieces.contains(pawn));
+		}
+	}
+	
+	/*
+	 * test the list grows past its initial size and removing through the iterator visits every piece.
+	 */
+	@Test
+	public void TestGrowAndIteratorRemove() {
+		Board large = new Board(8,20);
+		for (int i = 0; i < 20; i++) {
+			pieces.add(new Pawn(large.getTile(1, i), Color.BLACK));
+		}
+		assertEquals(20, pieces.size());
+		int visited = 0;
+		Iterator<Piece> iterator = pieces.iterator();
+		while (iterator.hasNext()) {
+			Piece pawn = iterator.next();
+			visited++;
+			if (pawn.getTile().getFile() % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		assertEquals(20, visited);
+		assertEquals(10, pieces.size());
+		for (Piece pawn : pieces) {
+			assertEquals(1, pawn.getTile().getFile() % 2);
+		}
+	}
+	
+	/*
+	 * test a piece of another list is not found by its position.
+	 */
+	@Test
+	public void TestOtherList() {
+		PieceList other = new PieceList();
+		Piece pawn = new Pawn(board.getTile(1, 0), Color.WHITE);
+		Piece otherPawn = new Pawn(board.getTile(1, 1), Color.WHITE);
+		pieces.add(pawn);
+		other.add(otherPawn);
+		assertFalse(pieces.contains(otherPawn));
+		assertFalse(pieces.remove(otherPawn));
+		assertEquals(1, pieces.size());
+	}
+}
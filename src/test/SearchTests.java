@@ -0,0 +1,137 @@
+package test;
+import static org.junit.Assert.*;
+import static test.TestGames.move;
+import static test.TestGames.isLegal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.engine.Search;
+import model.engine.TimeManager;
+import model.game.ChessGame;
+import model.game.PackedMove;
+
+public class SearchTests {
+
+	ChessGame chessGame;
+	Search search;
+
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		search = new Search(1);
+	}
+
+	/*
+	 * test the search finds a mate in one: 1.e4 e5 2.Bc4 Nc6 3.Qh5 Nf6 4.Qxf7#
+	 */
+	@Test
+	public void TestMateInOne() {
+		move(chessGame, 1,4,3,4);
+		move(chessGame, 6,4,4,4);
+		move(chessGame, 0,5,3,2);
+		move(chessGame, 7,1,5,2);
+		move(chessGame, 0,3,4,7);
+		move(chessGame, 7,6,5,5);
+		int best = search.search(chessGame, 3);
+		assertEquals(PackedMove.of(4*8+7, 6*8+5), PackedMove.of(PackedMove.from(best), PackedMove.to(best)));
+		assertEquals(Search.MATE - 1, search.getScore());
+	}
+
+	/*
+	 * test the search takes a hanging queen: 1.e4 d5 2.Qg4 Bxg4
+	 */
+	@Test
+	public void TestWinsQueen() {
+		move(chessGame, 1,4,3,4);
+		move(chessGame, 6,3,4,3);
+		move(chessGame, 0,3,3,6);
+		int best = search.search(chessGame, 3);
+		assertEquals(7*8+2, PackedMove.from(best));
+		assertEquals(3*8+6, PackedMove.to(best));
+		assertTrue(search.getScore() > 500);
+	}
+
+	/*
+	 * test a checkmated player has no move to search: 1.f3 e5 2.g4 Qh4#
+	 */
+	@Test
+	public void TestCheckmated() {
+		move(chessGame, 1,5,2,5);
+		move(chessGame, 6,4,4,4);
+		move(chessGame, 1,6,3,6);
+		move(chessGame, 7,3,3,7);
+		assertEquals(0, search.search(chessGame, 2));
+		assertEquals(-Search.MATE, search.getScore());
+	}
+
+	/*
+	 * test the game searched from is left as it was.
+	 */
+	@Test
+	public void TestGameUnchanged() {
+		long key = chessGame.getKey();
+		search.search(chessGame, 4);
+		assertEquals(key, chessGame.getKey());
+		assertEquals(0, chessGame.getPly());
+		assertTrue(search.getNodes() > 20);
+	}
+
+	/*
+	 * test the search plays legal moves in the custom 9x9 setup.
+	 */
+	@Test
+	public void TestCustom() {
+		chessGame = new ChessGame(9,9,true);
+		for (int i = 0; i < 6; i++) {
+			int best = search.search(chessGame, 3);
+			assertTrue(isLegal(chessGame, best));
+			chessGame.makeMove(best);
+		}
+	}
+
+	/*
+	 * test a timed search stops because its time is up, with a move from a completed depth.
+	 */
+	@Test
+	public void TestTimed() {
+		TimeManager time = TimeManager.forMoveTime(100);
+		int best = search.search(chessGame, time);
+		// the opening has no forced mate, so only the time manager can have ended the search
+		assertFalse(time.canStartIteration());
+		assertTrue(search.getDepth() >= 1 && search.getDepth() < Search.MAX_PLY);
+		assertTrue(isLegal(chessGame, best));
+	}
+
+	/*
+	 * test depth 1 is always completed, even with no time at all.
+	 */
+	@Test
+	public void TestNoTime() {
+		int best = search.search(chessGame, new TimeManager(0, 0));
+		assertTrue(best != 0);
+		assertEquals(1, search.getDepth());
+	}
+
+	/*
+	 * test the mate is still found when deepening stops early once it is.
+	 */
+	@Test
+	public void TestTimedMate() {
+		move(chessGame, 1,5,2,5);
+		move(chessGame, 6,4,4,4);
+		move(chessGame, 1,6,3,6);
+		int best = search.search(chessGame, TimeManager.forMoveTime(2000));
+		assertEquals(7*8+3, PackedMove.from(best));
+		assertEquals(3*8+7, PackedMove.to(best));
+		assertEquals(1, search.getDepth());
+	}
+
+	/*
+	 * test depths outside the supported range are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void TestBadDepth() {
+		search.search(chessGame, 0);
+	}
+}
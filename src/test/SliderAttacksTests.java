@@ -0,0 +1,122 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.*;
+
+import model.game.ChessGame;
+import model.game.MoveList;
+import model.game.SliderAttacks;
+import model.game.WideBitboard;
+
+public class SliderAttacksTests {
+
+	/*
+	 * walk a ray from square until a blocker or the edge of the board, adding the tiles seen to attacks.
+	 */
+	private long[] walk(int ranks, int files, int square, int[][] directions, long occLo, long occHi) {
+		long[] attacks = new long[2];
+		for (int[] direction : directions) {
+			int rank = square / files + direction[0];
+			int file = square % files + direction[1];
+			while (rank >= 0 && rank < ranks && file >= 0 && file < files) {
+				int sq = rank * files + file;
+				attacks[0] |= WideBitboard.bitLo(sq);
+				attacks[1] |= WideBitboard.bitHi(sq);
+				if (WideBitboard.contains(occLo, occHi, sq)) {
+					break;
+				}
+				rank += direction[0];
+				file += direction[1];
+			}
+		}
+		return attacks;
+	}
+	
+	/*
+	 * check table lookups against ray walks for random occupancies on a board size.
+	 */
+	private void checkRandomOccupancies(int ranks, int files) {
+		int[][] orthogonal = {{1,0},{-1,0},{0,1},{0,-1}};
+		int[][] diagonal = {{1,1},{1,-1},{-1,1},{-1,-1}};
+		SliderAttacks sliderAttacks = SliderAttacks.forBoard(ranks, files);
+		Random random = new Random(ranks * 31 + files);
+		int tiles = ranks * files;
+		for (int i = 0; i < 2000; i++) {
+			long occLo = random.nextLong() & random.nextLong();
+			long occHi = tiles > 64 ? (random.nextLong() & random.nextLong() & ((1L << (tiles - 64)) - 1)) : 0;
+			if (tiles < 64) {
+				occLo &= (1L << tiles) - 1;
+			}
+			int square = random.nextInt(tiles);
+			long[] rook = walk(ranks, files, square, orthogonal, occLo, occHi);
+			int index = sliderAttacks.rookIndex(square, occLo, occHi);
+			assertEquals(rook[0], sliderAttacks.attacksLo(index));
+			assertEquals(rook[1], sliderAttacks.attacksHi(index));
+			long[] bishop = walk(ranks, files, square, diagonal, occLo, occHi);
+			index = sliderAttacks.bishopIndex(square, occLo, occHi);
+			assertEquals(bishop[0], sliderAttacks.attacksLo(index));
+			assertEquals(bishop[1], sliderAttacks.attacksHi(index));
+		}
+	}
+	
+	/*
+	 * test lookups on the classic 8x8 board.
+	 */
+	@Test
+	public void TestClassicBoard() {
+		checkRandomOccupancies(8, 8);
+	}
+	
+	/*
+	 * test lookups on the custom 9x9 board, where rays cross from the lo word to the hi word.
+	 */
+	@Test
+	public void TestCustomBoard() {
+		checkRandomOccupancies(9, 9);
+	}
+	
+	/*
+	 * test lookups on a board size with no saved magics, so the tables are searched for.
+	 */
+	@Test
+	public void TestOddBoard() {
+		checkRandomOccupancies(5, 7);
+	}
+	
+	/*
+	 * test a board size whose magics cannot be found within the search budget gets no tables and is
+	 * played without bitboards, instead of searching forever.
+	 */
+	@Test(timeout = 30000)
+	public void TestNoMagicsFound() {
+		assertNull(SliderAttacks.forBoard(10, 12));
+		ChessGame chessGame = new ChessGame(10, 12, false);
+		assertNull(chessGame.getBoard().getBitboards());
+		MoveList moves = new MoveList();
+		chessGame.generateLegalMoves(moves);
+		assertTrue(moves.size() > 0);
+	}
+	
+	/*
+	 * test an empty board: a rook in the corner sees its whole rank and file.
+	 */
+	@Test
+	public void TestEmptyBoard() {
+		SliderAttacks sliderAttacks = SliderAttacks.forBoard(8, 8);
+		int index = sliderAttacks.rookIndex(0, 0, 0);
+		assertEquals(14, WideBitboard.count(sliderAttacks.attacksLo(index), sliderAttacks.attacksHi(index)));
+		index = sliderAttacks.bishopIndex(0, 0, 0);
+		assertEquals(7, WideBitboard.count(sliderAttacks.attacksLo(index), sliderAttacks.attacksHi(index)));
+	}
+	
+	/*
+	 * test that tables are built once per board size and shared.
+	 */
+	@Test
+	public void TestSharedPerSize() {
+		assertSame(SliderAttacks.forBoard(8, 8), SliderAttacks.forBoard(8, 8));
+		assertNotSame(SliderAttacks.forBoard(8, 8), SliderAttacks.forBoard(9, 9));
+	}
+}
@@ -0,0 +1,96 @@
+package test;
+import static org.junit.Assert.*;
+import static test.TestGames.move;
+import static test.TestGames.isLegal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import model.engine.Search;
+import model.engine.SmpSearch;
+import model.engine.TimeManager;
+import model.game.ChessGame;
+import model.game.PackedMove;
+
+public class SmpSearchTests {
+
+	ChessGame chessGame;
+	SmpSearch search;
+
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		search = new SmpSearch(4, 4);
+	}
+
+	@After
+	public void tearDown() {
+		search.shutdown();
+	}
+
+	/*
+	 * test all threads together still find a mate in one: 1.e4 e5 2.Bc4 Nc6 3.Qh5 Nf6 4.Qxf7#
+	 */
+	@Test
+	public void TestMateInOne() {
+		move(chessGame, 1,4,3,4);
+		move(chessGame, 6,4,4,4);
+		move(chessGame, 0,5,3,2);
+		move(chessGame, 7,1,5,2);
+		move(chessGame, 0,3,4,7);
+		move(chessGame, 7,6,5,5);
+		int best = search.search(chessGame, 3);
+		assertEquals(4*8+7, PackedMove.from(best));
+		assertEquals(6*8+5, PackedMove.to(best));
+		assertTrue(search.getScore() > Search.MATE - Search.MAX_PLY);
+	}
+
+	/*
+	 * test the game searched from is left as it was, and the helpers' nodes are counted.
+	 */
+	@Test
+	public void TestGameUnchanged() {
+		long key = chessGame.getKey();
+		int best = search.search(chessGame, 4);
+		assertEquals(key, chessGame.getKey());
+		assertEquals(0, chessGame.getPly());
+		assertTrue(isLegal(chessGame, best));
+		assertTrue(search.getDepth() >= 4);
+		assertTrue(search.getNodes() > 20);
+	}
+
+	/*
+	 * test searches can be repeated on the same threads, in the custom setup and with a time limit.
+	 */
+	@Test
+	public void TestRepeated() {
+		chessGame = new ChessGame(9,9,true);
+		for (int i = 0; i < 4; i++) {
+			TimeManager time = TimeManager.forMoveTime(50);
+			int best = search.search(chessGame, time);
+			assertFalse(time.canStartIteration());
+			assertTrue(isLegal(chessGame, best));
+			chessGame.makeMove(best);
+		}
+	}
+
+	/*
+	 * test a single thread searches like a plain search.
+	 */
+	@Test
+	public void TestOneThread() {
+		SmpSearch single = new SmpSearch(1, 1);
+		int best = single.search(chessGame, 3);
+		assertEquals(new Search(1).search(chessGame, 3), best);
+		single.shutdown();
+	}
+
+	/*
+	 * test an SMP search needs a thread.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void TestNoThreads() {
+		new SmpSearch(0, 1);
+	}
+}
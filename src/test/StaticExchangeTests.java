@@ -0,0 +1,179 @@
+package test;
+import static org.junit.Assert.*;
+import static test.TestGames.move;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.engine.Search;
+import model.engine.StaticExchange;
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.PackedMove;
+import model.game.Tile;
+import model.pieces.PieceType;
+import model.player.Color;
+
+public class StaticExchangeTests {
+
+	ChessGame chessGame;
+	Board board;
+	StaticExchange exchange;
+
+	@Before
+	public void setUp() {
+		chessGame = new ChessGame(8,8,false);
+		board = chessGame.getBoard();
+		// clear the board down to the kings, on a1 and h8
+		for (int rank = 0; rank < 8; rank++) {
+			for (int file = 0; file < 8; file++) {
+				Tile tile = board.getTile(rank, file);
+				if (tile.getOccupant() != null && tile.getOccupant().getType() != PieceType.KING) {
+					tile.getOccupant().movePiece(null);
+				}
+			}
+		}
+		chessGame.getWhiteKing().movePiece(board.getTile(0, 0));
+		chessGame.getBlackKing().movePiece(board.getTile(7, 7));
+		exchange = new StaticExchange(chessGame);
+	}
+
+	/*
+	 * put a piece of the given type and color on (rank, file).
+	 */
+	private void place(PieceType type, Color color, int rank, int file) {
+		type.create(board.getTile(rank, file), color);
+	}
+
+	/*
+	 * get what the piece on (fromRank, fromFile) wins by capturing on (toRank, toFile).
+	 */
+	private int see(int fromRank, int fromFile, int toRank, int toFile) {
+		return exchange.see(fromRank * 8 + fromFile, toRank * 8 + toFile);
+	}
+
+	/*
+	 * test taking an undefended piece wins it, and moving to an empty tile nobody attacks wins nothing.
+	 */
+	@Test
+	public void TestUndefended() {
+		place(PieceType.ROOK, Color.WHITE, 0, 3);
+		place(PieceType.KNIGHT, Color.BLACK, 4, 3);
+		assertEquals(320, see(0,3,4,3));
+		assertEquals(0, see(0,3,2,3));
+	}
+
+	/*
+	 * test a knight taking a pawn defended by a pawn, or by a BerolinaPawn straight behind it, loses the knight.
+	 */
+	@Test
+	public void TestDefendedByPawn() {
+		place(PieceType.KNIGHT, Color.WHITE, 2, 2);
+		place(PieceType.PAWN, Color.BLACK, 4, 3);
+		place(PieceType.PAWN, Color.BLACK, 5, 4);
+		assertEquals(-220, see(2,2,4,3));
+		board.getTile(5, 4).getOccupant().movePiece(null);
+		assertEquals(100, see(2,2,4,3));
+		place(PieceType.BEROLINA_PAWN, Color.BLACK, 5, 3);
+		assertEquals(-220, see(2,2,4,3));
+		// a BerolinaPawn does not defend its diagonals
+		board.getTile(5, 3).getOccupant().movePiece(null);
+		place(PieceType.BEROLINA_PAWN, Color.BLACK, 5, 2);
+		assertEquals(100, see(2,2,4,3));
+	}
+
+	/*
+	 * test a queen behind a rook joins the exchange once the rook has captured.
+	 */
+	@Test
+	public void TestXRay() {
+		place(PieceType.ROOK, Color.WHITE, 1, 3);
+		place(PieceType.QUEEN, Color.WHITE, 0, 3);
+		place(PieceType.KNIGHT, Color.BLACK, 4, 3);
+		place(PieceType.ROOK, Color.BLACK, 7, 3);
+		// RxN RxR QxR
+		assertEquals(320, see(1,3,4,3));
+		board.getTile(0, 3).getOccupant().movePiece(null);
+		// RxN RxR, white is a rook for a knight down
+		assertEquals(-180, see(1,3,4,3));
+	}
+
+	/*
+	 * test a king only recaptures when nothing can take it back.
+	 */
+	@Test
+	public void TestKingRecapture() {
+		place(PieceType.KNIGHT, Color.WHITE, 2, 3);
+		place(PieceType.ROOK, Color.WHITE, 0, 4);
+		place(PieceType.PAWN, Color.BLACK, 4, 4);
+		chessGame.getBlackKing().movePiece(board.getTile(5, 4));
+		assertEquals(100, see(2,3,4,4));
+		board.getTile(0, 4).getOccupant().movePiece(null);
+		assertEquals(-220, see(2,3,4,4));
+	}
+
+	/*
+	 * test a piece hangs when it can be taken for a gain, by its cheapest attacker.
+	 */
+	@Test
+	public void TestHanging() {
+		place(PieceType.ROOK, Color.WHITE, 0, 3);
+		place(PieceType.KNIGHT, Color.BLACK, 4, 3);
+		assertTrue(exchange.isHanging(4, 3));
+		assertEquals(320, exchange.threat(4 * 8 + 3));
+		assertFalse(exchange.isHanging(0, 3));
+		assertFalse(exchange.isHanging(2, 2));
+		// defended, the rook loses by taking it
+		place(PieceType.PAWN, Color.BLACK, 5, 4);
+		assertFalse(exchange.isHanging(4, 3));
+		assertEquals(0, exchange.threat(4 * 8 + 3));
+		// but a pawn wins it, backed by the rook: PxN PxP RxP
+		place(PieceType.PAWN, Color.WHITE, 3, 2);
+		assertTrue(exchange.isHanging(4, 3));
+		assertEquals(320, exchange.threat(4 * 8 + 3));
+	}
+
+	/*
+	 * test the exchange follows the game as moves are made.
+	 */
+	@Test
+	public void TestFollowsGame() {
+		place(PieceType.ROOK, Color.WHITE, 0, 3);
+		place(PieceType.KNIGHT, Color.BLACK, 4, 3);
+		place(PieceType.PAWN, Color.BLACK, 6, 2);
+		ChessGame copy = new ChessGame(chessGame);
+		StaticExchange copyExchange = new StaticExchange(copy);
+		assertTrue(copyExchange.isHanging(4, 3));
+		copy.makeMove(PackedMove.of(0, 1));
+		// the knight is defended after ...c6
+		copy.makeMove(PackedMove.of(6 * 8 + 2, 5 * 8 + 2));
+		assertFalse(copyExchange.isHanging(4, 3));
+		copy.unmakeMove();
+		assertTrue(copyExchange.isHanging(4, 3));
+	}
+
+	/*
+	 * test boards too large for bitboards have no static exchange evaluation.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void TestLargeBoard() {
+		new StaticExchange(new ChessGame(10, 25, false));
+	}
+
+	/*
+	 * test the quiescence search keeps a shallow search from taking defended pawns with the queen:
+	 * 1.e4 e5 2.Qh5 Nc6, where Qxe5+, Qxf7+ and Qxh7 all lose the queen.
+	 */
+	@Test
+	public void TestQuiescence() {
+		chessGame = new ChessGame(8,8,false);
+		move(chessGame, 1,4,3,4);
+		move(chessGame, 6,4,4,4);
+		move(chessGame, 0,3,4,7);
+		move(chessGame, 7,1,5,2);
+		Search search = new Search(1);
+		int best = search.search(chessGame, 1);
+		assertFalse(PackedMove.isCapture(best));
+		assertTrue(search.getScore() < 100);
+	}
+}
@@ -0,0 +1,37 @@
+package test;
+import static org.junit.Assert.*;
+
+import model.game.Board;
+import model.game.ChessGame;
+import model.game.MoveList;
+
+/*
+ * helpers shared by the tests that play out games move by move.
+ */
+public class TestGames {
+
+	private TestGames() {
+	}
+
+	/*
+	 * make a move, from (fromRank, fromFile) to (toRank, toFile), for the player whose turn it is.
+	 */
+	static void move(ChessGame game, int fromRank, int fromFile, int toRank, int toFile) {
+		Board board = game.getBoard();
+		assertEquals(0, game.playerMove(game.getPlayerTurn(), board.getTile(fromRank, fromFile).getOccupant(), board.getTile(toRank, toFile)));
+	}
+
+	/*
+	 * check a move is one of the legal moves of the player to move.
+	 */
+	static boolean isLegal(ChessGame game, int move) {
+		MoveList moves = new MoveList();
+		game.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			if (moves.get(i) == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
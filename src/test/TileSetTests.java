@@ -0,0 +1,129 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.game.Board;
+import model.game.Tile;
+import model.game.TileSet;
+
+public class TileSetTests {
+
+	Board board;
+	TileSet tiles;
+	
+	@Before
+	public void setUp() {
+		board = new Board(8,8);
+		tiles = new TileSet(board);
+	}
+	
+	/*
+	 * test adding, finding and removing tiles.
+	 */
+	@Test
+	public void TestAddContainsRemove() {
+		assertTrue(tiles.isEmpty());
+		assertTrue(tiles.add(board.getTile(1, 4)));
+		assertFalse(tiles.add(board.getTile(1, 4)));
+		assertTrue(tiles.add(board.getTile(7, 7)));
+		assertEquals(2, tiles.size());
+		assertTrue(tiles.contains(board.getTile(7, 7)));
+		assertFalse(tiles.contains(board.getTile(0, 0)));
+		assertFalse(tiles.contains("e2"));
+		assertTrue(tiles.remove(board.getTile(1, 4)));
+		assertFalse(tiles.remove(board.getTile(1, 4)));
+		assertEquals(1, tiles.size());
+		tiles.clear();
+		assertTrue(tiles.isEmpty());
+	}
+	
+	/*
+	 * test iteration walks the tiles in order and returns the board's own tiles.
+	 */
+	@Test
+	public void TestIterate() {
+		tiles.add(board.getTile(7, 0));
+		tiles.add(board.getTile(0, 3));
+		tiles.add(board.getTile(2, 2));
+		ArrayList<Tile> walked = new ArrayList<>();
+		for (Tile tile : tiles) {
+			walked.add(tile);
+		}
+		assertEquals(3, walked.size());
+		assertSame(board.getTile(0, 3), walked.get(0));
+		assertSame(board.getTile(2, 2), walked.get(1));
+		assertSame(board.getTile(7, 0), walked.get(2));
+		Iterator<Tile> iterator = tiles.iterator();
+		iterator.next();
+		iterator.remove();
+		assertEquals(2, tiles.size());
+		assertFalse(tiles.contains(board.getTile(0, 3)));
+	}
+	
+	/*
+	 * test a TileSet equals a HashSet of the same tiles, both ways round.
+	 */
+	@Test
+	public void TestEqualsHashSet() {
+		HashSet<Tile> expected = new HashSet<>();
+		expected.add(board.getTile(3, 3));
+		expected.add(board.getTile(4, 5));
+		tiles.add(board.getTile(4, 5));
+		tiles.add(board.getTile(3, 3));
+		assertEquals(expected, tiles);
+		assertEquals(tiles, expected);
+		assertEquals(expected.hashCode(), tiles.hashCode());
+	}
+	
+	/*
+	 * test bitboards can be added in bulk, on boards using one and two words.
+	 */
+	@Test
+	public void TestAddBitboard() {
+		tiles.addBitboard(0xFFL, 0L);
+		assertEquals(8, tiles.size());
+		assertTrue(tiles.contains(board.getTile(0, 7)));
+		assertEquals(0xFFL, tiles.getLo());
+		Board custom = new Board(9,9);
+		TileSet customTiles = new TileSet(custom);
+		customTiles.add(custom.getTile(0, 0));
+		customTiles.addBitboard(1L, 1L << 16);
+		assertEquals(2, customTiles.size());
+		assertTrue(customTiles.contains(custom.getTile(8, 8)));
+		assertEquals(1L << 16, customTiles.getHi());
+	}
+	
+	/*
+	 * test tiles of boards too large for bitboards.
+	 */
+	@Test
+	public void TestLargeBoard() {
+		Board large = new Board(12,12);
+		TileSet largeTiles = new TileSet(large);
+		largeTiles.add(large.getTile(11, 11));
+		largeTiles.add(large.getTile(5, 5));
+		assertEquals(2, largeTiles.size());
+		assertTrue(largeTiles.contains(large.getTile(11, 11)));
+		Iterator<Tile> iterator = largeTiles.iterator();
+		assertSame(large.getTile(5, 5), iterator.next());
+		assertSame(large.getTile(11, 11), iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+	
+	/*
+	 * test a tile of another board is never in the set and cannot be added.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void TestOtherBoard() {
+		Board other = new Board(8,8);
+		assertFalse(tiles.contains(other.getTile(1, 4)));
+		assertTrue(new TileSet().isEmpty());
+		tiles.add(other.getTile(1, 4));
+	}
+}
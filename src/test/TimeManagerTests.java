@@ -0,0 +1,72 @@
+package test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import model.engine.TimeManager;
+
+public class TimeManagerTests {
+
+	/*
+	 * test a fixed move time keeps back time for overhead.
+	 */
+	@Test
+	public void TestMoveTime() {
+		TimeManager time = TimeManager.forMoveTime(500);
+		assertTrue(time.getHardLimitMillis() < 500);
+		assertTrue(time.getHardLimitMillis() > 400);
+		assertEquals(time.getSoftLimitMillis(), time.getHardLimitMillis());
+		assertEquals(1, TimeManager.forMoveTime(0).getHardLimitMillis());
+	}
+
+	/*
+	 * test a clock is shared between the moves to go, and the hard limit never takes a large share of it.
+	 */
+	@Test
+	public void TestClock() {
+		TimeManager time = TimeManager.forClock(60000, 0, 30);
+		assertTrue(time.getSoftLimitMillis() >= 1900 && time.getSoftLimitMillis() <= 2000);
+		assertTrue(time.getHardLimitMillis() > time.getSoftLimitMillis());
+		assertTrue(time.getHardLimitMillis() <= 15000);
+		// an increment is mostly spent, but never more than a quarter of the clock is planned
+		TimeManager increment = TimeManager.forClock(4000, 10000, 0);
+		assertTrue(increment.getHardLimitMillis() <= 1000);
+		assertTrue(increment.getSoftLimitMillis() <= increment.getHardLimitMillis());
+	}
+
+	/*
+	 * test no new depth is started after the soft limit, and the deadline is seen once the hard limit passes.
+	 */
+	@Test
+	public void TestLimits() throws InterruptedException {
+		TimeManager time = new TimeManager(20, 40);
+		assertTrue(time.canStartIteration());
+		assertFalse(time.isPastDeadline());
+		Thread.sleep(25);
+		assertFalse(time.canStartIteration());
+		Thread.sleep(20);
+		assertTrue(time.isPastDeadline());
+		assertTrue(time.getElapsedMillis() >= 40);
+	}
+
+	/*
+	 * test a depth predicted to run past the hard limit is not started.
+	 */
+	@Test
+	public void TestPrediction() throws InterruptedException {
+		TimeManager time = new TimeManager(400, 400);
+		time.iterationStarted();
+		Thread.sleep(100);
+		time.iterationFinished();
+		// the next depth is predicted to take several times as long as the last
+		assertFalse(time.canStartIteration());
+	}
+
+	/*
+	 * test limits in the wrong order are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void TestBadLimits() {
+		new TimeManager(100, 50);
+	}
+}
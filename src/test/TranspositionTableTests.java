@@ -0,0 +1,122 @@
+package test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.*;
+
+import model.engine.TranspositionTable;
+
+public class TranspositionTableTests {
+
+	TranspositionTable table;
+	
+	@Before
+	public void setUp() {
+		table = new TranspositionTable(1);
+	}
+	
+	/*
+	 * test an entry is found again with the same fields it was stored with.
+	 */
+	@Test
+	public void TestStoreAndProbe() {
+		assertEquals(0, table.probe(12345L));
+		table.store(12345L, 777, -300, 6, TranspositionTable.LOWER_BOUND);
+		long entry = table.probe(12345L);
+		assertEquals(777, TranspositionTable.getMove(entry));
+		assertEquals(-300, TranspositionTable.getScore(entry));
+		assertEquals(6, TranspositionTable.getDepth(entry));
+		assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+		assertEquals(1, table.getHits());
+		assertEquals(1, table.getMisses());
+	}
+	
+	/*
+	 * test a key that lands in the same bucket but is another position is not returned.
+	 */
+	@Test
+	public void TestOtherPositionMisses() {
+		long key = 42L;
+		table.store(key, 1, 0, 1, TranspositionTable.EXACT);
+		assertEquals(0, table.probe(key + (1L << 40)));
+	}
+	
+	/*
+	 * test a shallower result of the current search does not replace a deeper one, and the old move is kept.
+	 */
+	@Test
+	public void TestDepthPreferred() {
+		table.store(99L, 5, 10, 8, TranspositionTable.LOWER_BOUND);
+		table.store(99L, 6, 20, 3, TranspositionTable.UPPER_BOUND);
+		assertEquals(8, TranspositionTable.getDepth(table.probe(99L)));
+		table.store(99L, 0, 30, 9, TranspositionTable.EXACT);
+		long entry = table.probe(99L);
+		assertEquals(9, TranspositionTable.getDepth(entry));
+		assertEquals(5, TranspositionTable.getMove(entry));
+	}
+	
+	/*
+	 * test a full bucket replaces its shallowest entry, and prefers entries from old searches.
+	 */
+	@Test
+	public void TestReplacement() {
+		long buckets = table.getCapacity() / 4;
+		// five positions in the same bucket
+		for (int i = 0; i < 4; i++) {
+			table.store(7 + i * buckets, i + 1, 0, 10 + i, TranspositionTable.EXACT);
+		}
+		table.store(7 + 4 * buckets, 5, 0, 20, TranspositionTable.EXACT);
+		assertEquals(0, table.probe(7));
+		assertEquals(1, table.getCollisions());
+		// after a new search the old entries are replaced before the deep new one
+		table.newSearch();
+		table.store(7 + 5 * buckets, 6, 0, 1, TranspositionTable.EXACT);
+		assertTrue(table.probe(7 + 4 * buckets) != 0);
+		assertEquals(0, table.probe(7 + buckets));
+	}
+	
+	/*
+	 * test the fill rate grows as entries are written and clear empties the table.
+	 */
+	@Test
+	public void TestFillRateAndClear() {
+		assertEquals(0.0, table.getFillRate(), 0.0);
+		for (long key = 0; key < table.getCapacity(); key++) {
+			table.store(key * 31 + 1, 1, 0, 1, TranspositionTable.EXACT);
+		}
+		assertTrue(table.getFillRate() > 0.5);
+		table.clear();
+		assertEquals(0.0, table.getFillRate(), 0.0);
+		assertEquals(0, table.getStores());
+	}
+	
+	/*
+	 * test threads sharing the table never read an entry for another position.
+	 */
+	@Test
+	public void TestConcurrentStores() throws InterruptedException {
+		Thread[] threads = new Thread[4];
+		final boolean[] wrong = new boolean[1];
+		for (int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 200000; i++) {
+					// the score is derived from the key so a mixed-up entry is spotted
+					long key = random.nextInt(100000) * 0x9E3779B97F4A7C15L;
+					long entry = table.probe(key);
+					if (entry != 0 && TranspositionTable.getScore(entry) != (short) key) {
+						wrong[0] = true;
+					}
+					table.store(key, (int) key, (short) key, random.nextInt(20), TranspositionTable.EXACT);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertFalse(wrong[0]);
+	}
+}